@@ -2,6 +2,7 @@ package gomokugame;
 
 import gomokugame.client.Client;
 import gomokugame.server.Server;
+import gomokugame.server.ServerConfig;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.stage.Stage;
@@ -14,13 +15,13 @@ public class Main extends Application {
     public static final int[] INVISIBLE_MODE_REVEAL_CHANCES = {1, 3, 5, 7, 10, 15};
     public static final int DEFAULT_WIDTH = 960;
     public static final int DEFAULT_HEIGHT = 540;
-    private static final int GLOBAL_PORT = 9090; // The port to connect to
+    private static final int GLOBAL_PORT = Integer.getInteger("gomoku.port", 9090); // The port to connect to
     private static final ExecutorService threadPool = Executors.newCachedThreadPool();
 
     @Override
     public void start(Stage stage) {
         // Opens up a server socket
-        Server server = new Server(GLOBAL_PORT); // Will not open if not the first instance of Client to join
+        Server server = new Server(GLOBAL_PORT, ServerConfig.fromSystemProperties()); // Will not open if not the first instance of Client to join
         threadPool.execute(server); // Executes the server thread. If failed to open, it'll stop execution by return
 
         // Opens up a client socket
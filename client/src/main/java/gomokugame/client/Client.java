@@ -0,0 +1,1232 @@
+package gomokugame.client;
+
+import gomokugame.guis.elements.*;
+import gomokugame.guis.layouts.*;
+import gomokugame.objects.*;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.geometry.Pos;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
+import gomokugame.Main;
+import gomokugame.protocol.Frames;
+import gomokugame.protocol.Handshake;
+import gomokugame.protocol.MessageCodec;
+import gomokugame.protocol.WireFormat;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class Client implements Runnable {
+    public Socket clientSocket;
+    private Stage stage;
+    private Board board;
+    private BoardView boardView; // Shows this.board
+    private String color;
+    private LinkedHashMap<Integer, SerializedRoom> availableRooms; // Kept in sync with the server through room list deltas
+    private long roomListVersion = -1; // Version of the server's room list that availableRooms reflects, -1 before the first snapshot
+    private final HashMap<Integer, ListedRoomUi> listedRooms = new HashMap<>(); // Room list entries currently on display
+    private Move lastMove;
+    private boolean turnTimerIsRunning;
+    private boolean invisibleModeIsOn = false;
+    private int invisibleModeRevealChances;
+    private boolean revealModeIsOn;
+    private int invalidMovesCount;
+    private Scene mainMenuScene;
+    private Scene roomListScene;
+    private Scene roomCreationScene;
+    private Scene roomSettingsScene;
+    private MainMenuGui mainMenuGui;
+    private RoomListGui roomListGui;
+    private RoomCreationGui roomCreationGui;
+    private RoomSettingsGui roomSettingsGui;
+    private GameMatchGui gameMatchGui;
+    private MatchEndScreen matchEndScreen;
+    private final Object matchEndThreadLock = new Object();
+    private DataOutputStream out;
+    private DataInputStream in;
+    private MessageCodec codec; // Negotiated with the server right after connecting
+    private ExecutorService threadPool;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private volatile SessionTicket sessionTicket; // Latest ticket from the server, used to resume the session after losing the connection
+    private int matchNumber; // Match the board on display belongs to. Only touched by the listener thread
+    private int lastMoveSequence; // Sequence of the last move received, so a resumed session only gets the later ones
+    private static final int RESUME_ATTEMPTS = 20;
+    private static final long RESUME_RETRY_MILLIS = 250;
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 2000; // A standby that has not taken over yet never answers the hello
+    private final AtomicInteger nextRequestId = new AtomicInteger(1);
+    private final ConcurrentHashMap<Integer, CompletableFuture<Object>> pendingRequests = new ConcurrentHashMap<>(); // By request id
+    private static final long REQUEST_TIMEOUT_MILLIS = 10000;
+    private static final long REQUEST_WARNING_MILLIS = 3000; // How long the reason a request failed stays on screen
+    private static final int SERVER_SILENCE_TIMEOUT_MILLIS = 5000; // Once the server sends heartbeats, this much silence means it is gone
+    private static final int CLOCK_SAMPLES = 16; // Heartbeats the server clock offset is estimated from
+    private final long[] clockSamples = new long[CLOCK_SAMPLES]; // Server send time minus local arrival time of the latest heartbeats, in microseconds
+    private int clockSampleCount; // Since connecting to the current server. Only touched by the listener thread
+    private long serverClockOffsetMicros; // Server clock minus local clock, valid once clockSampleCount > 0
+
+    public Client(int port, Stage stage) {
+        try {
+            this.clientSocket = new Socket("localhost", port);
+            this.stage = stage;
+            System.out.println("Client connected to port " + this.clientSocket.getPort());
+        } catch (IOException e){
+            // Failed to open, so client must be null
+            this.clientSocket = null; // Just to ensure
+            System.err.println("Could not connect to Server on port " + port + ". Possibly due to no server online or invalid port.");
+        }
+    }
+
+    @Override
+    public void run() {
+        // If client fails to open then terminate process
+        if (this.clientSocket == null) {
+            this.showConnectionFailure("Could not connect to the server.");
+            return;
+        }
+
+        this.threadPool = Executors.newCachedThreadPool();
+        this.availableRooms = new LinkedHashMap<>();
+
+        // IO streams. Without a negotiated codec nothing can be sent or read, so a refused handshake
+        // (server full, other protocol version) ends the client here with the reason on screen
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(clientSocket.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(clientSocket.getInputStream()));
+            this.clientSocket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            this.codec = this.negotiateWireFormat(this.out, this.in).codec;
+            this.clientSocket.setSoTimeout(0);
+        } catch (IOException e) {
+            System.err.println("Failed to establish Client IO stream: " + e.getMessage());
+
+            try {
+                this.clientSocket.close();
+            } catch (IOException closeFailure) {
+                // Already unusable
+            }
+            this.threadPool.shutdown();
+            this.showConnectionFailure((e.getMessage() == null) ? "Could not connect to the server." : e.getMessage());
+            return;
+        }
+
+        // Initializing GUIs
+        this.mainMenuGui = new MainMenuGui();
+        this.mainMenuScene = new Scene(this.mainMenuGui, Main.DEFAULT_WIDTH, Main.DEFAULT_HEIGHT);
+        this.stage.setScene(this.mainMenuScene);
+
+        // Sets up a MouseClicked event upon clicking Start Game to open roomListGui
+        this.mainMenuGui.startGameButton.setOnMouseClicked(e1 -> {
+            // If roomListGui is NULL then create and initialize new one
+            if (this.roomListGui == null) {
+                this.roomListGui = new RoomListGui();
+
+                // Show room creation gui upon clicking create room
+                this.roomListGui.createRoomButton.setOnMouseClicked(e2 -> {
+                    // If roomCreationGui is NULL then initialize new one
+                    if (this.roomCreationGui == null) {
+                        this.roomCreationGui = new RoomCreationGui();
+
+                        // Process room creation
+                        this.roomCreationGui.createRoomButton.setOnMouseClicked(e3 -> {
+                            String roomName = this.roomCreationGui.roomNameTextField.getText();
+
+                            if (!roomName.isEmpty()) {
+                                if (this.roomSettingsGui == null) {
+                                    this.initializeRoomSettingsGui();
+                                }
+
+                                if (!this.roomSettingsGui.hBox2.getChildren().contains(this.roomSettingsGui.startButton)) {
+                                    this.roomSettingsGui.hBox2.getChildren().add(this.roomSettingsGui.startButton);
+                                }
+                                if (!this.roomSettingsGui.hBox.getChildren().contains(this.roomSettingsGui.settings)) {
+                                    this.roomSettingsGui.hBox.getChildren().add(this.roomSettingsGui.settings);
+                                }
+
+                                this.sendCreateRoomRequest(roomName);
+                                this.roomSettingsGui.setDefaultSettingsValue();
+                                this.showRoomSettings();
+                            }
+                        });
+                    }
+
+                    this.roomCreationGui.roomNameTextField.setText("");
+                    this.showRoomCreation(); // Show the room creation gui
+                });
+
+                // Back button click
+                this.roomListGui.backButton.setOnMouseClicked(e -> this.showMainMenu());
+            }
+
+            this.showRoomList(); // Show the room list
+            this.getRoomListFromServer(); // Get available rooms from server
+        });
+
+        this.mainMenuGui.exitGameButton.setOnMouseClicked(e -> this.stage.fireEvent(new WindowEvent(this.stage, WindowEvent.WINDOW_CLOSE_REQUEST)));
+
+        this.listenToServerMessage(); // Listen to server message in a separate thread
+    }
+
+    public void close() {
+        try {
+            if (!this.clientSocket.isClosed()) {
+                this.clientSocket.close();
+                this.out.close();
+                this.in.close();
+                this.threadPool.shutdown();
+                this.scheduler.shutdown();
+                this.failPendingRequests(new IOException("Client closed."));
+            }
+        } catch (IOException e) {
+            // Handle
+        }
+    }
+
+    /// IN-MATCH METHODS
+    // Sets up the match screen from the server's snapshot. Runs on the listener thread, so the screen is up before
+    // the next message (e.g. the first MoveRequest) is handled
+    private void startMatch(MatchStart start) {
+        this.color = start.color;
+        this.board = start.board;
+        this.matchNumber = start.board.matchNumber;
+        this.lastMoveSequence = start.board.moveCount;
+        this.invisibleModeRevealChances = start.invisibleModeRevealChances;
+
+        if (this.invisibleModeRevealChances > 0) {
+            this.invisibleModeIsOn = true;
+        }
+
+        this.gameMatchGui = new GameMatchGui();
+        this.generateBoard(start.timerPerTurnInMilliseconds);
+        this.showGameMatchGui();
+        this.sendMessageToServer("FINISHED_INITIALIZING");
+    }
+
+    private void generateBoard(int timerPerTurnInMilliseconds) {
+        System.out.println("Generating board...");
+        long startedAt = System.nanoTime();
+        BoardView boardView = this.createBoardView();
+        this.boardView = boardView;
+        System.out.println("SUCCESS (" + String.format("%.1f", (System.nanoTime() - startedAt) / 1e6) + " ms)");
+
+        Platform.runLater(() -> {
+            this.gameMatchGui.addBoardAndInit(boardView);
+
+            String timer = (timerPerTurnInMilliseconds > 0) ? " (" + String.format("%.1f", timerPerTurnInMilliseconds / 1000.0) + "s PER TURN)" : "";
+
+            if (color.equals("SPECTATOR")) {
+                this.gameMatchGui.upperText.text.setText("YOU ARE SPECTATING" + timer);
+            }
+            else {
+                this.gameMatchGui.upperText.text.setText("YOU ARE PLAYING AS " + color.toUpperCase() + timer);
+            }
+        });
+    }
+
+    // Draws the board on one canvas unless -Dgomoku.boardView=tiles asks for a node per tile
+    private BoardView createBoardView() {
+        String property = System.getProperty("gomoku.boardView");
+
+        if (property != null && property.trim().equalsIgnoreCase("tiles")) {
+            return new BoardUi(this.board, 0.45, 0.8, this.gameMatchGui);
+        }
+
+        return new BoardCanvas(this.board, 0.45, 0.8, this.gameMatchGui);
+    }
+
+    private void handleMoveRequest() {
+        Platform.runLater(() -> this.gameMatchGui.bottomText.text.setText("YOUR TURN"));
+
+        this.boardView.enableMoves((row, col) -> {
+            Move move = new Move(row, col);
+            this.lastMove = move;
+            this.sendMessageToServer(move);
+        });
+
+        if (this.invisibleModeIsOn) this.invalidMovesCount = 0;
+    }
+
+    // Just a helper function for three other functions
+    private void afterMove() {
+        this.boardView.disableMoves();
+
+        this.turnTimerIsRunning = false;
+        this.gameMatchGui.hideRevealStonesButton();
+        if (this.invisibleModeIsOn && this.revealModeIsOn) {
+            this.hideAllStones();
+            this.revealModeIsOn = false;
+        }
+    }
+
+    private void handleValidMove() {
+        Platform.runLater(() -> this.gameMatchGui.bottomText.text.setText(""));
+
+        this.afterMove();
+    }
+
+    private void handleInvalidMove() {
+        this.boardView.indicateInvalidMove(this.lastMove.targetRow, this.lastMove.targetCol);
+
+        if (this.invisibleModeIsOn && !this.revealModeIsOn) {
+            this.invalidMovesCount++;
+
+            if (this.invalidMovesCount == 3) {
+                this.handleInvalidMovesPenalty();
+                return;
+            }
+        }
+
+        String toDisplay;
+        if (this.invisibleModeIsOn && !this.revealModeIsOn) {
+            toDisplay = "INVALID MOVE! YOU ONLY CAN MAKE " + (3 - this.invalidMovesCount) + " INVALID MOVE(S) LEFT!";
+        }
+        else {
+            toDisplay = "INVALID MOVE!";
+        }
+        this.gameMatchGui.bottomText.text.setText(toDisplay);
+
+        this.scheduler.schedule(() -> Platform.runLater(() -> {
+            if (this.gameMatchGui.bottomText.text.getText().equals(toDisplay)) {
+                this.gameMatchGui.bottomText.text.setText("YOUR TURN");
+            }
+        }), 1000, TimeUnit.MILLISECONDS);
+    }
+
+    private void handleMoveTimeout() {
+        Platform.runLater(() -> {
+            this.gameMatchGui.bottomText.text.setText("RAN OUT OF TIME TO MAKE A MOVE");
+
+            this.scheduler.schedule(() -> Platform.runLater(() -> {
+                if (this.gameMatchGui.bottomText.text.getText().equals("RAN OUT OF TIME TO MAKE A MOVE")) {
+                    this.gameMatchGui.bottomText.text.setText("");
+                }
+            }), 1000, TimeUnit.MILLISECONDS);
+        });
+
+        this.afterMove();
+    }
+
+    private void handleInvalidMovesPenalty() {
+        Platform.runLater(() -> {
+            this.gameMatchGui.bottomText.text.setText("YOU HAVE MADE 3 INVALID MOVES! SKIPPING YOUR TURN...");
+
+            this.scheduler.schedule(() -> Platform.runLater(() -> {
+                if (this.gameMatchGui.bottomText.text.getText().equals("YOU HAVE MADE 3 INVALID MOVES! SKIPPING YOUR TURN...")) {
+                    this.gameMatchGui.bottomText.text.setText("");
+                }
+            }), 1000, TimeUnit.MILLISECONDS);
+        });
+
+        this.afterMove();
+        this.sendMessageToServer("INVALID_MOVE_PENALTY");
+    }
+
+    private void endMatch(MatchEndResult endResult) {
+        Platform.runLater(() -> {
+            this.showHiddenStones();
+            this.matchEndScreen = new MatchEndScreen(this.gameMatchGui);
+
+            if (endResult.isDraw) {
+                this.matchEndScreen.mainMessage.text.setText("DRAW");
+                this.matchEndScreen.subMessage.text.setText("Nobody can make five anymore");
+
+                if (endResult.spectator) {
+                    this.matchEndScreen.hBox.getChildren().clear();
+                    this.matchEndScreen.hBox.getChildren().add(this.matchEndScreen.exitMatch);
+                }
+                else {
+                    this.matchEndScreen.rematchButton.setOnMouseClicked(e -> this.sendMessageToServer("REMATCH_REQUEST"));
+                }
+            }
+            else if (endResult.spectator) {
+                this.matchEndScreen.hBox.getChildren().clear();
+                this.matchEndScreen.hBox.getChildren().add(this.matchEndScreen.exitMatch);
+                this.matchEndScreen.mainMessage.text.setText("MATCH ENDED");
+
+                if (endResult.wasAnAbort) {
+                    this.matchEndScreen.subMessage.text.setText((endResult.colorThatWon.equals("WHITE") ? "White" : "Black") + " won by aborted match");
+                }
+                else {
+                    this.matchEndScreen.subMessage.text.setText((endResult.colorThatWon.equals("WHITE") ? "White" : "Black") + " won the match");
+                }
+            }
+            else if (endResult.winner || endResult.loser){
+                if (endResult.winner) {
+                    this.matchEndScreen.mainMessage.text.setText("DAMN UR GOOD");
+                }
+                else {
+                    this.matchEndScreen.mainMessage.text.setText("DAMN U SUCK SO BAD");
+                }
+
+                if (endResult.wasAnAbort) {
+                    this.matchEndScreen.subMessage.text.setText("Your opponent aborted the match. Please exit");
+                    this.matchEndScreen.hBox.getChildren().clear();
+                    this.matchEndScreen.hBox.getChildren().add(this.matchEndScreen.exitMatch);
+                }
+                else {
+                    this.matchEndScreen.subMessage.text.setText("You can choose to request a rematch or exit");
+                    this.matchEndScreen.rematchButton.setOnMouseClicked(e -> this.sendMessageToServer("REMATCH_REQUEST"));
+                }
+            }
+            else {
+                this.matchEndScreen.hBox.getChildren().clear();
+                this.matchEndScreen.hBox.getChildren().add(this.matchEndScreen.exitMatch);
+                this.matchEndScreen.mainMessage.text.setText("NOBODY WON");
+                this.matchEndScreen.subMessage.text.setText("Somehow nobody had won the match???");
+            }
+
+            this.matchEndScreen.exitMatch.setOnMouseClicked(e -> {
+                if (this.roomSettingsGui != null) {
+                    this.showRoomSettings();
+                    this.sendMessageToServer("EXIT_MATCH");
+                }
+                else {
+                    this.sendLeaveRoomRequest();
+                    this.showRoomList();
+                }
+            });
+
+            this.turnTimerIsRunning = false;
+            this.invisibleModeIsOn = false;
+            this.gameMatchGui.bottomText.text.setText("");
+            this.gameMatchGui.getChildren().add(this.matchEndScreen);
+
+            synchronized (this.matchEndThreadLock) {
+                this.matchEndThreadLock.notifyAll();
+            }
+        });
+    }
+
+    /// COMMUNICATION METHODS
+    private void listenToServerMessage() {
+        this.threadPool.execute(() -> {
+            while (!this.clientSocket.isClosed()) {
+                Object message;
+
+                try {
+                    message = this.codec.decode(Frames.readPayload(this.in));
+
+                    // Answers arrive wrapped with the id of their request. They are applied like any other message first,
+                    // then the request's future completes, so its caller sees the new state
+                    Response response = (message instanceof Response r) ? r : null;
+
+                    if (response != null) {
+                        message = response.body;
+                    }
+
+                    if (message instanceof String) {
+                        System.out.println("Received server request: " + message);
+
+                        switch ((String) message) {
+                            case "NOT_ENOUGH_PLAYERS_TO_START":
+                                if (this.roomSettingsGui != null) {
+                                    Platform.runLater(() -> {
+                                        this.roomSettingsGui.warning.text.setText("Not enough player to start the match!");
+
+                                        this.scheduler.schedule(() -> Platform.runLater(() -> {
+                                            if (this.roomSettingsGui.warning.text.getText().equals("Not enough player to start the match!")) {
+                                                this.roomSettingsGui.warning.text.setText("");
+                                            }
+                                        }), 1000, TimeUnit.MILLISECONDS);
+                                    });
+                                }
+                                break;
+                            case "WHITE":
+                                this.color = "WHITE";
+                                break;
+                            case "BLACK":
+                                this.color = "BLACK";
+                                break;
+                            case "SPECTATOR":
+                                this.color = "SPECTATOR";
+                            case "JOIN_SUCCESS":
+                                System.out.println("Successfully joined the room.");
+                                break;
+                            case "RATE_LIMITED":
+                                System.err.println("The server rejected a message, too many messages were sent.");
+                                break;
+                            case "LEAVE_ROOM":
+                                this.showRoomList();
+                                break;
+                            case "INVALID_MOVE":
+                                this.handleInvalidMove();
+                                break;
+                            case "VALID_MOVE":
+                                this.handleValidMove();
+                                break;
+                            case "MOVE_TIMEOUT":
+                                this.handleMoveTimeout();
+                                break;
+                            case "REQUEST_REMATCH":
+                                this.matchEndScreen.notification.text.setText("Your opponent requested a rematch");
+                                break;
+                            case "REMATCH_IMPOSSIBLE":
+                                this.matchEndScreen.notification.text.setText("Your opponent left the match. Cannot request a rematch");
+                                break;
+                            case "HOST_LEFT_IN_MATCH":
+                                threadPool.execute(() -> {
+                                    synchronized (this.matchEndThreadLock) {
+                                        try {
+                                            this.matchEndThreadLock.wait();
+                                            final int[] timer = {5};
+
+                                            Platform.runLater(() -> {
+                                                this.matchEndScreen.hBox.getChildren().clear();
+                                                this.matchEndScreen.notification.text.setText("The room host left the match. You will automatically exit in 5 seconds");
+
+                                                Timeline timeline = new Timeline();
+                                                timeline.getKeyFrames().add(
+                                                        new KeyFrame(Duration.seconds(1), event -> {
+                                                            timer[0]--;
+                                                            this.matchEndScreen.notification.text.setText("The room host left the match. You will automatically exit in " + timer[0] + " second(s)");
+
+                                                            if (timer[0] <= 0) {
+                                                                this.matchEndScreen.notification.text.setText("");
+                                                                timeline.stop();
+                                                            }
+                                                        })
+                                                );
+
+                                                timeline.setCycleCount(Timeline.INDEFINITE);
+                                                timeline.play();
+                                            });
+                                        } catch (InterruptedException e) {
+                                            throw new RuntimeException(e);
+                                        }
+                                    }
+                                });
+                        }
+                    }
+                    else if (message instanceof RoomListDelta delta) {
+                        System.out.println("Received room list " + (delta.isSnapshot ? "snapshot" : "update") + " (version " + delta.toVersion + ").");
+
+                        // Applied on the JavaFX thread, the only one reading availableRooms
+                        Platform.runLater(() -> this.applyRoomListDelta(delta));
+                    }
+                    else if (message instanceof Move move) {
+                        System.out.println("Received move");
+
+                        this.lastMoveSequence = Math.max(this.lastMoveSequence, move.sequence);
+
+                        if (this.board != null) {
+                            Tile[][] boardArray = this.board.boardArray;
+                            boardArray[move.targetRow][move.targetCol].occupant = move.moveMaker;
+
+                            if (!this.invisibleModeIsOn) {
+                                this.boardView.showOccupant(move.targetRow, move.targetCol, move.moveMaker);
+                                this.boardView.markLastMove(move.targetRow, move.targetCol);
+                            }
+                        }
+                    }
+                    else if (message instanceof MatchStart start) {
+                        System.out.println("Received match start as " + start.color);
+                        this.startMatch(start);
+                    }
+                    else if (message instanceof Board passedBoard) {
+                        System.out.println("Received board");
+                        this.board = passedBoard;
+                        this.matchNumber = passedBoard.matchNumber;
+                        this.lastMoveSequence = passedBoard.moveCount;
+                    }
+                    else if (message instanceof MatchEndResult endResult) {
+                        System.out.println("Received end result");
+                        this.endMatch(endResult);
+                    }
+                    else if (message instanceof NodeRedirect redirect) {
+                        System.out.println("Room " + redirect.roomId + " is hosted on " + redirect.host + ":" + redirect.port + ". Switching server...");
+
+                        // Done on this thread, the only one reading from the server, so no message gets lost in between
+                        this.switchServer(redirect.host, redirect.port);
+
+                        SerializedRoom roomToJoin = new SerializedRoom(null);
+                        roomToJoin.roomId = redirect.roomId;
+                        this.sendMessageToServer(roomToJoin);
+                    }
+                    else if (message instanceof SessionTicket ticket) {
+                        this.sessionTicket = ticket;
+                    }
+                    else if (message instanceof Heartbeat heartbeat) {
+                        this.answerHeartbeat(heartbeat);
+                    }
+                    else if (message instanceof SerializedRoom serializableRoom) {
+                        System.out.println("Received serialized room");
+                        this.updateRoomSettings(serializableRoom);
+                    }
+                    else if (message instanceof MoveRequest moveRequest) {
+                        this.handleMoveRequest();
+
+                        // Show "reveal move" in case of an invisible mode being on
+                        if (this.invisibleModeIsOn && this.invisibleModeRevealChances > 0) {
+                            this.gameMatchGui.revealAmount.text.setText("You have " + this.invisibleModeRevealChances + " reveal(s) left");
+                            this.gameMatchGui.showRevealStonesButton();
+                            this.gameMatchGui.revealStones.setOnMouseClicked(e -> {
+                                this.showHiddenStones();
+                                this.gameMatchGui.revealStones.setOnMouseClicked(null);
+                                this.gameMatchGui.hideRevealStonesButton();
+                                this.revealModeIsOn = true;
+                                this.updateInvisibleModeRevealChancesToServer();
+                            });
+                        }
+
+                        if (moveRequest.timerPerTurnInMilliseconds > 0) {
+                            // Counts down to the server's deadline rather than by frames, so the time shown neither
+                            // includes the request's trip here nor drifts when frames come late
+                            long deadlineNanos = this.turnDeadlineNanos(moveRequest);
+                            this.gameMatchGui.turnTimer.text.setText("Make a move in: " + String.format("%.1f", Math.max(0, deadlineNanos - System.nanoTime()) / 1e9) + "s");
+
+                            Timeline timeline = new Timeline();
+                            timeline.getKeyFrames().add(
+                                    new KeyFrame(Duration.millis(100), event -> {
+                                        long remainingNanos = Math.max(0, deadlineNanos - System.nanoTime());
+                                        this.gameMatchGui.turnTimer.text.setText("Make a move in: " + String.format("%.1f", remainingNanos / 1e9) + "s");
+
+                                        if (remainingNanos <= 0 || !this.turnTimerIsRunning) {
+                                            this.gameMatchGui.turnTimer.text.setText("");
+                                            timeline.stop();
+                                        }
+                                    })
+                            );
+
+                            timeline.setCycleCount(Timeline.INDEFINITE);
+                            timeline.play();
+
+                            this.turnTimerIsRunning = true;
+                        }
+                    }
+                    else if (message instanceof Integer turns) {
+                        this.invisibleModeRevealChances = turns;
+                        if (!this.invisibleModeIsOn) {
+                            if (this.invisibleModeRevealChances > 0) {
+                                this.invisibleModeIsOn = true;
+                            }
+                        }
+                    }
+
+                    if (response != null) {
+                        this.completeRequest(response);
+                    }
+                } catch (IOException e) {
+                    this.failPendingRequests(e); // Their answers are lost with the connection
+
+                    if (this.resumeSession()) {
+                        continue;
+                    }
+
+                    System.err.println("Failed to read object from server.");
+                    this.close();
+                    break;
+                }
+            }
+        });
+    }
+
+    private void sendLeaveRoomRequest() {
+        System.out.println("Leaving room");
+        this.sendMessageToServer("LEAVE_ROOM_REQUEST");
+    }
+
+    private void sendStartMatchRequest() {
+        System.out.println("Sending match start request");
+        this.request("START_MATCH_REQUEST").exceptionally(e -> this.showRequestFailure(e, () -> this.roomSettingsGui.warning));
+    }
+
+    private void sendCreateRoomRequest(String roomName) {
+        System.out.println("Creating room request");
+
+        SerializedRoom roomToCreate = new SerializedRoom(roomName);
+        roomToCreate.isCreateRequest = true;
+        this.request(roomToCreate).exceptionally(e -> this.showRequestFailure(e, () -> this.roomSettingsGui.warning));
+    }
+
+    private void sendJoinRoomRequest(SerializedRoom roomToJoin) {
+        System.out.println("Joining room");
+        this.request(roomToJoin).exceptionally(e -> this.showRequestFailure(e, () -> this.roomSettingsGui.warning));
+    }
+
+    // Sends a request and returns its answer (null for requests the server only acknowledges). The future completes on
+    // the listener thread after the answer was applied, so callers doing real work continue on another thread.
+    // Never blocks; any number of requests may be in flight, and pushed messages never complete one
+    public CompletableFuture<Object> request(Object body) {
+        int requestId = this.nextRequestId.getAndIncrement();
+        CompletableFuture<Object> answer = new CompletableFuture<>();
+
+        this.pendingRequests.put(requestId, answer);
+        answer.orTimeout(REQUEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).whenComplete((result, e) -> this.pendingRequests.remove(requestId, answer));
+
+        try {
+            System.out.println("Sending: " + body + " (request " + requestId + ")");
+            this.writeToServer(new Request(requestId, body));
+        } catch (IOException e) {
+            System.err.println("Failed to send " + body + " to Server on port " + clientSocket.getPort());
+            answer.completeExceptionally(e);
+        }
+
+        return answer;
+    }
+
+    private void completeRequest(Response response) {
+        CompletableFuture<Object> answer = this.pendingRequests.remove(response.requestId);
+
+        if (answer == null) {
+            return;
+        }
+
+        if ("RATE_LIMITED".equals(response.body)) {
+            answer.completeExceptionally(new IOException("The server rejected the request, too many requests were sent."));
+        }
+        else {
+            answer.complete(response.body);
+        }
+    }
+
+    // The requests' exceptionally handler: shows why the request failed in the screen's warning text for a moment,
+    // like the warnings the server sends. The text is looked up on the FX thread, the screen may have changed
+    private Object showRequestFailure(Throwable failure, Supplier<AutoTextLabel> warning) {
+        Throwable cause = (failure instanceof CompletionException && failure.getCause() != null) ? failure.getCause() : failure;
+        String reason = (cause instanceof TimeoutException) ? "The server did not answer in time."
+                : (cause.getMessage() == null) ? "Lost the connection to the server." : cause.getMessage();
+
+        System.err.println("Request failed: " + reason);
+        Platform.runLater(() -> {
+            if (this.scheduler.isShutdown()) {
+                return; // Failed because the client closed
+            }
+
+            AutoTextLabel label = warning.get();
+            label.text.setText(reason);
+
+            this.scheduler.schedule(() -> Platform.runLater(() -> {
+                if (label.text.getText().equals(reason)) {
+                    label.text.setText("");
+                }
+            }), REQUEST_WARNING_MILLIS, TimeUnit.MILLISECONDS);
+        });
+
+        return null;
+    }
+
+    private void failPendingRequests(IOException cause) {
+        for (CompletableFuture<Object> answer : this.pendingRequests.values()) {
+            answer.completeExceptionally(cause);
+        }
+    }
+
+    // Message does not expect a response from the server
+    private void sendMessageToServer(Object message) {
+        try {
+            System.out.println("Sending: " + message);
+            this.writeToServer(message);
+        } catch (IOException e) {
+            System.err.println("Failed to send " + message + " to Server on port " + clientSocket.getPort());
+        }
+    }
+
+    // The listener thread, the FX thread and worker threads may all send at once
+    private void writeToServer(Object message) throws IOException {
+        byte[] frame = this.codec.encode(message);
+
+        synchronized (this.out) {
+            Frames.write(this.out, frame);
+        }
+    }
+
+    // Samples the server's clock and sends the heartbeat straight back so the server can measure the round trip. From
+    // the first heartbeat on, a server that goes silent counts as lost, even if the connection was never closed
+    private void answerHeartbeat(Heartbeat heartbeat) throws IOException {
+        if (this.clientSocket.getSoTimeout() == 0) {
+            this.clientSocket.setSoTimeout(SERVER_SILENCE_TIMEOUT_MILLIS);
+        }
+
+        this.sampleServerClock(heartbeat);
+        this.writeToServer(new Heartbeat(heartbeat.serverTimeMicros, heartbeat.roundTripMicros, true));
+    }
+
+    // Estimates the server's clock from a heartbeat. The heartbeat that was delayed the least on its way gives the
+    // largest difference, and the one way delay is taken as half the round trip the server measured
+    private void sampleServerClock(Heartbeat heartbeat) {
+        this.clockSamples[this.clockSampleCount++ % CLOCK_SAMPLES] = heartbeat.serverTimeMicros - System.nanoTime() / 1000;
+        long leastDelayed = Long.MIN_VALUE;
+
+        for (int i = 0; i < Math.min(this.clockSampleCount, CLOCK_SAMPLES); i++) {
+            leastDelayed = Math.max(leastDelayed, this.clockSamples[i]);
+        }
+
+        this.serverClockOffsetMicros = leastDelayed + Math.max(0, heartbeat.roundTripMicros) / 2;
+    }
+
+    // When the turn of a move request ends, on the local clock. Without a deadline (no turn timer, or no heartbeats yet
+    // to map the server's clock) the time left is counted from now
+    private long turnDeadlineNanos(MoveRequest moveRequest) {
+        if (moveRequest.deadlineMicros > 0 && this.clockSampleCount > 0) {
+            return (moveRequest.deadlineMicros - this.serverClockOffsetMicros) * 1000;
+        }
+
+        return System.nanoTime() + moveRequest.timerPerTurnInMilliseconds * 1_000_000L;
+    }
+
+    // Moves the connection over to another server node. Neither connecting nor the handshake waits longer than its
+    // timeout, since a standby that has not taken over yet leaves connections unanswered in its backlog
+    private void switchServer(String host, int port) throws IOException {
+        Socket socket = new Socket();
+        DataOutputStream socketOut;
+        DataInputStream socketIn;
+        WireFormat format;
+
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            socketOut = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            socketIn = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            format = this.negotiateWireFormat(socketOut, socketIn);
+            socket.setSoTimeout(0); // Set again once the server sends heartbeats, see answerHeartbeat
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+
+        Socket previousSocket = this.clientSocket;
+        this.clientSocket = socket;
+        this.out = socketOut;
+        this.in = socketIn;
+        this.codec = format.codec;
+        Platform.runLater(() -> this.roomListVersion = -1); // Room list versions are counted per node
+        this.clockSampleCount = 0; // Every node has a clock of its own
+
+        previousSocket.close();
+        System.out.println("Client connected to port " + this.clientSocket.getPort());
+    }
+
+    // Lost the connection: reconnects and takes back the session. The server resends only the moves after lastMoveSequence.
+    // The same server comes first in every round, after a network blip it is still running and keeps the seat. Its standby,
+    // if it has one, comes second: it only answers once it took over from a server that is gone for good.
+    // Returns false if it could not resume. Runs on the listener thread
+    private boolean resumeSession() {
+        SessionTicket ticket = this.sessionTicket;
+
+        if (ticket == null || this.clientSocket.isClosed()) {
+            return false;
+        }
+
+        this.sessionTicket = null; // Only one attempt per ticket, the server hands out a new one
+        long lostNanos = System.nanoTime();
+        ArrayList<String> hosts = new ArrayList<>();
+        ArrayList<Integer> ports = new ArrayList<>();
+        hosts.add(this.clientSocket.getInetAddress().getHostAddress());
+        ports.add(this.clientSocket.getPort());
+
+        if (ticket.standbyAddress != null) {
+            int separator = ticket.standbyAddress.lastIndexOf(':');
+            hosts.add(ticket.standbyAddress.substring(0, separator));
+            ports.add(Integer.parseInt(ticket.standbyAddress.substring(separator + 1)));
+        }
+
+        System.out.println("Lost the server. Resuming the session on " + hosts.get(0) + ":" + ports.get(0) + ((hosts.size() > 1) ? " or its standby" : "") + "...");
+
+        for (int attempt = 0; attempt < RESUME_ATTEMPTS; attempt++) {
+            for (int i = 0; i < hosts.size(); i++) {
+                try {
+                    this.switchServer(hosts.get(i), ports.get(i));
+
+                    ticket.isResumeRequest = true;
+                    ticket.matchNumber = this.matchNumber;
+                    ticket.lastMoveSequence = this.lastMoveSequence;
+                    this.writeToServer(ticket);
+
+                    System.out.println(String.format("Resumed the session on %s:%d after %.1f ms.", hosts.get(i), ports.get(i), (System.nanoTime() - lostNanos) / 1e6));
+                    return true;
+                } catch (IOException e) {
+                    // Not reachable (yet), try the next one
+                }
+            }
+
+            try {
+                Thread.sleep(RESUME_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    // Offers the preferred wire format (-Dgomoku.wireFormat, defaults to BINARY) and returns whatever the server picks
+    private WireFormat negotiateWireFormat(DataOutputStream out, DataInputStream in) throws IOException {
+        WireFormat preferred = WireFormat.BINARY;
+        String property = System.getProperty("gomoku.wireFormat");
+
+        if (property != null && property.trim().equalsIgnoreCase(WireFormat.SERIALIZED.name())) {
+            preferred = WireFormat.SERIALIZED;
+        }
+
+        Frames.write(out, Handshake.clientHello(preferred, (preferred == WireFormat.BINARY) ? WireFormat.SERIALIZED : WireFormat.BINARY));
+        WireFormat format = Handshake.acceptedFormat(Frames.readPayload(in));
+
+        System.out.println("Client speaks the " + format + " wire format.");
+        return format;
+    }
+
+    private CompletableFuture<Object> getRoomListFromServer() {
+        System.out.println("Getting room list from port " + clientSocket.getPort());
+        return this.request("GET_ROOM_LIST").exceptionally(e -> this.showRequestFailure(e, () -> this.roomListGui.descriptionText));
+    }
+
+    private CompletableFuture<Object> updateInvisibleModeRevealChancesToServer() {
+        System.out.println("Updating invisible mode " + clientSocket.getPort());
+        return this.request("UPDATE_INVISIBLE_MODE_REVEAL_CHANCES").exceptionally(e -> this.showRequestFailure(e, () -> this.gameMatchGui.bottomText));
+    }
+
+    /// GUI RELATED METHODS
+    // Replaces the menus when there is no usable connection. Called on the JavaFX thread from run()
+    private void showConnectionFailure(String reason) {
+        VBox failureGui = new VBox();
+        failureGui.setAlignment(Pos.CENTER);
+
+        AutoTextLabel reasonText = new AutoTextLabel(0.75, 0.15, failureGui);
+        reasonText.text.setText(reason);
+        reasonText.background.setOpacity(0);
+
+        AutoButton exitButton = new AutoButton(0.4, 0.1, failureGui);
+        exitButton.setText("Exit");
+        exitButton.setOnMouseClicked(e -> this.stage.fireEvent(new WindowEvent(this.stage, WindowEvent.WINDOW_CLOSE_REQUEST)));
+
+        failureGui.getChildren().addAll(reasonText, exitButton);
+        this.stage.setScene(new Scene(failureGui, Main.DEFAULT_WIDTH, Main.DEFAULT_HEIGHT));
+    }
+
+    private double getCurrentWidth () {
+        return this.stage.sceneProperty().get().getWidth();
+    }
+
+    private double getCurrentHeight () {
+        return this.stage.sceneProperty().get().getHeight();
+    }
+
+    private void showMainMenu() {
+        double currentWidth = getCurrentWidth();
+        double currentHeight = getCurrentHeight();
+
+        Platform.runLater(() -> {
+            if (this.mainMenuScene != null) {
+                this.mainMenuScene.setRoot(new Pane());
+            }
+
+            this.mainMenuScene = new Scene(this.mainMenuGui, currentWidth, currentHeight);
+            this.stage.setScene(this.mainMenuScene);
+        });
+    }
+
+    private void showRoomList() {
+        double currentWidth = getCurrentWidth();
+        double currentHeight = getCurrentHeight();
+
+        Platform.runLater(() -> {
+            if (this.roomListScene != null) {
+                this.roomListScene.setRoot(new Pane());
+            }
+
+            this.roomListScene = new Scene(this.roomListGui, currentWidth, currentHeight);
+            this.stage.setScene(this.roomListScene);
+            this.updateRoomList();
+        });
+    }
+
+    private void showRoomCreation() {
+        double currentWidth = getCurrentWidth();
+        double currentHeight = getCurrentHeight();
+
+        Platform.runLater(() -> {
+            if (this.roomCreationScene != null) {
+                this.roomCreationScene.setRoot(new Pane());
+            }
+
+            this.roomCreationScene = new Scene(this.roomCreationGui, currentWidth, currentHeight);
+            this.stage.setScene(this.roomCreationScene);
+        });
+    }
+
+    private void showRoomSettings() {
+        double currentWidth = getCurrentWidth();
+        double currentHeight = getCurrentHeight();
+
+        Platform.runLater(() -> {
+            if (this.roomSettingsScene != null) {
+                this.roomSettingsScene.setRoot(new Pane());
+            }
+
+            this.roomSettingsScene = new Scene(this.roomSettingsGui, currentWidth, currentHeight);
+            this.stage.setScene(this.roomSettingsScene);
+        });
+    }
+
+    private void showGameMatchGui() {
+        double currentWidth = getCurrentWidth();
+        double currentHeight = getCurrentHeight();
+
+        Platform.runLater(() -> this.stage.setScene(new Scene(this.gameMatchGui, currentWidth, currentHeight)));
+    }
+
+    // Applies a room list delta on top of the local copy. A gap in versions means an update went missing,
+    // in that case a fresh snapshot is requested instead
+    private void applyRoomListDelta(RoomListDelta delta) {
+        if (delta.isSnapshot) {
+            this.availableRooms.clear();
+        }
+        else if (delta.toVersion <= this.roomListVersion) {
+            return; // Already contained in a newer snapshot
+        }
+        else if (delta.fromVersion != this.roomListVersion) {
+            this.sendMessageToServer("GET_ROOM_LIST");
+            return;
+        }
+
+        for (SerializedRoom room : delta.addedRooms) {
+            this.availableRooms.put(room.roomId, room);
+        }
+        for (SerializedRoom room : delta.updatedRooms) {
+            this.availableRooms.put(room.roomId, room);
+        }
+        for (int roomId : delta.removedRoomIds) {
+            this.availableRooms.remove(roomId);
+        }
+
+        this.roomListVersion = delta.toVersion;
+
+        if (delta.isSnapshot) {
+            this.updateRoomList();
+        }
+        else {
+            this.updateRoomListEntries(delta);
+        }
+    }
+
+    private boolean roomListIsShown() {
+        return this.roomListGui != null && this.stage.sceneProperty().get().getRoot() == this.roomListGui;
+    }
+
+    // Rebuilds the whole room list
+    private void updateRoomList() {
+        if (this.roomListGui == null) {
+            return;
+        }
+
+        // Only update if the current scene is the roomListScene
+        if (this.roomListIsShown()) {
+            Platform.runLater(() -> {
+                this.roomListGui.roomsContainer.removeAllElements();
+                this.listedRooms.clear();
+
+                for (SerializedRoom room : this.availableRooms.values()) {
+                    this.addListedRoom(room);
+                }
+
+                this.updateRoomListDescription();
+            });
+        }
+    }
+
+    // Touches only the entries a delta changed, the rest of the list stays as it is
+    private void updateRoomListEntries(RoomListDelta delta) {
+        if (!this.roomListIsShown()) {
+            return; // Rebuilt from availableRooms once the room list is shown again
+        }
+
+        for (int roomId : delta.removedRoomIds) {
+            ListedRoomUi roomUi = this.listedRooms.remove(roomId);
+
+            if (roomUi != null) {
+                this.roomListGui.roomsContainer.removeElement(roomUi);
+            }
+        }
+
+        for (SerializedRoom room : delta.updatedRooms) {
+            ListedRoomUi roomUi = this.listedRooms.get(room.roomId);
+
+            if (roomUi != null) {
+                this.showRoomDetails(roomUi, room);
+            }
+            else {
+                this.addListedRoom(room);
+            }
+        }
+
+        for (SerializedRoom room : delta.addedRooms) {
+            this.addListedRoom(room);
+        }
+
+        this.updateRoomListDescription();
+    }
+
+    private void updateRoomListDescription() {
+        if (this.availableRooms.isEmpty()) {
+            this.roomListGui.descriptionText.text.setText("No rooms available. Go create one!");
+        }
+        else {
+            this.roomListGui.descriptionText.text.setText(this.availableRooms.size() + " room(s) available. Go join or create one!");
+        }
+    }
+
+    private void addListedRoom(SerializedRoom room) {
+        ListedRoomUi roomUi = new ListedRoomUi(0.5, 0.175, this.roomListGui);
+        this.showRoomDetails(roomUi, room);
+
+        roomUi.joinButton.setOnMouseClicked(e -> {
+            // The entry may have been updated since it was created, so join with the latest details
+            SerializedRoom latestRoom = this.availableRooms.getOrDefault(room.roomId, room);
+
+            if (this.roomSettingsGui == null) {
+                this.initializeRoomSettingsGui();
+            }
+
+            this.roomSettingsGui.hBox2.getChildren().remove(this.roomSettingsGui.startButton);
+            this.roomSettingsGui.hBox.getChildren().remove(this.roomSettingsGui.settings);
+
+            if (latestRoom.asPlayer) {
+                this.roomSettingsGui.notification.text.setText("You are playing. Waiting for host to start...");
+            }
+            else if (latestRoom.asSpectator) {
+                this.roomSettingsGui.notification.text.setText("You are spectating. Waiting for host to start...");
+            }
+
+            this.sendJoinRoomRequest(latestRoom);
+            this.showRoomSettings();
+        });
+
+        this.listedRooms.put(room.roomId, roomUi);
+        this.roomListGui.roomsContainer.addElement(roomUi);
+    }
+
+    private void showRoomDetails(ListedRoomUi roomUi, SerializedRoom room) {
+        roomUi.roomName.text.setText("Room Name: " + room.roomName);
+        roomUi.roomCreator.text.setText("Room Creator Id: " + room.roomCreatorId);
+        roomUi.roomId.text.setText("Room Id: " + room.roomId);
+        roomUi.playersAmount.text.setText("Connected players: " + room.connectedPlayersAmount + " player(s)");
+
+        if (room.connectedPlayersAmount < 2) {
+            roomUi.matchStatus.text.setText("Join as Player");
+        }
+        else {
+            roomUi.matchStatus.text.setText("Join as Spectator");
+        }
+    }
+
+    private void initializeRoomSettingsGui() {
+        this.roomSettingsGui = new RoomSettingsGui();
+
+        this.roomSettingsGui.leaveRoom.setOnMouseClicked(e -> {
+            this.sendLeaveRoomRequest();
+            this.showRoomList();
+        });
+
+        this.roomSettingsGui.startButton.setOnMouseClicked(e -> this.sendStartMatchRequest());
+
+        this.roomSettingsGui.boardSizeSettings.setOnAction(e -> {
+            String selectedItem = this.roomSettingsGui.boardSizeSettings.getSelectionModel().getSelectedItem();
+
+            if (selectedItem != null) {
+                System.out.println(selectedItem);
+
+                BoardSizeOption boardSizeOption = new BoardSizeOption(Integer.parseInt(selectedItem.split("x")[0]));
+                this.sendMessageToServer(boardSizeOption);
+            }
+        });
+
+        this.roomSettingsGui.timerPerTurnSettings.setOnAction(e -> {
+            String selectedItem = this.roomSettingsGui.timerPerTurnSettings.getSelectionModel().getSelectedItem();
+
+            if (selectedItem != null) {
+                System.out.println(selectedItem);
+                TimerOption timerOption;
+
+                if (selectedItem.equals("N/A")) {
+                    timerOption = new TimerOption(0);
+                } else {
+                    timerOption = new TimerOption((int) (Double.parseDouble(selectedItem.split("s")[0]) * 1000));
+                }
+
+                this.sendMessageToServer(timerOption);
+            }
+        });
+
+        this.roomSettingsGui.invisibleModeRevealChancesSettings.setOnAction(e -> {
+            String selectedItem = this.roomSettingsGui.invisibleModeRevealChancesSettings.getSelectionModel().getSelectedItem();
+
+            if (selectedItem != null) {
+                System.out.println(selectedItem);
+                InvisibleModeOption invisibleModeOption;
+
+                if (selectedItem.equals("N/A")) {
+                    invisibleModeOption = new InvisibleModeOption(-1);
+                } else {
+                    invisibleModeOption = new InvisibleModeOption(Integer.parseInt(selectedItem.split(" ")[0]));
+                }
+
+                this.sendMessageToServer(invisibleModeOption);
+            }
+        });
+    }
+
+    private void updateRoomSettings(SerializedRoom room) {
+        if (this.roomSettingsGui == null) {
+            return;
+        }
+
+        Platform.runLater(() -> {
+            this.roomSettingsGui.roomName.text.setText("Room Name: " + room.roomName);
+            this.roomSettingsGui.roomCreator.text.setText("Room Creator Id: " + room.roomCreatorId);
+            this.roomSettingsGui.boardSize.text.setText("Board Size: " + room.boardSize + "x" + room.boardSize);
+            this.roomSettingsGui.connectedPlayers.text.setText("Connected players: " + room.connectedPlayersAmount + " player(s)");
+
+            if (room.asPlayer) {
+                this.roomSettingsGui.notification.text.setText("You are playing. Wait for host to start!");
+            }
+            else if (room.asSpectator) {
+                this.roomSettingsGui.notification.text.setText("You are spectating. Waiting for host to start.");
+            }
+
+            if (room.timerPerTurnInMilliseconds > 0) {
+                this.roomSettingsGui.timerPerTurn.text.setText("Timer: " + String.format("%.1f", room.timerPerTurnInMilliseconds / 1000.0) + "s/turn");
+            }
+            else {
+                this.roomSettingsGui.timerPerTurn.text.setText("Timer: N/A");
+            }
+
+            if (room.invisibleModeRevealChances > 0) {
+                this.roomSettingsGui.invisibleModeRevealChances.text.setText("Invisible Mode: On (" + room.invisibleModeRevealChances + " reveal chance(s))");
+            }
+            else {
+                this.roomSettingsGui.invisibleModeRevealChances.text.setText("Invisible Mode: Off");
+            }
+        });
+    }
+
+    private void showHiddenStones() {
+        for (Tile[] tiles : this.board.boardArray) {
+            for (Tile tile : tiles) {
+                if (tile.occupant != null) {
+                    this.boardView.showOccupant(tile.row, tile.col, tile.occupant);
+                }
+            }
+        }
+    }
+
+    private void hideAllStones() {
+        for (Tile[] tiles : this.board.boardArray) {
+            for (Tile tile : tiles) {
+                if (tile.occupant != null) {
+                    this.boardView.hideOccupant(tile.row, tile.col);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package gomokugame.guis;
+
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Finds the biggest font size a text fits in, for GUI's auto-fit.
+// Sizes are searched by halving instead of counting up 0.5 at a time, and results are kept per text and box size,
+// so labels of the same text and size are measured once, not once per resize. Only used on the JavaFX thread
+public class FontFitter {
+    private static final double STEP = 0.5; // Font sizes are multiples of this, as before
+    private static final double BOX_BUCKET = 2; // Box sizes are rounded down to multiples of this many pixels before fitting
+    private static final int MAX_CACHED_FITS = 4096;
+
+    private static final Text measuringText = new Text();
+    private static final Map<String, Double> fits = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+            return this.size() > MAX_CACHED_FITS;
+        }
+    };
+
+    // Biggest multiple of STEP whose text is at most maxWidth wide and maxHeight high
+    public static double fit(double maxWidth, double maxHeight, String textContent) {
+        // Fitting the rounded down box keeps the text inside the real one
+        int widthBucket = (int) Math.max(Math.floor(maxWidth / BOX_BUCKET), 0);
+        int heightBucket = (int) Math.max(Math.floor(maxHeight / BOX_BUCKET), 0);
+        String key = widthBucket + "x" + heightBucket + ":" + textContent;
+
+        Double cached = fits.get(key);
+        if (cached != null) return cached;
+
+        double fontSize = search(widthBucket * BOX_BUCKET, heightBucket * BOX_BUCKET, textContent);
+        fits.put(key, fontSize);
+        return fontSize;
+    }
+
+    private static double search(double maxWidth, double maxHeight, String textContent) {
+        measuringText.setText(textContent);
+
+        // A line is taller than its font size, so nothing above maxHeight can fit
+        int low = 0; // Steps known to fit (an empty font always does)
+        int high = (int) Math.ceil(maxHeight / STEP) + 1; // Steps known not to fit
+
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+
+            if (fits(middle * STEP, maxWidth, maxHeight)) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low * STEP;
+    }
+
+    private static boolean fits(double fontSize, double maxWidth, double maxHeight) {
+        measuringText.setFont(Font.font(fontSize));
+        return measuringText.getBoundsInLocal().getWidth() <= maxWidth && measuringText.getBoundsInLocal().getHeight() <= maxHeight;
+    }
+}
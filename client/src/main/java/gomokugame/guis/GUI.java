@@ -11,6 +11,8 @@ import javafx.scene.shape.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 
+import java.util.function.Consumer;
+
 // Every ui element is made to scale to their parent node.
 // They either inherit an existing element or new one
 // Texts can accept fontSize, if no fontSize is explicitly specified then it auto-fits to its parent container
@@ -143,11 +145,24 @@ public class GUI {
     }
 
     // Listens to container size changes and update the font size to always fit
+    // A resize changes width and height in the same pulse, the font is fitted once after both
     public static void bindFontToAlwaysFit(Node targetText, Region container) {
-        updateAutoFitFontSize(targetText, container);
+        boolean[] updatePending = {false}; // Set while an update waits in Platform.runLater
+
+        Runnable requestUpdate = () -> {
+            if (updatePending[0]) return;
+            updatePending[0] = true;
+
+            Platform.runLater(() -> {
+                updatePending[0] = false;
+                updateAutoFitFontSize(targetText, container);
+            });
+        };
 
-        container.widthProperty().addListener((observable, oldValue, newValue) -> updateAutoFitFontSize(targetText, container));
-        container.heightProperty().addListener((observable, oldValue, newValue) -> updateAutoFitFontSize(targetText, container));
+        requestUpdate.run();
+
+        container.widthProperty().addListener((observable, oldValue, newValue) -> requestUpdate.run());
+        container.heightProperty().addListener((observable, oldValue, newValue) -> requestUpdate.run());
     }
 
     // Updates font size numerically
@@ -168,29 +183,35 @@ public class GUI {
         });
     }
 
-    // Updates font size to always fit the parent container
+    // Updates font size to always fit the parent container. Runs on the JavaFX thread
     private static void updateAutoFitFontSize(Node targetText, Region container) {
         double maxWidth = container.widthProperty().get() * 0.65; // 35% margin tolerance
         double maxHeight = container.heightProperty().get() * 0.65;
 
-        Platform.runLater(() -> {
-           switch (targetText) {
-               case Text text:
-                   text.setFont(Font.font(calculateAutoFitFontSize(maxWidth, maxHeight, text.getText())));
-                   break;
-               case TextField textField:
-                   textField.setFont(Font.font(calculateAutoFitFontSize(maxWidth, maxHeight, "")));
-                   break;
-               case Button button:
-                   button.setFont(Font.font(calculateAutoFitFontSize(maxWidth, maxHeight, button.getText())));
-                   break;
-               case ComboBox<?> comboBox:
-                   comboBox.setStyle("-fx-font-size: " + calculateAutoFitFontSize(maxWidth, maxHeight, comboBox.getPromptText()) + "px;");
-                   break;
-               default:
-                   throw new IllegalStateException("Unsupported target text type: " + targetText.getClass().getSimpleName());
-           }
-        });
+        switch (targetText) {
+            case Text text:
+                setFontSizeIfChanged(text.getFont(), calculateAutoFitFontSize(maxWidth, maxHeight, text.getText()), text::setFont);
+                break;
+            case TextField textField:
+                setFontSizeIfChanged(textField.getFont(), calculateAutoFitFontSize(maxWidth, maxHeight, ""), textField::setFont);
+                break;
+            case Button button:
+                setFontSizeIfChanged(button.getFont(), calculateAutoFitFontSize(maxWidth, maxHeight, button.getText()), button::setFont);
+                break;
+            case ComboBox<?> comboBox:
+                String style = "-fx-font-size: " + calculateAutoFitFontSize(maxWidth, maxHeight, comboBox.getPromptText()) + "px;";
+                if (!style.equals(comboBox.getStyle())) comboBox.setStyle(style);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported target text type: " + targetText.getClass().getSimpleName());
+        }
+    }
+
+    // Setting an equal font still lays the node out again, so skip it
+    private static void setFontSizeIfChanged(Font currentFont, double fontSize, Consumer<Font> setFont) {
+        if (currentFont == null || currentFont.getSize() != fontSize) {
+            setFont.accept(Font.font(fontSize));
+        }
     }
 
     // Gets updated font size depending on current screen size
@@ -201,18 +222,6 @@ public class GUI {
 
     // Calculates the best font size to auto-fit
     private static double calculateAutoFitFontSize(double maxWidth, double maxHeight, String textContent) {
-        double fontSize = 0;
-        double step = 0.5;
-
-        Text tempText = new Text();
-        tempText.setText(textContent);
-        tempText.setFont(Font.font(fontSize));
-
-        while (tempText.getBoundsInLocal().getWidth() <= maxWidth && tempText.getBoundsInLocal().getHeight() <= maxHeight) {
-            fontSize += step;
-            tempText.setFont(Font.font(fontSize));
-        }
-
-        return fontSize - step;
+        return FontFitter.fit(maxWidth, maxHeight, textContent);
     }
 }
\ No newline at end of file
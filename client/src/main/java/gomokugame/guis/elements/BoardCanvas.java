@@ -0,0 +1,427 @@
+package gomokugame.guis.elements;
+
+import gomokugame.objects.Board;
+import gomokugame.objects.Tile;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static gomokugame.guis.GUI.*;
+
+// Draws the whole board on one Canvas instead of a node per tile.
+// Changes only mark their point dirty; the next pulse repaints the cells of the dirty points and nothing else.
+// Only a resize repaints the whole board. Looks and behaves like BoardUi, plus a marker on the last move
+public class BoardCanvas extends BoardView {
+    // Sizes relative to a cell, the same as the ellipses of TileUi
+    private static final double HOVER_RADIUS = 0.40625;
+    private static final double STONE_RADIUS = 0.46875;
+    private static final double INVALID_MOVE_RADIUS = 0.5;
+    private static final double LAST_MOVE_RADIUS = 0.125;
+    private static final double CLICKABLE_SIZE = 0.5; // Clickable square around a point, the tileSquare of TileUi
+
+    private static final long STONE_FADE_IN_NANOS = 25_000_000L;
+    private static final long FLASH_CYCLE_NANOS = 250_000_000L; // Invalid move flashes 4 times between full and 0.2 opacity...
+    private static final int FLASH_CYCLES = 4;
+    private static final long FLASH_FADE_OUT_NANOS = 500_000_000L; // ...then fades out
+
+    private static final byte EMPTY = 0;
+    private static final byte BLACK = 1;
+    private static final byte WHITE = 2;
+
+    private final Canvas canvas = new Canvas();
+    private final int points; // Points per side
+    private final Object lock = new Object(); // Guards everything below, the client changes the board from its listener thread
+
+    private final byte[] stones; // Stone on display per point
+    private final long[] stoneShownAt; // System.nanoTime() the stone was shown, to fade it in
+    private final long[] flashStartedAt; // System.nanoTime() the invalid move flash started, 0 if none
+    private int hoverPoint = -1;
+    private int lastMovePoint = -1;
+    private MoveHandler moveHandler; // Null while moves are disabled
+
+    private final boolean[] isDirty;
+    private final int[] dirtyPoints;
+    private int dirtyCount;
+    private final boolean[] isAnimating;
+    private final int[] animatingPoints; // Points still fading in or flashing, repainted every pulse
+    private int animatingCount;
+
+    private final AtomicBoolean pulseRequested = new AtomicBoolean();
+    private final AnimationTimer painter = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            paintChanges();
+        }
+    };
+
+    public BoardCanvas(Board board, double xScale, double yScale, Region parent) {
+        // Same area as the playing tiles of BoardUi, half a cell of margin around the grid
+        final double VISUAL_TILES_SIZE_SCALE = 1.0 / board.size;
+        bindSizeToParent(this, parent, xScale * (1 + VISUAL_TILES_SIZE_SCALE), yScale * (1 + VISUAL_TILES_SIZE_SCALE));
+
+        this.points = board.boardArray.length;
+        int pointCount = this.points * this.points;
+        this.stones = new byte[pointCount];
+        this.stoneShownAt = new long[pointCount];
+        this.flashStartedAt = new long[pointCount];
+        this.isDirty = new boolean[pointCount];
+        this.dirtyPoints = new int[pointCount];
+        this.isAnimating = new boolean[pointCount];
+        this.animatingPoints = new int[pointCount];
+
+        Arrays.fill(this.stoneShownAt, System.nanoTime() - STONE_FADE_IN_NANOS); // Stones already on the board show up without fading in
+
+        for (Tile[] tiles : board.boardArray) {
+            for (Tile tile : tiles) {
+                if (tile.occupant != null) {
+                    this.stones[tile.row * this.points + tile.col] = stoneOf(tile.occupant);
+                }
+            }
+        }
+
+        this.canvas.setOnMouseMoved(this::handleMouseMoved);
+        this.canvas.setOnMouseExited(e -> this.setHoverPoint(-1));
+        this.canvas.setOnMouseClicked(this::handleMouseClicked);
+
+        this.getChildren().add(this.canvas);
+    }
+
+    @Override
+    public void showOccupant(int row, int col, String occupant) {
+        int point = row * this.points + col;
+
+        synchronized (this.lock) {
+            this.stones[point] = stoneOf(occupant);
+            this.stoneShownAt[point] = System.nanoTime();
+            this.markAnimating(point);
+        }
+
+        this.requestPulse();
+    }
+
+    @Override
+    public void hideOccupant(int row, int col) {
+        synchronized (this.lock) {
+            int point = row * this.points + col;
+            this.stones[point] = EMPTY;
+            this.markDirty(point);
+        }
+
+        this.requestPulse();
+    }
+
+    @Override
+    public void markLastMove(int row, int col) {
+        synchronized (this.lock) {
+            if (this.lastMovePoint >= 0) this.markDirty(this.lastMovePoint);
+
+            this.lastMovePoint = row * this.points + col;
+            this.markDirty(this.lastMovePoint);
+        }
+
+        this.requestPulse();
+    }
+
+    @Override
+    public void indicateInvalidMove(int row, int col) {
+        synchronized (this.lock) {
+            int point = row * this.points + col;
+            this.flashStartedAt[point] = System.nanoTime();
+            this.markAnimating(point);
+        }
+
+        this.requestPulse();
+    }
+
+    @Override
+    public void enableMoves(MoveHandler handler) {
+        synchronized (this.lock) {
+            this.moveHandler = handler;
+        }
+    }
+
+    @Override
+    public void disableMoves() {
+        synchronized (this.lock) {
+            this.moveHandler = null;
+
+            if (this.hoverPoint >= 0) {
+                this.markDirty(this.hoverPoint);
+                this.hoverPoint = -1;
+            }
+        }
+
+        this.requestPulse();
+    }
+
+    // The canvas follows the size of this pane and is repainted whole when it changes
+    @Override
+    protected void layoutChildren() {
+        super.layoutChildren();
+
+        double width = Math.floor(this.getWidth());
+        double height = Math.floor(this.getHeight());
+
+        if (width != this.canvas.getWidth() || height != this.canvas.getHeight()) {
+            this.canvas.setWidth(width);
+            this.canvas.setHeight(height);
+            this.paintAll();
+        }
+    }
+
+    private void handleMouseMoved(MouseEvent event) {
+        this.setHoverPoint(this.pointAt(event.getX(), event.getY()));
+    }
+
+    private void handleMouseClicked(MouseEvent event) {
+        int point = this.pointAt(event.getX(), event.getY());
+        MoveHandler handler;
+
+        synchronized (this.lock) {
+            handler = this.moveHandler;
+        }
+
+        if (point >= 0 && handler != null) {
+            handler.onPointClicked(point / this.points, point % this.points);
+        }
+    }
+
+    private void setHoverPoint(int point) {
+        synchronized (this.lock) {
+            if (this.moveHandler == null) point = -1;
+            if (point == this.hoverPoint) return;
+
+            if (this.hoverPoint >= 0) this.markDirty(this.hoverPoint);
+            if (point >= 0) this.markDirty(point);
+            this.hoverPoint = point;
+        }
+
+        this.requestPulse();
+    }
+
+    // Point whose clickable square contains (x, y), -1 if none
+    private int pointAt(double x, double y) {
+        double cellWidth = this.canvas.getWidth() / this.points;
+        double cellHeight = this.canvas.getHeight() / this.points;
+        if (cellWidth <= 0 || cellHeight <= 0) return -1;
+
+        int col = (int) Math.floor(x / cellWidth);
+        int row = (int) Math.floor(y / cellHeight);
+        if (row < 0 || col < 0 || row >= this.points || col >= this.points) return -1;
+
+        double dx = Math.abs(x - (col + 0.5) * cellWidth);
+        double dy = Math.abs(y - (row + 0.5) * cellHeight);
+        if (dx > cellWidth * CLICKABLE_SIZE / 2 || dy > cellHeight * CLICKABLE_SIZE / 2) return -1;
+
+        return row * this.points + col;
+    }
+
+    // Must hold the lock
+    private void markDirty(int point) {
+        if (!this.isDirty[point]) {
+            this.isDirty[point] = true;
+            this.dirtyPoints[this.dirtyCount++] = point;
+        }
+    }
+
+    // Must hold the lock
+    private void markAnimating(int point) {
+        if (!this.isAnimating[point]) {
+            this.isAnimating[point] = true;
+            this.animatingPoints[this.animatingCount++] = point;
+        }
+    }
+
+    // Gets the painter running on the next pulse. Any number of changes before that are painted at once
+    private void requestPulse() {
+        if (!this.pulseRequested.getAndSet(true)) {
+            Platform.runLater(this.painter::start);
+        }
+    }
+
+    // Runs every pulse while something changed, then stops until the next change
+    private void paintChanges() {
+        this.pulseRequested.set(false);
+        GraphicsContext gc = this.canvas.getGraphicsContext2D();
+        long now = System.nanoTime();
+
+        synchronized (this.lock) {
+            for (int i = 0; i < this.dirtyCount; i++) {
+                int point = this.dirtyPoints[i];
+                this.isDirty[point] = false;
+                this.paintCell(gc, point, now);
+            }
+            this.dirtyCount = 0;
+
+            for (int i = 0; i < this.animatingCount; i++) {
+                int point = this.animatingPoints[i];
+                this.paintCell(gc, point, now);
+
+                if (!this.isStillAnimating(point, now)) {
+                    this.isAnimating[point] = false;
+                    this.flashStartedAt[point] = 0;
+                    this.animatingPoints[i--] = this.animatingPoints[--this.animatingCount];
+                }
+            }
+
+            if (this.animatingCount == 0) {
+                this.painter.stop();
+            }
+        }
+    }
+
+    private boolean isStillAnimating(int point, long now) {
+        return now - this.stoneShownAt[point] < STONE_FADE_IN_NANOS
+                || (this.flashStartedAt[point] != 0 && now - this.flashStartedAt[point] < FLASH_CYCLES * FLASH_CYCLE_NANOS + FLASH_FADE_OUT_NANOS);
+    }
+
+    private void paintAll() {
+        GraphicsContext gc = this.canvas.getGraphicsContext2D();
+        double width = this.canvas.getWidth();
+        double height = this.canvas.getHeight();
+        long now = System.nanoTime();
+
+        gc.clearRect(0, 0, width, height);
+        this.paintGrid(gc, 0, this.points - 1, 0, this.points - 1);
+
+        synchronized (this.lock) {
+            for (int point = 0; point < this.stones.length; point++) {
+                this.paintPoint(gc, point, now);
+            }
+        }
+    }
+
+    // Repaints the cell around a point. Stones of the neighbours may reach into it, so they are drawn again too, clipped to the cell
+    private void paintCell(GraphicsContext gc, int point, long now) {
+        int row = point / this.points;
+        int col = point % this.points;
+        double cellWidth = this.canvas.getWidth() / this.points;
+        double cellHeight = this.canvas.getHeight() / this.points;
+
+        double left = Math.floor(col * cellWidth);
+        double top = Math.floor(row * cellHeight);
+        double right = Math.ceil((col + 1) * cellWidth);
+        double bottom = Math.ceil((row + 1) * cellHeight);
+
+        int firstRow = Math.max(row - 1, 0);
+        int lastRow = Math.min(row + 1, this.points - 1);
+        int firstCol = Math.max(col - 1, 0);
+        int lastCol = Math.min(col + 1, this.points - 1);
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(left, top, right - left, bottom - top);
+        gc.clip();
+
+        gc.clearRect(left, top, right - left, bottom - top);
+        this.paintGrid(gc, firstRow, lastRow, firstCol, lastCol);
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                this.paintPoint(gc, r * this.points + c, now);
+            }
+        }
+
+        gc.restore();
+    }
+
+    // Board background and the lines through the given rows and columns
+    private void paintGrid(GraphicsContext gc, int firstRow, int lastRow, int firstCol, int lastCol) {
+        double cellWidth = this.canvas.getWidth() / this.points;
+        double cellHeight = this.canvas.getHeight() / this.points;
+        double gridLeft = cellWidth / 2;
+        double gridTop = cellHeight / 2;
+        double gridRight = (this.points - 0.5) * cellWidth;
+        double gridBottom = (this.points - 0.5) * cellHeight;
+
+        gc.setFill(Color.BURLYWOOD);
+        gc.fillRect(gridLeft, gridTop, gridRight - gridLeft, gridBottom - gridTop);
+
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(1);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            double y = (row + 0.5) * cellHeight;
+            gc.strokeLine(gridLeft, y, gridRight, y);
+        }
+
+        for (int col = firstCol; col <= lastCol; col++) {
+            double x = (col + 0.5) * cellWidth;
+            gc.strokeLine(x, gridTop, x, gridBottom);
+        }
+    }
+
+    // Hover indicator, stone, last move marker and invalid move flash of one point, in that order. Must hold the lock
+    private void paintPoint(GraphicsContext gc, int point, long now) {
+        int row = point / this.points;
+        int col = point % this.points;
+        double cellWidth = this.canvas.getWidth() / this.points;
+        double cellHeight = this.canvas.getHeight() / this.points;
+        double centerX = (col + 0.5) * cellWidth;
+        double centerY = (row + 0.5) * cellHeight;
+
+        if (point == this.hoverPoint) {
+            gc.setFill(Color.CYAN);
+            fillEllipse(gc, centerX, centerY, cellWidth * HOVER_RADIUS, cellHeight * HOVER_RADIUS);
+        }
+
+        byte stone = this.stones[point];
+
+        if (stone != EMPTY) {
+            long shownFor = now - this.stoneShownAt[point];
+            gc.setGlobalAlpha(shownFor < STONE_FADE_IN_NANOS ? Math.max((double) shownFor / STONE_FADE_IN_NANOS, 0) : 1);
+            gc.setFill(stone == WHITE ? Color.WHITE : Color.BLACK);
+            fillEllipse(gc, centerX, centerY, cellWidth * STONE_RADIUS, cellHeight * STONE_RADIUS);
+            gc.setGlobalAlpha(1);
+
+            if (point == this.lastMovePoint) {
+                gc.setFill(Color.CRIMSON);
+                fillEllipse(gc, centerX, centerY, cellWidth * LAST_MOVE_RADIUS, cellHeight * LAST_MOVE_RADIUS);
+            }
+        }
+
+        if (this.flashStartedAt[point] != 0) {
+            double opacity = flashOpacity(now - this.flashStartedAt[point]);
+
+            if (opacity > 0) {
+                gc.setGlobalAlpha(opacity);
+                gc.setFill(Color.RED);
+                fillEllipse(gc, centerX, centerY, cellWidth * INVALID_MOVE_RADIUS, cellHeight * INVALID_MOVE_RADIUS);
+                gc.setGlobalAlpha(1);
+            }
+        }
+    }
+
+    // Opacity of the invalid move flash, the same steps as TileUi.indicateInvalidMove
+    private static double flashOpacity(long elapsed) {
+        long flashingFor = FLASH_CYCLES * FLASH_CYCLE_NANOS;
+
+        if (elapsed < flashingFor) {
+            long cycle = elapsed / FLASH_CYCLE_NANOS;
+            double progress = (double) (elapsed % FLASH_CYCLE_NANOS) / FLASH_CYCLE_NANOS;
+            if (cycle % 2 == 1) progress = 1 - progress; // Auto reverse
+            return 1.0 - 0.8 * progress;
+        }
+
+        if (elapsed < flashingFor + FLASH_FADE_OUT_NANOS) {
+            return 1.0 - (double) (elapsed - flashingFor) / FLASH_FADE_OUT_NANOS;
+        }
+
+        return 0;
+    }
+
+    private static void fillEllipse(GraphicsContext gc, double centerX, double centerY, double radiusX, double radiusY) {
+        gc.fillOval(centerX - radiusX, centerY - radiusY, radiusX * 2, radiusY * 2);
+    }
+
+    private static byte stoneOf(String occupant) {
+        return occupant.equals("WHITE") ? WHITE : BLACK;
+    }
+}
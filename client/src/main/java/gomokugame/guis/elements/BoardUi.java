@@ -7,8 +7,10 @@ import javafx.scene.paint.Color;
 
 import static gomokugame.guis.GUI.*;
 
-// Represents the board UI
-public class BoardUi extends StackPane {
+// Represents the board UI, one TileUi per point
+public class BoardUi extends BoardView {
+    public final TileUi[][] tiles; // The visual representation of every tile of the board, by row and column
+
     public BoardUi(Board board, double xScale, double yScale, Region parent) {
         // Create the visual tile
         final double VISUAL_TILES_SIZE_SCALE = 1.0 / board.size;
@@ -37,6 +39,7 @@ public class BoardUi extends StackPane {
         // Create the actual playing tile
         Tile[][] boardArray = board.boardArray;
         final double ACTUAL_TILES_SIZE_SCALE = 1.0 / boardArray.length;
+        this.tiles = new TileUi[boardArray.length][boardArray.length];
 
         GridPane actualTilesGrid = new GridPane();
         actualTilesGrid.setBackground(new Background(new BackgroundFill(Color.TRANSPARENT, null, null)));
@@ -55,16 +58,67 @@ public class BoardUi extends StackPane {
             actualTilesGrid.getRowConstraints().add(rowConstraint);
 
             for (Tile tile : tiles) {
-                tile.ui = new TileUi(ACTUAL_TILES_SIZE_SCALE / 2, ACTUAL_TILES_SIZE_SCALE / 2, actualTilesGrid, true);
+                TileUi tileUi = new TileUi(ACTUAL_TILES_SIZE_SCALE / 2, ACTUAL_TILES_SIZE_SCALE / 2, actualTilesGrid, true);
+                this.tiles[tile.row][tile.col] = tileUi;
 
                 if (tile.occupant != null) {
-                    tile.ui.showOccupant(tile.occupant);
+                    tileUi.showOccupant(tile.occupant);
                 }
 
-                actualTilesGrid.add(tile.ui, tile.col, tile.row);
+                actualTilesGrid.add(tileUi, tile.col, tile.row);
             }
         }
 
         this.getChildren().addAll(visualTilesGrid, actualTilesGrid);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void showOccupant(int row, int col, String occupant) {
+        this.tiles[row][col].showOccupant(occupant);
+    }
+
+    @Override
+    public void hideOccupant(int row, int col) {
+        this.tiles[row][col].hideOccupant();
+    }
+
+    @Override
+    public void markLastMove(int row, int col) {
+        // The tiles have no last move marker
+    }
+
+    @Override
+    public void indicateInvalidMove(int row, int col) {
+        this.tiles[row][col].indicateInvalidMove();
+    }
+
+    @Override
+    public void enableMoves(MoveHandler handler) {
+        // Sets a MouseClick connection for each tile
+        for (int row = 0; row < this.tiles.length; row++) {
+            for (int col = 0; col < this.tiles[row].length; col++) {
+                TileUi tileUi = this.tiles[row][col];
+                int tileRow = row;
+                int tileCol = col;
+
+                tileUi.tileSquare.setOnMouseClicked(e -> handler.onPointClicked(tileRow, tileCol));
+
+                tileUi.tileSquare.setOnMouseEntered(e -> tileUi.hoverIndicator.setFill(Color.CYAN));
+
+                tileUi.tileSquare.setOnMouseExited(e -> tileUi.hoverIndicator.setFill(Color.TRANSPARENT));
+            }
+        }
+    }
+
+    @Override
+    public void disableMoves() {
+        for (TileUi[] cTiles : this.tiles) {
+            for (TileUi cTile : cTiles) {
+                cTile.tileSquare.setOnMouseClicked(null);
+                cTile.tileSquare.setOnMouseEntered(null);
+                cTile.tileSquare.setOnMouseExited(null);
+                cTile.hoverIndicator.setFill(Color.TRANSPARENT);
+            }
+        }
+    }
+}
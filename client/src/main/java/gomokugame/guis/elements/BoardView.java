@@ -0,0 +1,25 @@
+package gomokugame.guis.elements;
+
+import javafx.scene.layout.StackPane;
+
+// A view the client shows a match board on. Points are addressed by row and column of Board.boardArray
+public abstract class BoardView extends StackPane {
+    // Called with the point a player clicked on while moves are enabled
+    public interface MoveHandler {
+        void onPointClicked(int row, int col);
+    }
+
+    public abstract void showOccupant(int row, int col, String occupant);
+
+    public abstract void hideOccupant(int row, int col);
+
+    // Marks the stone placed last, if the view has a marker for it
+    public abstract void markLastMove(int row, int col);
+
+    public abstract void indicateInvalidMove(int row, int col);
+
+    // Shows the hover indicator and reports clicked points until disableMoves is called
+    public abstract void enableMoves(MoveHandler handler);
+
+    public abstract void disableMoves();
+}
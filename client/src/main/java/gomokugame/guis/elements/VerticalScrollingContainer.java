@@ -24,6 +24,10 @@ public class VerticalScrollingContainer extends ScrollPane {
         this.content.getChildren().add(element);
     }
 
+    public void removeElement(Node element) {
+        this.content.getChildren().remove(element);
+    }
+
     public void removeAllElements() {
         this.content.getChildren().clear();
     }
@@ -58,8 +58,8 @@ public class GameMatchGui extends AnchorPane {
         this.getChildren().addAll(hBox, this.vBox, leftHBox);
     }
 
-    public void addBoardAndInit(BoardUi boardUi) {
-        this.vBox.getChildren().addAll(this.upperText, boardUi, this.bottomText);
+    public void addBoardAndInit(BoardView boardView) {
+        this.vBox.getChildren().addAll(this.upperText, boardView, this.bottomText);
     }
 
     public void hideRevealStonesButton() {
@@ -4,11 +4,8 @@ module gomokugame {
     requires jdk.xml.dom;
     requires java.desktop;
     requires jdk.compiler;
+    requires gomokugame.server;
 
-    exports gomokugame.server;
-    opens gomokugame.server to javafx.fxml;
-    exports gomokugame.objects;
-    opens gomokugame.objects to javafx.fxml;
     exports gomokugame.client;
     opens gomokugame.client to javafx.fxml;
     exports gomokugame;
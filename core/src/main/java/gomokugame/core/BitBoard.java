@@ -0,0 +1,186 @@
+package gomokugame.core;
+
+import gomokugame.objects.Board;
+import gomokugame.objects.Tile;
+
+import java.util.Arrays;
+
+// The stones of one match: a bit per point and color, packed into longs, plus the moves in the order they were played.
+// A move is coded in an int as its point and color. Placing, undoing and checking a stone allocate nothing, and an
+// OutcomeDetector follows every stone so the match result is known after each move. A board of the largest size takes
+// 2x16 longs for the stones, 1 byte per window for the detector and 2 bytes per move played so far, the move log
+// growing by doubling (from 32 moves) up to 2 bytes per point. Not thread safe, a room only touches it while holding
+// its matchLock
+public class BitBoard {
+    public static final int EMPTY = -1;
+    public static final int BLACK = 0;
+    public static final int WHITE = 1;
+    private static final int INITIAL_MOVE_CAPACITY = 32; // Most matches end long before the board is full
+    public final BoardGeometry geometry;
+    private final long[][] stones; // By color
+    private char[] moves; // Coded moves, in the order they were played. The largest code is below 2^11
+    private final OutcomeDetector detector;
+    private int moveCount;
+
+    public BitBoard(BoardGeometry geometry) {
+        this.geometry = geometry;
+        this.stones = new long[2][geometry.words];
+        this.moves = new char[Math.min(INITIAL_MOVE_CAPACITY, geometry.points)];
+        this.detector = new OutcomeDetector(geometry);
+    }
+
+    public static int encodeMove(int point, int color) {
+        return (point << 1) | color;
+    }
+
+    public static int pointOfMove(int move) {
+        return move >>> 1;
+    }
+
+    public static int colorOfMove(int move) {
+        return move & 1;
+    }
+
+    public static int colorOf(String name) {
+        return "BLACK".equals(name) ? BLACK : "WHITE".equals(name) ? WHITE : EMPTY;
+    }
+
+    public static String nameOf(int color) {
+        return (color == BLACK) ? "BLACK" : (color == WHITE) ? "WHITE" : null;
+    }
+
+    public static int opponentOf(int color) {
+        return color ^ 1;
+    }
+
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    // The coded move of the specified index, 0 being the first move
+    public int getMove(int index) {
+        return this.moves[index];
+    }
+
+    public boolean isFull() {
+        return this.moveCount == this.geometry.points;
+    }
+
+    public boolean isEmpty(int point) {
+        return !this.has(BLACK, point) && !this.has(WHITE, point);
+    }
+
+    public boolean has(int color, int point) {
+        return (this.stones[color][point >>> 6] & (1L << point)) != 0;
+    }
+
+    public int colorAt(int point) {
+        return this.has(BLACK, point) ? BLACK : this.has(WHITE, point) ? WHITE : EMPTY;
+    }
+
+    public void place(int point, int color) {
+        if (!this.isEmpty(point)) {
+            throw new IllegalStateException("Point " + point + " is already taken.");
+        }
+
+        if (this.moveCount == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, Math.min(this.moves.length * 2, this.geometry.points));
+        }
+
+        this.stones[color][point >>> 6] |= 1L << point;
+        this.moves[this.moveCount++] = (char) encodeMove(point, color);
+        this.detector.place(point, color);
+    }
+
+    // Takes back the last move and returns it
+    public int undo() {
+        int move = this.moves[--this.moveCount];
+        int point = pointOfMove(move);
+        this.stones[colorOfMove(move)][point >>> 6] &= ~(1L << point);
+        this.detector.undo(point, colorOfMove(move));
+
+        return move;
+    }
+
+    public void clear() {
+        for (long[] colorStones : this.stones) {
+            Arrays.fill(colorStones, 0);
+        }
+
+        this.moveCount = 0;
+        this.detector.clear();
+    }
+
+    // Whether the last move won or drew the match, see OutcomeDetector
+    public OutcomeDetector.Outcome getOutcome() {
+        return this.detector.getOutcome();
+    }
+
+    public int getOpenWindows(int color) {
+        return this.detector.getOpenWindows(color);
+    }
+
+    // Consecutive stones of the specified color along the direction through the point, the point itself included
+    public int runLength(int point, int direction, int color) {
+        BoardGeometry geometry = this.geometry;
+        int step = geometry.step(direction);
+        int position = geometry.positionOnLine(direction, point);
+        int length = geometry.lineLength(direction, geometry.lineOf(direction, point));
+        int run = 1;
+
+        for (int next = point + step, left = length - position - 1; left > 0 && this.has(color, next); next += step, left--) {
+            run++;
+        }
+
+        for (int previous = point - step, left = position; left > 0 && this.has(color, previous); previous -= step, left--) {
+            run++;
+        }
+
+        return run;
+    }
+
+    // Whether the stone on the point is part of five or more in a row
+    public boolean completesFive(int point) {
+        int color = this.colorAt(point);
+
+        if (color == EMPTY) {
+            return false;
+        }
+
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+            if (this.runLength(point, direction, color) >= BoardGeometry.WINNING_RUN) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Stones of the specified color on one line
+    public int stonesOnLine(int direction, int line, int color) {
+        long[] mask = this.geometry.lineMask(direction, line);
+        long[] colorStones = this.stones[color];
+        int count = 0;
+
+        for (int word = 0; word < mask.length; word++) {
+            count += Long.bitCount(colorStones[word] & mask[word]);
+        }
+
+        return count;
+    }
+
+    // The board in the form clients get it
+    public Board toBoard(int matchNumber) {
+        Board board = new Board(this.geometry.size);
+        board.matchNumber = matchNumber;
+        board.moveCount = this.moveCount;
+
+        for (int point = 0; point < this.geometry.points; point++) {
+            Tile tile = new Tile(this.geometry.rowOf(point), this.geometry.colOf(point));
+            tile.occupant = nameOf(this.colorAt(point));
+            board.boardArray[tile.row][tile.col] = tile;
+        }
+
+        return board;
+    }
+}
@@ -0,0 +1,176 @@
+package gomokugame.core;
+
+// The fixed layout of one board size, shared by every match of that size. A board of size N has (N+1)x(N+1) points,
+// numbered row by row, and a point's number is its bit in a BitBoard. Every point lies on one line per direction;
+// lines are numbered within their direction, and for each point the geometry knows its line and its position on it,
+// so walking a line needs no bounds checks. Every five consecutive points on a line form a window, numbered line by
+// line, which is where a five in a row can still be made. All tables are built once per size, when the class loads
+public class BoardGeometry {
+    public static final int MIN_SIZE = 9;
+    public static final int MAX_SIZE = 30;
+    public static final int WINNING_RUN = 5;
+    public static final int HORIZONTAL = 0;
+    public static final int VERTICAL = 1;
+    public static final int DIAGONAL = 2; // Towards the bottom right
+    public static final int ANTI_DIAGONAL = 3; // Towards the bottom left
+    public static final int DIRECTIONS = 4;
+    private static final int[] ROW_STEPS = {0, 1, 1, 1};
+    private static final int[] COL_STEPS = {1, 0, 1, -1};
+    private static final BoardGeometry[] GEOMETRIES = new BoardGeometry[MAX_SIZE + 1];
+
+    static {
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+            GEOMETRIES[size] = new BoardGeometry(size);
+        }
+    }
+
+    public final int size;
+    public final int side; // Points per row and per column
+    public final int points;
+    public final int words; // Longs per color in a BitBoard
+    public final int windows;
+    private final int[] steps = new int[DIRECTIONS]; // Point number difference between neighbours on a line
+    private final int[][] lineOf = new int[DIRECTIONS][]; // By direction and point
+    private final byte[][] positionOnLine = new byte[DIRECTIONS][]; // By direction and point, 0 at the line's start
+    private final byte[][] lineLengths = new byte[DIRECTIONS][]; // By direction and line
+    private final long[][][] lineMasks = new long[DIRECTIONS][][]; // By direction and line, the points of the line
+    private final int[][] firstWindows = new int[DIRECTIONS][]; // By direction and line, of lines with at least one window
+    private final int[] firstWindowsThrough; // By direction * points + point, the first window containing the point
+    private final byte[] windowsThrough; // By direction * points + point, how many windows contain the point (0 to 5)
+
+    private BoardGeometry(int size) {
+        this.size = size;
+        this.side = size + 1;
+        this.points = this.side * this.side;
+        this.words = (this.points + 63) >>> 6;
+        int windows = 0;
+
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            this.steps[direction] = ROW_STEPS[direction] * this.side + COL_STEPS[direction];
+            this.lineOf[direction] = new int[this.points];
+            this.positionOnLine[direction] = new byte[this.points];
+            this.buildLines(direction);
+            this.firstWindows[direction] = new int[this.lineCount(direction)];
+
+            for (int line = 0; line < this.lineCount(direction); line++) {
+                this.firstWindows[direction][line] = windows;
+                windows += Math.max(0, this.lineLength(direction, line) - WINNING_RUN + 1);
+            }
+        }
+
+        this.windows = windows;
+        this.firstWindowsThrough = new int[DIRECTIONS * this.points];
+        this.windowsThrough = new byte[DIRECTIONS * this.points];
+
+        // The windows through a point start up to four points before it, and none starts after the line's last window
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            for (int point = 0; point < this.points; point++) {
+                int line = this.lineOf(direction, point);
+                int length = this.lineLength(direction, line);
+                int position = this.positionOnLine(direction, point);
+                int from = Math.max(0, position - WINNING_RUN + 1);
+                int to = Math.min(position, length - WINNING_RUN);
+                this.firstWindowsThrough[direction * this.points + point] = this.firstWindows[direction][line] + from;
+                this.windowsThrough[direction * this.points + point] = (byte) Math.max(0, to - from + 1);
+            }
+        }
+    }
+
+    // Walks every line of a direction from its start, the point whose predecessor would be off the board
+    private void buildLines(int direction) {
+        int lines = (direction < DIAGONAL) ? this.side : 2 * this.side - 1;
+        this.lineLengths[direction] = new byte[lines];
+        this.lineMasks[direction] = new long[lines][this.words];
+        int line = 0;
+
+        for (int start = 0; start < this.points; start++) {
+            int row = this.rowOf(start) - ROW_STEPS[direction];
+            int col = this.colOf(start) - COL_STEPS[direction];
+
+            if (this.contains(row, col)) {
+                continue;
+            }
+
+            int length = 0;
+
+            for (row = this.rowOf(start), col = this.colOf(start); this.contains(row, col); row += ROW_STEPS[direction], col += COL_STEPS[direction]) {
+                int point = this.pointOf(row, col);
+                this.lineOf[direction][point] = line;
+                this.positionOnLine[direction][point] = (byte) length;
+                this.lineMasks[direction][line][point >>> 6] |= 1L << point;
+                length++;
+            }
+
+            this.lineLengths[direction][line] = (byte) length;
+            line++;
+        }
+    }
+
+    public static boolean supports(int size) {
+        return size >= MIN_SIZE && size <= MAX_SIZE;
+    }
+
+    public static BoardGeometry of(int size) {
+        if (!supports(size)) {
+            throw new IllegalArgumentException("Board size " + size + " is not between " + MIN_SIZE + " and " + MAX_SIZE + ".");
+        }
+
+        return GEOMETRIES[size];
+    }
+
+    public boolean contains(int row, int col) {
+        return row >= 0 && col >= 0 && row < this.side && col < this.side;
+    }
+
+    public int pointOf(int row, int col) {
+        return row * this.side + col;
+    }
+
+    public int rowOf(int point) {
+        return point / this.side;
+    }
+
+    public int colOf(int point) {
+        return point % this.side;
+    }
+
+    public int step(int direction) {
+        return this.steps[direction];
+    }
+
+    public int lineCount(int direction) {
+        return this.lineLengths[direction].length;
+    }
+
+    public int lineOf(int direction, int point) {
+        return this.lineOf[direction][point];
+    }
+
+    public int positionOnLine(int direction, int point) {
+        return this.positionOnLine[direction][point];
+    }
+
+    public int lineLength(int direction, int line) {
+        return this.lineLengths[direction][line];
+    }
+
+    // Windows of a line are numbered from this one on, in the order of their first point. Only meaningful for lines
+    // at least WINNING_RUN long
+    public int firstWindow(int direction, int line) {
+        return this.firstWindows[direction][line];
+    }
+
+    // The windows containing a point are numbered from this one on
+    public int firstWindowThrough(int direction, int point) {
+        return this.firstWindowsThrough[direction * this.points + point];
+    }
+
+    public int windowsThrough(int direction, int point) {
+        return this.windowsThrough[direction * this.points + point];
+    }
+
+    // Shared by every board of this size, must not be modified
+    public long[] lineMask(int direction, int line) {
+        return this.lineMasks[direction][line];
+    }
+}
@@ -0,0 +1,96 @@
+package gomokugame.core;
+
+import java.util.Arrays;
+
+// Decides a match as the stones are placed. For every window (five consecutive points on a line, see BoardGeometry) it
+// keeps the stones of each color in it. A window without a stone of one color is still open to the other one, and a
+// window full of one color is a five in a row. Placing or taking back a stone updates at most five windows per
+// direction, so both cost O(1) and so does every answer: won once a window is filled, drawn once the board is full,
+// dead drawn once no window is open to either color, meaning nobody can make five anymore
+public class OutcomeDetector {
+    public enum Outcome {
+        UNDECIDED,
+        WON, // By the color of the last stone
+        DRAWN, // The board is full
+        DEAD_DRAWN // Stones are left to place, but neither color can make five anymore
+    }
+
+    private final BoardGeometry geometry;
+    private final byte[] windowStones; // By window: black stones in the low 4 bits, white stones in the high 4 bits
+    private final int[] openWindows = new int[2]; // By color, windows without a stone of the other color
+    private int filledWindows; // Windows with five stones of one color
+    private int stones;
+
+    public OutcomeDetector(BoardGeometry geometry) {
+        this.geometry = geometry;
+        this.windowStones = new byte[geometry.windows];
+        this.clear();
+    }
+
+    public void place(int point, int color) {
+        this.update(point, color, 1);
+        this.stones++;
+    }
+
+    // Takes back a stone, which must be the last one placed
+    public void undo(int point, int color) {
+        this.update(point, color, -1);
+        this.stones--;
+    }
+
+    public void clear() {
+        Arrays.fill(this.windowStones, (byte) 0);
+        this.openWindows[BitBoard.BLACK] = this.geometry.windows;
+        this.openWindows[BitBoard.WHITE] = this.geometry.windows;
+        this.filledWindows = 0;
+        this.stones = 0;
+    }
+
+    public Outcome getOutcome() {
+        if (this.filledWindows > 0) {
+            return Outcome.WON;
+        }
+
+        if (this.stones == this.geometry.points) {
+            return Outcome.DRAWN;
+        }
+
+        if (this.openWindows[BitBoard.BLACK] == 0 && this.openWindows[BitBoard.WHITE] == 0) {
+            return Outcome.DEAD_DRAWN;
+        }
+
+        return Outcome.UNDECIDED;
+    }
+
+    // Windows the specified color could still fill
+    public int getOpenWindows(int color) {
+        return this.openWindows[color];
+    }
+
+    // Adds (change 1) or removes (change -1) a stone in every window through the point
+    private void update(int point, int color, int change) {
+        BoardGeometry geometry = this.geometry;
+        byte[] windowStones = this.windowStones;
+        int shift = color << 2;
+        int openChange = 0;
+        int filledChange = 0;
+
+        for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+            int window = geometry.firstWindowThrough(direction, point);
+            int end = window + geometry.windowsThrough(direction, point);
+
+            for (; window < end; window++) {
+                int before = (windowStones[window] >> shift) & 0xF;
+                int after = before + change;
+                windowStones[window] += (byte) (change << shift);
+
+                // The color's first stone in a window closes it for the opponent, and taking it back opens it again
+                openChange += ((after == 0) ? 1 : 0) - ((before == 0) ? 1 : 0);
+                filledChange += ((after == BoardGeometry.WINNING_RUN) ? 1 : 0) - ((before == BoardGeometry.WINNING_RUN) ? 1 : 0);
+            }
+        }
+
+        this.openWindows[BitBoard.opponentOf(color)] += openChange;
+        this.filledWindows += filledChange;
+    }
+}
@@ -6,6 +6,8 @@ import java.io.Serializable;
 public class Board implements Serializable {
     public Tile[][] boardArray; // Represents the playing field
     public int size;
+    public int matchNumber; // Which match of the room this board belongs to
+    public int moveCount; // Moves of that match already on the board, the sequence of the last one
 
     public Board(int size) {
         this.size = size;
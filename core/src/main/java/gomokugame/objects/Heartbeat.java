@@ -0,0 +1,17 @@
+package gomokugame.objects;
+
+import java.io.Serializable;
+
+// Keeps a connection alive and measures its round trip. The server sends one every gomoku.heartbeatIntervalMillis
+// with a reading of its monotonic clock, and the client sends it straight back as a reply
+public class Heartbeat implements Serializable {
+    public long serverTimeMicros;
+    public int roundTripMicros; // The server's current estimate of this client's round trip, -1 before the first reply
+    public boolean isReply;
+
+    public Heartbeat(long serverTimeMicros, int roundTripMicros, boolean isReply) {
+        this.serverTimeMicros = serverTimeMicros;
+        this.roundTripMicros = roundTripMicros;
+        this.isReply = isReply;
+    }
+}
@@ -8,4 +8,5 @@ public class MatchEndResult implements Serializable {
     public boolean winner;
     public boolean loser;
     public boolean spectator;
+    public boolean isDraw; // Nobody won: the board is full, or neither player can make five anymore
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package gomokugame.objects;
+
+import java.io.Serializable;
+
+// Everything a client needs to set up its match screen, sent in place of START_REQUEST so it takes no further round trips.
+// Players answer with FINISHED_INITIALIZING once their screen is up
+public class MatchStart implements Serializable {
+    public String color; // WHITE, BLACK or SPECTATOR
+    public Board board;
+    public int timerPerTurnInMilliseconds;
+    public int invisibleModeRevealChances; // Of this player, -1 for spectators
+
+    public MatchStart(String color, Board board, int timerPerTurnInMilliseconds, int invisibleModeRevealChances) {
+        this.color = color;
+        this.board = board;
+        this.timerPerTurnInMilliseconds = timerPerTurnInMilliseconds;
+        this.invisibleModeRevealChances = invisibleModeRevealChances;
+    }
+}
@@ -6,6 +6,7 @@ public class Move implements Serializable {
     public int targetRow;
     public int targetCol;
     public String moveMaker; // Either WHITE or BLACK
+    public int sequence; // 1 for the first move of a match, 2 for the second... Set by the server
 
     public Move(int targetRow, int targetCol) {
         this.targetRow = targetRow;
@@ -0,0 +1,13 @@
+package gomokugame.objects;
+
+import java.io.Serializable;
+
+public class MoveRequest implements Serializable {
+    public int timerPerTurnInMilliseconds;
+    public long deadlineMicros; // When the turn ends, on the server's clock (see Heartbeat). 0 without a turn timer
+
+    public MoveRequest(int timerPerTurnInMilliseconds, long deadlineMicros) {
+        this.timerPerTurnInMilliseconds = timerPerTurnInMilliseconds;
+        this.deadlineMicros = deadlineMicros;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package gomokugame.objects;
+
+import java.io.Serializable;
+
+// Tells a client that the room it wants to join lives on another server node
+public class NodeRedirect implements Serializable {
+    public String host;
+    public int port;
+    public int roomId;
+
+    public NodeRedirect(String host, int port, int roomId) {
+        this.host = host;
+        this.port = port;
+        this.roomId = roomId;
+    }
+}
@@ -0,0 +1,15 @@
+package gomokugame.objects;
+
+import java.io.Serializable;
+
+// Wraps a message the client expects an answer to. The server answers with a Response carrying the same request id,
+// so several requests can be in flight at once and pushed messages are never mistaken for an answer
+public class Request implements Serializable {
+    public int requestId;
+    public Object body;
+
+    public Request(int requestId, Object body) {
+        this.requestId = requestId;
+        this.body = body;
+    }
+}
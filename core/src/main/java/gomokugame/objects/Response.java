@@ -0,0 +1,14 @@
+package gomokugame.objects;
+
+import java.io.Serializable;
+
+// The server's answer to a Request. body is null when the request has no answer of its own (e.g. a settings change)
+public class Response implements Serializable {
+    public int requestId;
+    public Object body;
+
+    public Response(int requestId, Object body) {
+        this.requestId = requestId;
+        this.body = body;
+    }
+}
@@ -0,0 +1,14 @@
+package gomokugame.objects;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+// Changes to the room list between two lobby versions. A snapshot carries the whole list in addedRooms
+public class RoomListDelta implements Serializable {
+    public long fromVersion;
+    public long toVersion;
+    public boolean isSnapshot;
+    public ArrayList<SerializedRoom> addedRooms = new ArrayList<>();
+    public ArrayList<SerializedRoom> updatedRooms = new ArrayList<>();
+    public ArrayList<Integer> removedRoomIds = new ArrayList<>();
+}
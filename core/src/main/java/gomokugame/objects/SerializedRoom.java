@@ -11,6 +11,7 @@ public class SerializedRoom implements Serializable {
     public int boardSize;
     public int connectedPlayersAmount;
     public boolean isCreateRequest;
+    public String nodeAddress; // host:port of the server node the room lives on
 
     // Client usage
     public boolean asPlayer;
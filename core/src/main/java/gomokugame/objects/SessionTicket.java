@@ -0,0 +1,19 @@
+package gomokugame.objects;
+
+import java.io.Serializable;
+
+// Identifies a client's session. The server hands it out right after the handshake (and again whenever its standby
+// changes). After losing the connection the client sends it back, to the same server or to its standby, to get its seat back
+public class SessionTicket implements Serializable {
+    public String token;
+    public String standbyAddress; // host:port of the hot standby that takes over if this server dies, null if there is none
+    public boolean isResumeRequest;
+    // Resume requests only: the match the client has on screen and the last move it received, so only later moves are resent
+    public int matchNumber;
+    public int lastMoveSequence;
+
+    public SessionTicket(String token, String standbyAddress) {
+        this.token = token;
+        this.standbyAddress = standbyAddress;
+    }
+}
@@ -0,0 +1,558 @@
+package gomokugame.protocol;
+
+import gomokugame.objects.*;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+// Compact wire format. Every payload starts with a one-byte opcode followed by fixed-layout fields,
+// e.g. a move is 3 bytes (opcode, row, col) instead of a few hundred bytes of serialized object.
+public class BinaryCodec implements MessageCodec {
+    // Opcode table. Values are part of the wire format: never renumber, only append
+    private static final byte MOVE = 0x01; // Move sent by a player (row, col)
+    private static final byte MOVE_BLACK = 0x02; // Move placed by black (row, col, sequence)
+    private static final byte MOVE_WHITE = 0x03; // Move placed by white (row, col, sequence)
+    private static final byte MOVE_REQUEST = 0x04;
+    private static final byte INTEGER = 0x05;
+    private static final byte ROOM = 0x06;
+    private static final byte ROOM_LIST = 0x07;
+    private static final byte BOARD = 0x08;
+    private static final byte MATCH_END_RESULT = 0x09;
+    private static final byte BOARD_SIZE_OPTION = 0x0A;
+    private static final byte TIMER_OPTION = 0x0B;
+    private static final byte INVISIBLE_MODE_OPTION = 0x0C;
+    private static final byte TEXT = 0x0D; // Any String command that has no opcode of its own
+    private static final byte ROOM_LIST_DELTA = 0x0E;
+    private static final byte NODE_REDIRECT = 0x0F;
+    private static final byte SESSION_TICKET = 0x10;
+    private static final byte REQUEST = 0x11; // Request id followed by the wrapped message
+    private static final byte RESPONSE = 0x12; // Request id followed by the answer
+    private static final byte ACKNOWLEDGEMENT = 0x13; // Request id only: a Response without body
+    private static final byte MATCH_START = 0x14; // Color, timer, reveal chances, board
+    private static final byte HEARTBEAT = 0x15; // Reply flag, server time, round trip
+    private static final int COMMAND_BASE = 0x40; // Opcode of COMMANDS[i] is COMMAND_BASE + i
+
+    // Bare String commands. The index is part of the wire format: only append
+    private static final String[] COMMANDS = {
+            "GET_BOARD_REQUEST",
+            "GET_COLOR_REQUEST",
+            "GET_INVISIBLE_MODE_REVEAL_CHANCES",
+            "UPDATE_INVISIBLE_MODE_REVEAL_CHANCES",
+            "INVALID_MOVE_PENALTY",
+            "GET_ROOM_LIST",
+            "LEAVE_ROOM_REQUEST",
+            "START_MATCH_REQUEST",
+            "REMATCH_REQUEST",
+            "FINISHED_INITIALIZING",
+            "EXIT_MATCH",
+            "NOT_ENOUGH_PLAYERS_TO_START",
+            "START_REQUEST",
+            "WHITE",
+            "BLACK",
+            "SPECTATOR",
+            "JOIN_SUCCESS",
+            "LEAVE_ROOM",
+            "INVALID_MOVE",
+            "VALID_MOVE",
+            "MOVE_TIMEOUT",
+            "REQUEST_REMATCH",
+            "REMATCH_IMPOSSIBLE",
+            "HOST_LEFT_IN_MATCH",
+            "ALREADY_IN_ROOM",
+            "RATE_LIMITED"
+    };
+    private static final HashMap<String, Integer> COMMAND_OPCODES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < COMMANDS.length; i++) {
+            COMMAND_OPCODES.put(COMMANDS[i], COMMAND_BASE + i);
+        }
+    }
+
+    // Tile occupants inside an encoded board, 2 bits each
+    private static final int EMPTY = 0;
+    private static final int BLACK_STONE = 1;
+    private static final int WHITE_STONE = 2;
+
+    @Override
+    public byte[] encode(Object message) throws IOException {
+        Writer writer = new Writer();
+        this.put(writer, message);
+
+        return writer.toFrame();
+    }
+
+    private void put(Writer writer, Object message) throws IOException {
+        if (message instanceof String command) {
+            Integer opcode = COMMAND_OPCODES.get(command);
+
+            if (opcode != null) {
+                writer.putByte(opcode);
+            }
+            else {
+                writer.putByte(TEXT);
+                writer.putString(command);
+            }
+        }
+        else if (message instanceof Move move) {
+            if (move.moveMaker == null) {
+                writer.putByte(MOVE);
+            }
+            else {
+                writer.putByte(move.moveMaker.equals("WHITE") ? MOVE_WHITE : MOVE_BLACK);
+            }
+
+            writer.putByte(move.targetRow);
+            writer.putByte(move.targetCol);
+
+            if (move.moveMaker != null) {
+                writer.putShort(move.sequence);
+            }
+        }
+        else if (message instanceof MoveRequest moveRequest) {
+            writer.putByte(MOVE_REQUEST);
+            writer.putInt(moveRequest.timerPerTurnInMilliseconds);
+            writer.putLong(moveRequest.deadlineMicros);
+        }
+        else if (message instanceof Integer value) {
+            writer.putByte(INTEGER);
+            writer.putInt(value);
+        }
+        else if (message instanceof SerializedRoom room) {
+            writer.putByte(ROOM);
+            this.putRoom(writer, room);
+        }
+        else if (message instanceof ArrayList<?> rooms) {
+            writer.putByte(ROOM_LIST);
+            writer.putInt(rooms.size());
+
+            for (Object room : rooms) {
+                this.putRoom(writer, (SerializedRoom) room);
+            }
+        }
+        else if (message instanceof RoomListDelta delta) {
+            writer.putByte(ROOM_LIST_DELTA);
+            writer.putByte(delta.isSnapshot ? 1 : 0);
+            writer.putLong(delta.fromVersion);
+            writer.putLong(delta.toVersion);
+            this.putRooms(writer, delta.addedRooms);
+            this.putRooms(writer, delta.updatedRooms);
+            writer.putInt(delta.removedRoomIds.size());
+
+            for (int roomId : delta.removedRoomIds) {
+                writer.putInt(roomId);
+            }
+        }
+        else if (message instanceof NodeRedirect redirect) {
+            writer.putByte(NODE_REDIRECT);
+            writer.putString(redirect.host);
+            writer.putInt(redirect.port);
+            writer.putInt(redirect.roomId);
+        }
+        else if (message instanceof SessionTicket ticket) {
+            writer.putByte(SESSION_TICKET);
+            writer.putString(ticket.token);
+            writer.putNullableString(ticket.standbyAddress);
+            writer.putByte(ticket.isResumeRequest ? 1 : 0);
+            writer.putInt(ticket.matchNumber);
+            writer.putShort(ticket.lastMoveSequence);
+        }
+        else if (message instanceof Board board) {
+            writer.putByte(BOARD);
+            this.putBoard(writer, board);
+        }
+        else if (message instanceof MatchEndResult result) {
+            writer.putByte(MATCH_END_RESULT);
+            writer.putByte((result.wasAnAbort ? 1 : 0) | (result.winner ? 2 : 0) | (result.loser ? 4 : 0) | (result.spectator ? 8 : 0) | (result.isDraw ? 16 : 0));
+            writer.putNullableString(result.colorThatWon);
+        }
+        else if (message instanceof BoardSizeOption option) {
+            writer.putByte(BOARD_SIZE_OPTION);
+            writer.putInt(option.boardSize);
+        }
+        else if (message instanceof TimerOption option) {
+            writer.putByte(TIMER_OPTION);
+            writer.putInt(option.timerPerTurnInMilliseconds);
+        }
+        else if (message instanceof InvisibleModeOption option) {
+            writer.putByte(INVISIBLE_MODE_OPTION);
+            writer.putInt(option.invisibleModeRevealChances);
+        }
+        else if (message instanceof MatchStart start) {
+            writer.putByte(MATCH_START);
+            writer.putByte(start.color.equals("BLACK") ? BLACK_STONE : start.color.equals("WHITE") ? WHITE_STONE : EMPTY);
+            writer.putInt(start.timerPerTurnInMilliseconds);
+            writer.putInt(start.invisibleModeRevealChances);
+            this.putBoard(writer, start.board);
+        }
+        else if (message instanceof Heartbeat heartbeat) {
+            writer.putByte(HEARTBEAT);
+            writer.putByte(heartbeat.isReply ? 1 : 0);
+            writer.putLong(heartbeat.serverTimeMicros);
+            writer.putInt(heartbeat.roundTripMicros);
+        }
+        else if (message instanceof Request request) {
+            writer.putByte(REQUEST);
+            writer.putInt(request.requestId);
+            this.put(writer, request.body);
+        }
+        else if (message instanceof Response response) {
+            writer.putByte((response.body == null) ? ACKNOWLEDGEMENT : RESPONSE);
+            writer.putInt(response.requestId);
+
+            if (response.body != null) {
+                this.put(writer, response.body);
+            }
+        }
+        else {
+            throw new IOException("No opcode for message of type " + (message == null ? "null" : message.getClass().getName()) + ".");
+        }
+    }
+
+    @Override
+    public Object decode(byte[] payload) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+
+        try {
+            return this.get(in);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated payload.", e);
+        } catch (RuntimeException e) {
+            // Whatever a malformed payload breaks, the caller only has to handle a bad frame
+            throw new IOException("Malformed payload.", e);
+        }
+    }
+
+    private Object get(ByteBuffer in) throws IOException {
+        int opcode = in.get() & 0xFF;
+
+        if (opcode >= COMMAND_BASE && opcode < COMMAND_BASE + COMMANDS.length) {
+            return COMMANDS[opcode - COMMAND_BASE];
+        }
+
+        switch (opcode) {
+            case MOVE, MOVE_BLACK, MOVE_WHITE: {
+                Move move = new Move(in.get(), in.get());
+
+                if (opcode == MOVE_BLACK) {
+                    move.moveMaker = "BLACK";
+                    move.sequence = in.getShort() & 0xFFFF;
+                }
+                else if (opcode == MOVE_WHITE) {
+                    move.moveMaker = "WHITE";
+                    move.sequence = in.getShort() & 0xFFFF;
+                }
+
+                return move;
+            }
+            case MOVE_REQUEST:
+                return new MoveRequest(in.getInt(), in.getLong());
+            case INTEGER:
+                return in.getInt();
+            case ROOM:
+                return this.getRoom(in);
+            case ROOM_LIST: {
+                ArrayList<SerializedRoom> rooms = new ArrayList<>();
+                this.getRooms(in, rooms);
+
+                return rooms;
+            }
+            case ROOM_LIST_DELTA: {
+                RoomListDelta delta = new RoomListDelta();
+                delta.isSnapshot = in.get() != 0;
+                delta.fromVersion = in.getLong();
+                delta.toVersion = in.getLong();
+                this.getRooms(in, delta.addedRooms);
+                this.getRooms(in, delta.updatedRooms);
+
+                int removed = getCount(in);
+                for (int i = 0; i < removed; i++) {
+                    delta.removedRoomIds.add(in.getInt());
+                }
+
+                return delta;
+            }
+            case NODE_REDIRECT:
+                return new NodeRedirect(getString(in), in.getInt(), in.getInt());
+            case SESSION_TICKET: {
+                SessionTicket ticket = new SessionTicket(getString(in), getNullableString(in));
+                ticket.isResumeRequest = in.get() != 0;
+                ticket.matchNumber = in.getInt();
+                ticket.lastMoveSequence = in.getShort() & 0xFFFF;
+
+                return ticket;
+            }
+            case BOARD:
+                return this.getBoard(in);
+            case MATCH_END_RESULT: {
+                int flags = in.get();
+                MatchEndResult result = new MatchEndResult();
+                result.wasAnAbort = (flags & 1) != 0;
+                result.winner = (flags & 2) != 0;
+                result.loser = (flags & 4) != 0;
+                result.spectator = (flags & 8) != 0;
+                result.isDraw = (flags & 16) != 0;
+                result.colorThatWon = getNullableString(in);
+
+                return result;
+            }
+            case BOARD_SIZE_OPTION:
+                return new BoardSizeOption(in.getInt());
+            case TIMER_OPTION:
+                return new TimerOption(in.getInt());
+            case INVISIBLE_MODE_OPTION:
+                return new InvisibleModeOption(in.getInt());
+            case TEXT:
+                return getString(in);
+            case MATCH_START: {
+                int color = in.get();
+                int timer = in.getInt();
+                int chances = in.getInt();
+
+                return new MatchStart((color == BLACK_STONE) ? "BLACK" : (color == WHITE_STONE) ? "WHITE" : "SPECTATOR", this.getBoard(in), timer, chances);
+            }
+            case HEARTBEAT: {
+                boolean isReply = in.get() != 0;
+                long serverTime = in.getLong();
+
+                return new Heartbeat(serverTime, in.getInt(), isReply);
+            }
+            case REQUEST: {
+                int requestId = in.getInt();
+
+                return new Request(requestId, this.getWrapped(in));
+            }
+            case RESPONSE: {
+                int requestId = in.getInt();
+
+                return new Response(requestId, this.getWrapped(in));
+            }
+            case ACKNOWLEDGEMENT:
+                return new Response(in.getInt(), null);
+            default:
+                throw new IOException("Unknown opcode " + opcode + ".");
+        }
+    }
+
+    // The message inside a request or response. Wrappers never nest
+    private Object getWrapped(ByteBuffer in) throws IOException {
+        if (!in.hasRemaining()) {
+            throw new IOException("Truncated payload.");
+        }
+
+        int opcode = in.get(in.position()) & 0xFF;
+
+        if (opcode == REQUEST || opcode == RESPONSE || opcode == ACKNOWLEDGEMENT) {
+            throw new IOException("Nested request or response.");
+        }
+
+        return this.get(in);
+    }
+
+    private void putRoom(Writer writer, SerializedRoom room) {
+        writer.putInt(room.roomId);
+        writer.putNullableString(room.roomName);
+        writer.putNullableString(room.roomCreatorId);
+        writer.putLong(room.timerPerTurnInMilliseconds);
+        writer.putInt(room.invisibleModeRevealChances);
+        writer.putInt(room.boardSize);
+        writer.putInt(room.connectedPlayersAmount);
+        writer.putByte((room.isCreateRequest ? 1 : 0) | (room.asPlayer ? 2 : 0) | (room.asSpectator ? 4 : 0));
+        writer.putNullableString(room.nodeAddress);
+    }
+
+    private void putRooms(Writer writer, ArrayList<SerializedRoom> rooms) {
+        writer.putInt(rooms.size());
+
+        for (SerializedRoom room : rooms) {
+            this.putRoom(writer, room);
+        }
+    }
+
+    private void getRooms(ByteBuffer in, ArrayList<SerializedRoom> rooms) {
+        int size = getCount(in);
+        rooms.ensureCapacity(size);
+
+        for (int i = 0; i < size; i++) {
+            rooms.add(this.getRoom(in));
+        }
+    }
+
+    private SerializedRoom getRoom(ByteBuffer in) {
+        int roomId = in.getInt();
+        SerializedRoom room = new SerializedRoom(getNullableString(in));
+        room.roomId = roomId;
+        room.roomCreatorId = getNullableString(in);
+        room.timerPerTurnInMilliseconds = in.getLong();
+        room.invisibleModeRevealChances = in.getInt();
+        room.boardSize = in.getInt();
+        room.connectedPlayersAmount = in.getInt();
+
+        int flags = in.get();
+        room.isCreateRequest = (flags & 1) != 0;
+        room.asPlayer = (flags & 2) != 0;
+        room.asSpectator = (flags & 4) != 0;
+        room.nodeAddress = getNullableString(in);
+
+        return room;
+    }
+
+    // A board is its size, match number and move count followed by every tile occupant packed 4 tiles per byte
+    private void putBoard(Writer writer, Board board) {
+        writer.putByte(board.size);
+        writer.putInt(board.matchNumber);
+        writer.putShort(board.moveCount);
+        int side = board.size + 1;
+        int packed = 0;
+        int packedCount = 0;
+
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                Tile tile = board.boardArray[row][col];
+                int occupant = EMPTY;
+
+                if (tile != null && tile.occupant != null) {
+                    occupant = tile.occupant.equals("WHITE") ? WHITE_STONE : BLACK_STONE;
+                }
+
+                packed |= occupant << (packedCount * 2);
+                packedCount++;
+
+                if (packedCount == 4) {
+                    writer.putByte(packed);
+                    packed = 0;
+                    packedCount = 0;
+                }
+            }
+        }
+
+        if (packedCount > 0) {
+            writer.putByte(packed);
+        }
+    }
+
+    private Board getBoard(ByteBuffer in) {
+        Board board = new Board(in.get() & 0xFF);
+        board.matchNumber = in.getInt();
+        board.moveCount = in.getShort() & 0xFFFF;
+        int side = board.size + 1;
+        int packed = 0;
+        int packedCount = 4;
+
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                if (packedCount == 4) {
+                    packed = in.get();
+                    packedCount = 0;
+                }
+
+                int occupant = (packed >> (packedCount * 2)) & 0b11;
+                packedCount++;
+
+                Tile tile = new Tile(row, col);
+                if (occupant == BLACK_STONE) {
+                    tile.occupant = "BLACK";
+                }
+                else if (occupant == WHITE_STONE) {
+                    tile.occupant = "WHITE";
+                }
+
+                board.boardArray[row][col] = tile;
+            }
+        }
+
+        return board;
+    }
+
+    // Element count of a list. Every element takes at least a byte, so a count above the bytes left is corrupt,
+    // and a corrupt count must not make us allocate more than the payload could ever hold
+    private static int getCount(ByteBuffer in) {
+        int count = in.getInt();
+
+        if (count < 0 || count > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        return count;
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String getNullableString(ByteBuffer in) {
+        return (in.get() == 0) ? null : getString(in);
+    }
+
+    // Growable byte array that reserves room for the frame header up front
+    private static class Writer {
+        private byte[] bytes = new byte[64];
+        private int size = Frames.HEADER_SIZE;
+
+        private void ensureCapacity(int extra) {
+            if (this.size + extra > this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.size + extra));
+            }
+        }
+
+        void putByte(int value) {
+            this.ensureCapacity(1);
+            this.bytes[this.size++] = (byte) value;
+        }
+
+        void putInt(int value) {
+            this.ensureCapacity(4);
+            this.bytes[this.size++] = (byte) (value >>> 24);
+            this.bytes[this.size++] = (byte) (value >>> 16);
+            this.bytes[this.size++] = (byte) (value >>> 8);
+            this.bytes[this.size++] = (byte) value;
+        }
+
+        void putShort(int value) {
+            this.ensureCapacity(2);
+            this.bytes[this.size++] = (byte) (value >>> 8);
+            this.bytes[this.size++] = (byte) value;
+        }
+
+        void putLong(long value) {
+            this.putInt((int) (value >>> 32));
+            this.putInt((int) value);
+        }
+
+        void putString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(encoded.length, 0xFFFF);
+
+            this.ensureCapacity(2 + length);
+            this.bytes[this.size++] = (byte) (length >>> 8);
+            this.bytes[this.size++] = (byte) length;
+            System.arraycopy(encoded, 0, this.bytes, this.size, length);
+            this.size += length;
+        }
+
+        void putNullableString(String value) {
+            if (value == null) {
+                this.putByte(0);
+            }
+            else {
+                this.putByte(1);
+                this.putString(value);
+            }
+        }
+
+        byte[] toFrame() {
+            byte[] frame = Arrays.copyOf(this.bytes, this.size);
+            Frames.writeHeader(frame, this.size - Frames.HEADER_SIZE);
+
+            return frame;
+        }
+    }
+}
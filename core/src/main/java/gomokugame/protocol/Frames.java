@@ -0,0 +1,50 @@
+package gomokugame.protocol;
+
+import java.io.*;
+
+// Every message on the wire is sent as one frame: a 4-byte big-endian length followed by that many payload bytes
+public final class Frames {
+    public static final int HEADER_SIZE = 4;
+    public static final int MAX_PAYLOAD_SIZE = 1 << 20; // 1 MiB, anything larger is treated as a broken peer
+
+    private Frames() {}
+
+    // Wraps a raw payload into a complete frame
+    public static byte[] frame(byte[] payload) {
+        byte[] frame = new byte[HEADER_SIZE + payload.length];
+        writeHeader(frame, payload.length);
+        System.arraycopy(payload, 0, frame, HEADER_SIZE, payload.length);
+
+        return frame;
+    }
+
+    public static void writeHeader(byte[] frame, int payloadSize) {
+        frame[0] = (byte) (payloadSize >>> 24);
+        frame[1] = (byte) (payloadSize >>> 16);
+        frame[2] = (byte) (payloadSize >>> 8);
+        frame[3] = (byte) payloadSize;
+    }
+
+    // Writes one complete frame on a blocking stream
+    public static void write(DataOutputStream out, byte[] frame) throws IOException {
+        out.write(frame);
+        out.flush();
+    }
+
+    // Blocks until one complete frame is read from the stream and returns its payload
+    public static byte[] readPayload(DataInputStream in) throws IOException {
+        int payloadSize = in.readInt();
+        checkPayloadSize(payloadSize);
+
+        byte[] payload = new byte[payloadSize];
+        in.readFully(payload);
+
+        return payload;
+    }
+
+    public static void checkPayloadSize(int payloadSize) throws IOException {
+        if (payloadSize < 0 || payloadSize > MAX_PAYLOAD_SIZE) {
+            throw new IOException("Invalid frame size " + payloadSize + ".");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package gomokugame.protocol;
+
+import java.io.IOException;
+
+// The first frame in each direction negotiates the protocol version and wire format.
+// Client hello: 'G' 'M' 'K' version formatCount format...   (formats in order of preference)
+// Server hello: 'G' 'M' 'K' version chosenFormat   (SERVER_FULL or VERSION_MISMATCH instead of a format turns the client away)
+public final class Handshake {
+    public static final int VERSION = 10; // Protocol version of this build. Client and server must speak the same one
+    private static final byte[] MAGIC = {'G', 'M', 'K'};
+    private static final byte SERVER_FULL = (byte) 0xFF;
+    private static final byte VERSION_MISMATCH = (byte) 0xFE;
+    private static final byte[] SERVER_FULL_HELLO = serverHello(SERVER_FULL);
+    private static final byte[] VERSION_MISMATCH_HELLO = serverHello(VERSION_MISMATCH);
+
+    private Handshake() {}
+
+    public static byte[] clientHello(WireFormat... supportedFormats) {
+        byte[] payload = new byte[MAGIC.length + 2 + supportedFormats.length];
+        System.arraycopy(MAGIC, 0, payload, 0, MAGIC.length);
+        payload[MAGIC.length] = VERSION;
+        payload[MAGIC.length + 1] = (byte) supportedFormats.length;
+
+        for (int i = 0; i < supportedFormats.length; i++) {
+            payload[MAGIC.length + 2 + i] = (byte) supportedFormats[i].id;
+        }
+
+        return Frames.frame(payload);
+    }
+
+    public static byte[] serverHello(WireFormat chosenFormat) {
+        return serverHello((byte) chosenFormat.id);
+    }
+
+    // Sent instead of the server hello to a connection the server has no room for. The same bytes every time
+    public static byte[] serverFull() {
+        return SERVER_FULL_HELLO;
+    }
+
+    // Sent instead of the server hello to a client of another protocol version. Carries the server's version
+    public static byte[] versionMismatch() {
+        return VERSION_MISMATCH_HELLO;
+    }
+
+    private static byte[] serverHello(byte chosenFormat) {
+        byte[] payload = new byte[MAGIC.length + 2];
+        System.arraycopy(MAGIC, 0, payload, 0, MAGIC.length);
+        payload[MAGIC.length] = VERSION;
+        payload[MAGIC.length + 1] = chosenFormat;
+
+        return Frames.frame(payload);
+    }
+
+    // True if the payload is a hello frame rather than a message
+    public static boolean isHello(byte[] payload) {
+        if (payload.length < MAGIC.length + 2) {
+            return false;
+        }
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (payload[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // The protocol version a hello frame was sent with
+    public static int versionOf(byte[] hello) {
+        return hello[MAGIC.length];
+    }
+
+    // Server side: picks the first format of the client's preference list that the server also speaks, null if there is none
+    public static WireFormat chooseFormat(byte[] clientHello, WireFormat... serverFormats) throws IOException {
+        if (!isHello(clientHello)) {
+            throw new IOException("Not a hello frame.");
+        }
+
+        if (versionOf(clientHello) != VERSION) {
+            throw new IOException("Client speaks protocol version " + versionOf(clientHello) + " but this server speaks " + VERSION + ".");
+        }
+
+        int formatCount = clientHello[MAGIC.length + 1];
+
+        for (int i = 0; i < formatCount && MAGIC.length + 2 + i < clientHello.length; i++) {
+            WireFormat format = WireFormat.fromId(clientHello[MAGIC.length + 2 + i]);
+
+            for (WireFormat serverFormat : serverFormats) {
+                if (serverFormat == format) {
+                    return format;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    // Client side: reads the format the server picked
+    public static WireFormat acceptedFormat(byte[] serverHello) throws IOException {
+        if (!isHello(serverHello)) {
+            throw new IOException("Server did not answer the handshake.");
+        }
+
+        if (serverHello[MAGIC.length + 1] == SERVER_FULL) {
+            throw new IOException("Server is full. Try again later.");
+        }
+
+        if (serverHello[MAGIC.length + 1] == VERSION_MISMATCH || versionOf(serverHello) != VERSION) {
+            throw new IOException("Server speaks protocol version " + versionOf(serverHello) + " but this client speaks " + VERSION + ".");
+        }
+
+        WireFormat format = WireFormat.fromId(serverHello[MAGIC.length + 1]);
+
+        if (format == null) {
+            throw new IOException("Server picked an unknown wire format.");
+        }
+
+        return format;
+    }
+}
@@ -0,0 +1,12 @@
+package gomokugame.protocol;
+
+import java.io.IOException;
+
+// Turns messages into complete frames and frame payloads back into messages
+public interface MessageCodec {
+    // Returns a complete frame (length header + payload) ready to be written to a socket
+    byte[] encode(Object message) throws IOException;
+
+    // Decodes the payload of a single frame (without its header)
+    Object decode(byte[] payload) throws IOException;
+}
@@ -0,0 +1,39 @@
+package gomokugame.protocol;
+
+import java.io.*;
+
+// The original wire format: every message is written with Java object serialization
+public class SerializationCodec implements MessageCodec {
+    // Only the message classes may be read, within the size of a frame. Anything else in a stream is rejected before
+    // it is instantiated. ArrayList keeps its elements in an Object[], so Object has to pass too
+    private static final ObjectInputFilter MESSAGES_ONLY = ObjectInputFilter.Config.createFilter(
+            "maxdepth=16;maxarray=" + Frames.MAX_PAYLOAD_SIZE + ";maxbytes=" + Frames.MAX_PAYLOAD_SIZE
+                    + ";gomokugame.objects.*;java.lang.String;java.lang.Integer;java.lang.Number;java.lang.Object;java.util.ArrayList;!*");
+
+    @Override
+    public byte[] encode(Object message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        bytes.write(new byte[Frames.HEADER_SIZE]); // Placeholder for the length
+
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(message);
+        }
+
+        byte[] frame = bytes.toByteArray();
+        Frames.writeHeader(frame, frame.length - Frames.HEADER_SIZE);
+
+        return frame;
+    }
+
+    @Override
+    public Object decode(byte[] payload) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            ois.setObjectInputFilter(MESSAGES_ONLY);
+            return ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Received an object of an unknown class.", e);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed payload.", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package gomokugame.protocol;
+
+// The message encodings a client and a server can agree on during the handshake
+public enum WireFormat {
+    SERIALIZED(0, new SerializationCodec()), // Java object serialization. Servers only offer it with gomoku.allowSerializedClients
+    BINARY(1, new BinaryCodec()); // Compact opcode-based encoding
+
+    public final int id;
+    public final MessageCodec codec;
+
+    WireFormat(int id, MessageCodec codec) {
+        this.id = id;
+        this.codec = codec;
+    }
+
+    public static WireFormat fromId(int id) {
+        for (WireFormat format : values()) {
+            if (format.id == id) {
+                return format;
+            }
+        }
+
+        return null;
+    }
+}
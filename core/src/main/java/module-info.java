@@ -0,0 +1,5 @@
+module gomokugame.core {
+    exports gomokugame.core;
+    exports gomokugame.objects;
+    exports gomokugame.protocol;
+}
\ No newline at end of file
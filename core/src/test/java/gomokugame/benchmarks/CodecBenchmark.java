@@ -0,0 +1,119 @@
+package gomokugame.benchmarks;
+
+import gomokugame.objects.*;
+import gomokugame.protocol.Frames;
+import gomokugame.protocol.MessageCodec;
+import gomokugame.protocol.WireFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Compares frame size and encode/decode cost of every wire format for the messages the game sends most.
+// Lives in the test sources so it does not ship with core. Run with: java -cp target/classes:target/test-classes gomokugame.benchmarks.CodecBenchmark
+public class CodecBenchmark {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+    private static long sink; // Keeps the JIT from dropping the measured work
+
+    public static void main(String[] args) throws IOException {
+        Object[][] messages = {
+                {"Move", placedMove()},
+                {"Command (VALID_MOVE)", "VALID_MOVE"},
+                {"MoveRequest", new MoveRequest(30000, 1_000_000_000L)},
+                {"MatchEndResult", matchEndResult()},
+                {"Room list (20 rooms)", roomList(20)},
+                {"Board (20x20, 40 stones)", board(20, 40)}
+        };
+
+        System.out.printf("%-26s %-11s %8s %12s %12s%n", "Message", "Format", "Bytes", "Encode ns", "Decode ns");
+
+        for (Object[] entry : messages) {
+            for (WireFormat format : WireFormat.values()) {
+                MessageCodec codec = format.codec;
+                Object message = entry[1];
+                byte[] frame = codec.encode(message);
+                byte[] payload = Arrays.copyOfRange(frame, Frames.HEADER_SIZE, frame.length);
+
+                // Fewer iterations for the heavy messages so a run stays short
+                int iterations = (message instanceof Board || message instanceof ArrayList<?>) ? MEASURED_ITERATIONS / 20 : MEASURED_ITERATIONS;
+
+                measureEncode(codec, message, WARMUP_ITERATIONS / 10);
+                double encodeNanos = measureEncode(codec, message, iterations);
+                measureDecode(codec, payload, WARMUP_ITERATIONS / 10);
+                double decodeNanos = measureDecode(codec, payload, iterations);
+
+                System.out.printf("%-26s %-11s %8d %12.1f %12.1f%n", entry[0], format, frame.length, encodeNanos, decodeNanos);
+            }
+        }
+
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static double measureEncode(MessageCodec codec, Object message, int iterations) throws IOException {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            sink += codec.encode(message).length;
+        }
+
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+
+    private static double measureDecode(MessageCodec codec, byte[] payload, int iterations) throws IOException {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            sink += codec.decode(payload).hashCode() & 1;
+        }
+
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+
+    private static Move placedMove() {
+        Move move = new Move(12, 7);
+        move.moveMaker = "BLACK";
+
+        return move;
+    }
+
+    private static MatchEndResult matchEndResult() {
+        MatchEndResult result = new MatchEndResult();
+        result.winner = true;
+        result.colorThatWon = "WHITE";
+
+        return result;
+    }
+
+    private static ArrayList<SerializedRoom> roomList(int size) {
+        ArrayList<SerializedRoom> rooms = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            SerializedRoom room = new SerializedRoom("Room " + i);
+            room.roomId = 1000 + i;
+            room.roomCreatorId = String.format("%010d", i);
+            room.boardSize = 20;
+            room.timerPerTurnInMilliseconds = 30000;
+            room.connectedPlayersAmount = 2;
+            rooms.add(room);
+        }
+
+        return rooms;
+    }
+
+    private static Board board(int size, int stones) {
+        Board board = new Board(size);
+
+        for (int row = 0; row <= size; row++) {
+            for (int col = 0; col <= size; col++) {
+                board.boardArray[row][col] = new Tile(row, col);
+            }
+        }
+
+        for (int i = 0; i < stones; i++) {
+            board.boardArray[(i * 7) % (size + 1)][(i * 13) % (size + 1)].occupant = (i % 2 == 0) ? "BLACK" : "WHITE";
+        }
+
+        return board;
+    }
+}
@@ -0,0 +1,161 @@
+package gomokugame.benchmarks;
+
+import gomokugame.core.BitBoard;
+import gomokugame.core.BoardGeometry;
+import gomokugame.core.OutcomeDetector;
+import gomokugame.objects.Tile;
+
+import java.util.Random;
+
+// Compares the cost per move (placing the stone included) of deciding a match: the previous scan of the Tile grid from
+// the last move, which only finds wins, against the OutcomeDetector, which finds wins and draws, on its own and inside
+// a BitBoard as rooms use it. Every game fills the whole board without a five, so no check can stop early. Run with: java -cp target/classes:target/test-classes gomokugame.benchmarks.OutcomeBenchmark
+public class OutcomeBenchmark {
+    private static final int GAMES = 32;
+    private static final int WARMUP_MOVES = 2_000_000;
+    private static final int MEASURED_MOVES = 10_000_000;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {-1, 1}, {1, 1}};
+    private static long sink; // Keeps the JIT from dropping the measured work
+
+    public static void main(String[] args) {
+        System.out.printf("%-10s %-34s %12s%n", "Board", "Check", "ns/move");
+
+        for (int size : new int[] {20, 30}) {
+            BoardGeometry geometry = BoardGeometry.of(size);
+            int[][] games = games(geometry);
+
+            measureTileScan(geometry, games, WARMUP_MOVES);
+            report(size, "Tile grid scan (previous)", measureTileScan(geometry, games, MEASURED_MOVES));
+            measureDetector(geometry, games, WARMUP_MOVES);
+            report(size, "OutcomeDetector (wins and draws)", measureDetector(geometry, games, MEASURED_MOVES));
+            measureBitBoard(geometry, games, WARMUP_MOVES);
+            report(size, "BitBoard with detector (Room)", measureBitBoard(geometry, games, MEASURED_MOVES));
+        }
+
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static void report(int size, String check, double nanos) {
+        System.out.printf("%-10s %-34s %12.1f%n", size + "x" + size, check, nanos);
+    }
+
+    // Games in coded moves. Stones go down in random order, colored in a pattern that never has five in a row
+    private static int[][] games(BoardGeometry geometry) {
+        Random random = new Random(1004);
+        int[][] games = new int[GAMES][geometry.points];
+
+        for (int[] game : games) {
+            for (int point = 0; point < geometry.points; point++) {
+                game[point] = point;
+            }
+
+            for (int i = game.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int point = game[i];
+                game[i] = game[j];
+                game[j] = point;
+            }
+
+            for (int i = 0; i < game.length; i++) {
+                int color = (geometry.rowOf(game[i]) / 2 + geometry.colOf(game[i])) % 2;
+                game[i] = BitBoard.encodeMove(game[i], color);
+            }
+        }
+
+        return games;
+    }
+
+    private static double measureTileScan(BoardGeometry geometry, int[][] games, int moves) {
+        Tile[][] tiles = new Tile[geometry.side][geometry.side];
+
+        for (int row = 0; row < geometry.side; row++) {
+            for (int col = 0; col < geometry.side; col++) {
+                tiles[row][col] = new Tile(row, col);
+            }
+        }
+
+        long start = System.nanoTime();
+        int played = 0;
+
+        for (int game = 0; played < moves; game = (game + 1) % games.length) {
+            for (Tile[] row : tiles) {
+                for (Tile tile : row) {
+                    tile.occupant = null;
+                }
+            }
+
+            for (int move : games[game]) {
+                int row = geometry.rowOf(BitBoard.pointOfMove(move));
+                int col = geometry.colOf(BitBoard.pointOfMove(move));
+                String color = BitBoard.nameOf(BitBoard.colorOfMove(move));
+                tiles[row][col].occupant = color;
+
+                for (int[] direction : DIRECTIONS) {
+                    sink += countRun(tiles, row, col, direction, color) >= BoardGeometry.WINNING_RUN ? 1 : 0;
+                }
+            }
+
+            played += games[game].length;
+        }
+
+        return (System.nanoTime() - start) / (double) played;
+    }
+
+    // The previous Room.checkConsecutivePieces
+    private static int countRun(Tile[][] tiles, int row, int col, int[] direction, String color) {
+        int count = 1;
+
+        for (int r = row + direction[0], c = col + direction[1]; withinBound(tiles, r, c) && tiles[r][c].occupant != null && tiles[r][c].occupant.equals(color); r += direction[0], c += direction[1]) {
+            count++;
+        }
+
+        for (int r = row - direction[0], c = col - direction[1]; withinBound(tiles, r, c) && tiles[r][c].occupant != null && tiles[r][c].occupant.equals(color); r -= direction[0], c -= direction[1]) {
+            count++;
+        }
+
+        return count;
+    }
+
+    private static boolean withinBound(Tile[][] tiles, int row, int col) {
+        return row >= 0 && col >= 0 && row < tiles.length && col < tiles[0].length;
+    }
+
+    // As a room plays a move: placing the stone updates the detector inside the BitBoard
+    private static double measureBitBoard(BoardGeometry geometry, int[][] games, int moves) {
+        BitBoard board = new BitBoard(geometry);
+        long start = System.nanoTime();
+        int played = 0;
+
+        for (int game = 0; played < moves; game = (game + 1) % games.length) {
+            board.clear();
+
+            for (int move : games[game]) {
+                board.place(BitBoard.pointOfMove(move), BitBoard.colorOfMove(move));
+                sink += board.getOutcome().ordinal();
+            }
+
+            played += games[game].length;
+        }
+
+        return (System.nanoTime() - start) / (double) played;
+    }
+
+    private static double measureDetector(BoardGeometry geometry, int[][] games, int moves) {
+        OutcomeDetector detector = new OutcomeDetector(geometry);
+        long start = System.nanoTime();
+        int played = 0;
+
+        for (int game = 0; played < moves; game = (game + 1) % games.length) {
+            detector.clear();
+
+            for (int move : games[game]) {
+                detector.place(BitBoard.pointOfMove(move), BitBoard.colorOfMove(move));
+                sink += detector.getOutcome().ordinal();
+            }
+
+            played += games[game].length;
+        }
+
+        return (System.nanoTime() - start) / (double) played;
+    }
+}
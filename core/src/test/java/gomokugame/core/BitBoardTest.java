@@ -0,0 +1,214 @@
+package gomokugame.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Checks BitBoard and OutcomeDetector against a plain grid scanned cell by cell, on every supported board size.
+// The scan only uses rows and columns, never the line tables of BoardGeometry, so both are checked at once
+class BitBoardTest {
+    private static final int[][] STEPS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}}; // Row and column step per direction, same order as BoardGeometry
+    private static final int GAMES_PER_SIZE = 4;
+
+    @Test
+    void runsAndLinesMatchGridScan() {
+        Random random = new Random(7);
+
+        for (int size = BoardGeometry.MIN_SIZE; size <= BoardGeometry.MAX_SIZE; size++) {
+            BitBoard board = new BitBoard(BoardGeometry.of(size));
+            BoardGeometry geometry = board.geometry;
+            int[][] grid = emptyGrid(geometry.side);
+
+            for (int point = 0; point < geometry.points; point++) {
+                if (random.nextInt(3) > 0) {
+                    int color = random.nextInt(2);
+                    board.place(point, color);
+                    grid[geometry.rowOf(point)][geometry.colOf(point)] = color;
+                }
+            }
+
+            for (int point = 0; point < geometry.points; point++) {
+                int row = geometry.rowOf(point);
+                int col = geometry.colOf(point);
+                assertEquals(point, geometry.pointOf(row, col));
+                assertEquals(grid[row][col], board.colorAt(point));
+
+                for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+                    for (int color = BitBoard.BLACK; color <= BitBoard.WHITE; color++) {
+                        assertEquals(scanRun(grid, row, col, direction, color), board.runLength(point, direction, color), "size " + size + ", point " + point + ", direction " + direction);
+                    }
+                }
+            }
+
+            for (int direction = 0; direction < BoardGeometry.DIRECTIONS; direction++) {
+                int stones = 0;
+                int points = 0;
+
+                for (int line = 0; line < geometry.lineCount(direction); line++) {
+                    stones += board.stonesOnLine(direction, line, BitBoard.BLACK) + board.stonesOnLine(direction, line, BitBoard.WHITE);
+                    points += geometry.lineLength(direction, line);
+                }
+
+                assertEquals(geometry.points, points, "Lines must cover the board exactly once");
+                assertEquals(board.getMoveCount(), stones);
+            }
+        }
+    }
+
+    @Test
+    void outcomeMatchesGridScanWithUndo() {
+        Random random = new Random(3);
+
+        for (int size = BoardGeometry.MIN_SIZE; size <= BoardGeometry.MAX_SIZE; size++) {
+            for (int game = 0; game < GAMES_PER_SIZE; game++) {
+                BitBoard board = new BitBoard(BoardGeometry.of(size));
+                BoardGeometry geometry = board.geometry;
+                int[][] grid = emptyGrid(geometry.side);
+                int[] order = shuffledPoints(geometry.points, random);
+                boolean avoidFives = game % 2 == 0; // Stripes of two rows rarely make five, so these games reach the drawn outcomes
+
+                for (int i = 0; i < order.length; i++) {
+                    int point = order[i];
+                    int row = geometry.rowOf(point);
+                    int col = geometry.colOf(point);
+                    int color = avoidFives ? (row / 2 + col) % 2 : random.nextInt(2);
+
+                    board.place(point, color);
+                    grid[row][col] = color;
+                    assertEquals(BitBoard.encodeMove(point, color), board.getMove(i));
+                    assertMatchesGrid(board, grid, "size " + size + ", move " + (i + 1));
+
+                    // Take the move back now and then, the outcome must be the one before it
+                    if (random.nextInt(10) == 0 || board.getOutcome() == OutcomeDetector.Outcome.WON) {
+                        OutcomeDetector.Outcome outcome = board.getOutcome();
+                        assertEquals(BitBoard.encodeMove(point, color), board.undo());
+                        grid[row][col] = BitBoard.EMPTY;
+                        assertMatchesGrid(board, grid, "size " + size + ", undo of move " + (i + 1));
+
+                        if (outcome == OutcomeDetector.Outcome.WON) {
+                            break;
+                        }
+
+                        board.place(point, color);
+                        grid[row][col] = color;
+                    }
+                }
+
+                // Taking back every move leaves an empty board
+                while (board.getMoveCount() > 0) {
+                    int point = BitBoard.pointOfMove(board.undo());
+                    grid[geometry.rowOf(point)][geometry.colOf(point)] = BitBoard.EMPTY;
+                }
+
+                assertMatchesGrid(board, grid, "size " + size + ", all moves taken back");
+                assertEquals(OutcomeDetector.Outcome.UNDECIDED, board.getOutcome());
+            }
+        }
+    }
+
+    @Test
+    void placingOnTakenPointFails() {
+        BitBoard board = new BitBoard(BoardGeometry.of(BoardGeometry.MIN_SIZE));
+        board.place(0, BitBoard.BLACK);
+
+        assertThrows(IllegalStateException.class, () -> board.place(0, BitBoard.WHITE));
+        assertEquals(1, board.getMoveCount());
+    }
+
+    // Counts every window of five in the grid: a five wins, a full board draws, no window left for either color is a dead draw
+    private static void assertMatchesGrid(BitBoard board, int[][] grid, String message) {
+        int side = grid.length;
+        int[] openWindows = new int[2];
+        boolean won = false;
+        int stones = 0;
+
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                stones += (grid[row][col] == BitBoard.EMPTY) ? 0 : 1;
+
+                for (int[] step : STEPS) {
+                    int endRow = row + step[0] * (BoardGeometry.WINNING_RUN - 1);
+                    int endCol = col + step[1] * (BoardGeometry.WINNING_RUN - 1);
+
+                    if (endRow >= side || endCol < 0 || endCol >= side) {
+                        continue;
+                    }
+
+                    int[] count = new int[2];
+
+                    for (int k = 0; k < BoardGeometry.WINNING_RUN; k++) {
+                        int occupant = grid[row + step[0] * k][col + step[1] * k];
+
+                        if (occupant != BitBoard.EMPTY) {
+                            count[occupant]++;
+                        }
+                    }
+
+                    won |= count[BitBoard.BLACK] == BoardGeometry.WINNING_RUN || count[BitBoard.WHITE] == BoardGeometry.WINNING_RUN;
+                    openWindows[BitBoard.BLACK] += (count[BitBoard.WHITE] == 0) ? 1 : 0;
+                    openWindows[BitBoard.WHITE] += (count[BitBoard.BLACK] == 0) ? 1 : 0;
+                }
+            }
+        }
+
+        OutcomeDetector.Outcome expected = won ? OutcomeDetector.Outcome.WON
+                : (stones == side * side) ? OutcomeDetector.Outcome.DRAWN
+                : (openWindows[BitBoard.BLACK] == 0 && openWindows[BitBoard.WHITE] == 0) ? OutcomeDetector.Outcome.DEAD_DRAWN
+                : OutcomeDetector.Outcome.UNDECIDED;
+
+        assertEquals(stones, board.getMoveCount(), message);
+        assertEquals(stones == side * side, board.isFull(), message);
+        assertEquals(expected, board.getOutcome(), message);
+        assertEquals(openWindows[BitBoard.BLACK], board.getOpenWindows(BitBoard.BLACK), message);
+        assertEquals(openWindows[BitBoard.WHITE], board.getOpenWindows(BitBoard.WHITE), message);
+    }
+
+    private static int scanRun(int[][] grid, int row, int col, int direction, int color) {
+        int[] step = STEPS[direction];
+        int run = 1;
+
+        for (int r = row + step[0], c = col + step[1]; inside(grid, r, c) && grid[r][c] == color; r += step[0], c += step[1]) {
+            run++;
+        }
+
+        for (int r = row - step[0], c = col - step[1]; inside(grid, r, c) && grid[r][c] == color; r -= step[0], c -= step[1]) {
+            run++;
+        }
+
+        return run;
+    }
+
+    private static boolean inside(int[][] grid, int row, int col) {
+        return row >= 0 && col >= 0 && row < grid.length && col < grid.length;
+    }
+
+    private static int[][] emptyGrid(int side) {
+        int[][] grid = new int[side][side];
+
+        for (int[] row : grid) {
+            Arrays.fill(row, BitBoard.EMPTY);
+        }
+
+        return grid;
+    }
+
+    private static int[] shuffledPoints(int points, Random random) {
+        int[] order = new int[points];
+
+        for (int i = 0; i < points; i++) {
+            order[i] = i;
+        }
+
+        for (int i = points - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swapped = order[i];
+            order[i] = order[j];
+            order[j] = swapped;
+        }
+
+        return order;
+    }
+}
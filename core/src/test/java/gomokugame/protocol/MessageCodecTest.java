@@ -0,0 +1,273 @@
+package gomokugame.protocol;
+
+import gomokugame.core.BitBoard;
+import gomokugame.core.BoardGeometry;
+import gomokugame.objects.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every message survives a round trip through every wire format, and whatever a peer sends instead,
+// decoding either returns a message or throws IOException. Nothing else may reach the connection that read the frame
+class MessageCodecTest {
+    private static final int RANDOM_PAYLOADS = 20000;
+
+    @Test
+    void everyMessageSurvivesRoundTrip() throws IOException {
+        for (WireFormat format : WireFormat.values()) {
+            for (Object message : messages()) {
+                byte[] frame = format.codec.encode(message);
+                assertEquals(frame.length - Frames.HEADER_SIZE, payloadSizeOf(frame), format + " frame header of " + describe(message));
+
+                assertSameMessage(message, format.codec.decode(payloadOf(frame)), format + " " + describe(message));
+            }
+        }
+    }
+
+    @Test
+    void truncatedBinaryPayloadsAreRejected() throws IOException {
+        for (Object message : messages()) {
+            byte[] payload = payloadOf(WireFormat.BINARY.codec.encode(message));
+
+            for (int length = 0; length < payload.length; length++) {
+                byte[] truncated = Arrays.copyOf(payload, length);
+                assertThrows(IOException.class, () -> WireFormat.BINARY.codec.decode(truncated), describe(message) + " cut to " + length + " bytes");
+            }
+        }
+    }
+
+    @Test
+    void truncatedSerializedPayloadsAreRejected() throws IOException {
+        for (Object message : messages()) {
+            byte[] payload = payloadOf(WireFormat.SERIALIZED.codec.encode(message));
+
+            // Every tenth length, the streams are long
+            for (int length = 0; length < payload.length; length += 10) {
+                byte[] truncated = Arrays.copyOf(payload, length);
+                assertThrows(IOException.class, () -> WireFormat.SERIALIZED.codec.decode(truncated), describe(message) + " cut to " + length + " bytes");
+            }
+        }
+    }
+
+    @Test
+    void corruptBinaryPayloadsAreRejected() {
+        byte[][] payloads = {
+                {}, // Empty payload
+                {0x3F}, // Unknown opcode
+                {0x07, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}, // Room list with a negative count
+                {0x07, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}, // Room list with a count far beyond the payload
+                withCount(0x0E, 17, -1), // Delta with a negative added count
+                withCount(0x0E, 21, -1), // Delta with a negative updated count
+                withCount(0x0E, 25, -1), // Delta with a negative removed count
+                withCount(0x0E, 25, Integer.MAX_VALUE), // Delta that removes more rooms than the payload holds
+                {0x06, 0, 0, 0, 1, 1, 0x7F, (byte) 0xFF}, // Room whose name runs past the payload
+                {0x11, 0, 0, 0, 1, 0x11, 0, 0, 0, 2, 0x45}, // Nested request
+                {0x12, 0, 0, 0, 1}, // Response without a body
+                {0x08, 30, 0, 0, 0, 0, 0, 0} // Board without its tiles
+        };
+
+        for (byte[] payload : payloads) {
+            assertThrows(IOException.class, () -> WireFormat.BINARY.codec.decode(payload), Arrays.toString(payload));
+        }
+    }
+
+    @Test
+    void randomPayloadsNeverEscapeAsRuntimeExceptions() {
+        Random random = new Random(11);
+
+        for (WireFormat format : WireFormat.values()) {
+            for (int i = 0; i < RANDOM_PAYLOADS; i++) {
+                byte[] payload = new byte[random.nextInt(64)];
+                random.nextBytes(payload);
+
+                // Valid opcodes first, so most payloads get past the first byte
+                if (payload.length > 0 && format == WireFormat.BINARY) {
+                    payload[0] = (byte) random.nextInt(0x16);
+                }
+
+                try {
+                    format.codec.decode(payload);
+                } catch (IOException e) {
+                    // Rejected, as it should be
+                } catch (RuntimeException e) {
+                    fail(format + " let " + e + " escape for " + Arrays.toString(payload));
+                }
+            }
+        }
+    }
+
+    @Test
+    void serializedClassesOutsideTheMessagesAreRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new Date());
+        }
+
+        assertThrows(IOException.class, () -> WireFormat.SERIALIZED.codec.decode(bytes.toByteArray()));
+    }
+
+    @Test
+    void oversizedFramesAreRejected() {
+        assertThrows(IOException.class, () -> Frames.checkPayloadSize(-1));
+        assertThrows(IOException.class, () -> Frames.checkPayloadSize(Frames.MAX_PAYLOAD_SIZE + 1));
+        assertDoesNotThrow(() -> Frames.checkPayloadSize(Frames.MAX_PAYLOAD_SIZE));
+    }
+
+    // One of each message the game sends, with every field set
+    private static List<Object> messages() {
+        List<Object> messages = new ArrayList<>();
+
+        messages.add("GET_ROOM_LIST");
+        messages.add("A command without an opcode");
+        messages.add(new Move(3, 17));
+        messages.add(placedMove("BLACK", 1));
+        messages.add(placedMove("WHITE", 900));
+        messages.add(new MoveRequest(30000, 1_000_000_000L));
+        messages.add(42);
+        messages.add(room(257));
+        messages.add(new ArrayList<>(List.of(room(1), room(513))));
+
+        RoomListDelta delta = new RoomListDelta();
+        delta.isSnapshot = true;
+        delta.fromVersion = 4;
+        delta.toVersion = 9;
+        delta.addedRooms.add(room(258));
+        delta.updatedRooms.add(room(514));
+        delta.removedRoomIds.add(770);
+        messages.add(delta);
+
+        messages.add(new NodeRedirect("localhost", 9091, 258));
+
+        SessionTicket ticket = new SessionTicket("token", "localhost:9095");
+        ticket.isResumeRequest = true;
+        ticket.matchNumber = 3;
+        ticket.lastMoveSequence = 41;
+        messages.add(ticket);
+        messages.add(new SessionTicket("token", null));
+
+        for (int size : new int[]{BoardGeometry.MIN_SIZE, 20, BoardGeometry.MAX_SIZE}) {
+            messages.add(board(size));
+        }
+
+        MatchEndResult result = new MatchEndResult();
+        result.winner = true;
+        result.colorThatWon = "WHITE";
+        messages.add(result);
+
+        MatchEndResult draw = new MatchEndResult();
+        draw.isDraw = true;
+        draw.spectator = true;
+        messages.add(draw);
+
+        messages.add(new BoardSizeOption(15));
+        messages.add(new TimerOption(60000));
+        messages.add(new InvisibleModeOption(3));
+        messages.add(new MatchStart("BLACK", board(20), 30000, 2));
+        messages.add(new MatchStart("SPECTATOR", board(20), 0, -1));
+        messages.add(new Heartbeat(123_456_789L, 1500, true));
+        messages.add(new Request(7, placedMove("BLACK", 5)));
+        messages.add(new Response(7, "VALID_MOVE"));
+        messages.add(new Response(8, null));
+
+        return messages;
+    }
+
+    private static Move placedMove(String color, int sequence) {
+        Move move = new Move(9, 0);
+        move.moveMaker = color;
+        move.sequence = sequence;
+
+        return move;
+    }
+
+    private static SerializedRoom room(int roomId) {
+        SerializedRoom room = new SerializedRoom("Room " + roomId);
+        room.roomId = roomId;
+        room.roomCreatorId = "0000000001";
+        room.timerPerTurnInMilliseconds = 30000;
+        room.invisibleModeRevealChances = 2;
+        room.boardSize = 20;
+        room.connectedPlayersAmount = 1;
+        room.asSpectator = true;
+        room.nodeAddress = "localhost:9090";
+
+        return room;
+    }
+
+    // A board with a few stones of each color, built the way rooms build it
+    private static Board board(int size) {
+        BitBoard board = new BitBoard(BoardGeometry.of(size));
+
+        for (int i = 0; i < 10; i++) {
+            board.place(i * 7 % board.geometry.points, i % 2);
+        }
+
+        return board.toBoard(5);
+    }
+
+    // Delta payload with its header set and the count at the specified offset, everything after it missing
+    private static byte[] withCount(int opcode, int offset, int count) {
+        byte[] payload = new byte[offset + 4];
+        payload[0] = (byte) opcode;
+        payload[offset] = (byte) (count >>> 24);
+        payload[offset + 1] = (byte) (count >>> 16);
+        payload[offset + 2] = (byte) (count >>> 8);
+        payload[offset + 3] = (byte) count;
+
+        return payload;
+    }
+
+    private static int payloadSizeOf(byte[] frame) {
+        return ((frame[0] & 0xFF) << 24) | ((frame[1] & 0xFF) << 16) | ((frame[2] & 0xFF) << 8) | (frame[3] & 0xFF);
+    }
+
+    private static byte[] payloadOf(byte[] frame) {
+        return Arrays.copyOfRange(frame, Frames.HEADER_SIZE, frame.length);
+    }
+
+    private static String describe(Object message) {
+        return message.getClass().getSimpleName();
+    }
+
+    // Compares the public fields of both messages, down to the tiles of a board and the rooms of a list
+    private static void assertSameMessage(Object expected, Object actual, String message) {
+        if (expected == null || actual == null || expected instanceof String || expected instanceof Number || expected instanceof Boolean) {
+            assertEquals(expected, actual, message);
+            return;
+        }
+
+        assertEquals(expected.getClass(), actual.getClass(), message);
+
+        if (expected instanceof Object[] expectedArray) {
+            Object[] actualArray = (Object[]) actual;
+            assertEquals(expectedArray.length, actualArray.length, message);
+
+            for (int i = 0; i < expectedArray.length; i++) {
+                assertSameMessage(expectedArray[i], actualArray[i], message + "[" + i + "]");
+            }
+        }
+        else if (expected instanceof List<?> expectedList) {
+            assertSameMessage(expectedList.toArray(), ((List<?>) actual).toArray(), message);
+        }
+        else {
+            for (Field field : expected.getClass().getFields()) {
+                try {
+                    assertSameMessage(field.get(expected), field.get(actual), message + "." + field.getName());
+                } catch (IllegalAccessException e) {
+                    fail(e);
+                }
+            }
+        }
+    }
+}
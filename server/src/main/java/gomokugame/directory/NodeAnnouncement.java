@@ -0,0 +1,38 @@
+package gomokugame.directory;
+
+import gomokugame.protocol.Frames;
+
+import java.io.*;
+
+// The first message a server node sends to the room directory.
+// Fixed layout, like RoomEvent: node id (int), then the address (UTF)
+public class NodeAnnouncement {
+    public int nodeId; // Also the lowest bits of every room id created on that node
+    public String address; // host:port clients connect to
+
+    public NodeAnnouncement(int nodeId, String address) {
+        this.nodeId = nodeId;
+        this.address = address;
+    }
+
+    public byte[] toFrame() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(this.nodeId);
+        out.writeUTF(this.address);
+
+        return Frames.frame(bytes.toByteArray());
+    }
+
+    public static NodeAnnouncement fromPayload(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int nodeId = in.readInt();
+        String address = in.readUTF();
+
+        if (nodeId < 0 || in.available() > 0) {
+            throw new IOException("Malformed node announcement.");
+        }
+
+        return new NodeAnnouncement(nodeId, address);
+    }
+}
@@ -0,0 +1,235 @@
+package gomokugame.directory;
+
+import gomokugame.objects.RoomListDelta;
+import gomokugame.objects.SerializedRoom;
+import gomokugame.protocol.BinaryCodec;
+import gomokugame.protocol.Frames;
+import gomokugame.protocol.MessageCodec;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Local stand-in for a room directory service. Server nodes connect to it, announce themselves and report every
+// change of their own rooms. The directory forwards those changes to all other nodes, so every node can list
+// every room and knows which node a room lives on. Run it as its own process before starting the nodes.
+public class RoomDirectory implements Runnable {
+    public static final int DEFAULT_PORT = 9080;
+    private static final int MAX_QUEUED_FRAMES = 10000; // A node that falls this far behind is dropped and resyncs when it reconnects
+    private final MessageCodec codec = new BinaryCodec(); // Deltas in the clients' wire format, never Java serialization
+    private final ExecutorService threadPool = Executors.newCachedThreadPool();
+    private final HashMap<Integer, NodeSession> nodes = new HashMap<>(); // Connected nodes by node id, guarded by this
+    private ServerSocket server;
+    private final int port;
+
+    // One connected server node and the rooms it reported. Frames for it are written by a thread of its own, so a
+    // slow or stalled node never holds up the directory lock or the other nodes
+    private class NodeSession {
+        private final Socket socket;
+        private final DataOutputStream out;
+        private final LinkedBlockingQueue<byte[]> outgoing = new LinkedBlockingQueue<>();
+        private final LinkedHashMap<Integer, SerializedRoom> rooms = new LinkedHashMap<>();
+        private NodeAnnouncement announcement;
+
+        private NodeSession(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        // Queues an encoded delta. Called while holding the directory lock, so it never touches the socket
+        private void send(byte[] frame) {
+            if (this.outgoing.size() >= MAX_QUEUED_FRAMES) {
+                System.err.println("Node " + this.announcement.nodeId + " has " + this.outgoing.size() + " unsent room changes. Disconnecting it.");
+                RoomDirectory.this.closeQuietly(this.socket);
+                return;
+            }
+
+            this.outgoing.add(frame);
+        }
+
+        private void writeOutgoing() {
+            try {
+                while (!this.socket.isClosed()) {
+                    byte[] frame = this.outgoing.poll(1, TimeUnit.SECONDS);
+
+                    if (frame != null) {
+                        Frames.write(this.out, frame);
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                System.err.println("Failed to send room changes to node " + this.announcement.nodeId + ".");
+                RoomDirectory.this.closeQuietly(this.socket); // Makes the reading side remove the node
+            }
+        }
+    }
+
+    public RoomDirectory(int port) {
+        this.port = port;
+
+        try {
+            this.server = new ServerSocket(port);
+        } catch (IOException e) {
+            this.server = null;
+            System.err.println("Room directory could not start on port " + port + ".");
+        }
+    }
+
+    @Override
+    public void run() {
+        if (this.server == null) {
+            return;
+        }
+
+        System.out.println("Room directory started on port " + this.port + ". Waiting for server nodes...");
+
+        while (!this.server.isClosed()) {
+            try {
+                Socket node = this.server.accept();
+                this.threadPool.execute(() -> this.handleNode(node));
+            } catch (IOException e) {
+                System.err.println("Room directory failed to accept a node.");
+            }
+        }
+    }
+
+    private void handleNode(Socket socket) {
+        NodeSession session = null;
+
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            session = new NodeSession(socket);
+
+            NodeAnnouncement announcement = NodeAnnouncement.fromPayload(Frames.readPayload(in));
+            session.announcement = announcement;
+
+            synchronized (this) {
+                if (this.nodes.containsKey(announcement.nodeId)) {
+                    System.err.println("Node id " + announcement.nodeId + " is already taken. Rejecting " + announcement.address + ".");
+                    session = null;
+                    return;
+                }
+
+                this.nodes.put(announcement.nodeId, session);
+                NodeSession joined = session;
+                this.threadPool.execute(joined::writeOutgoing);
+
+                // Every room the new node does not know about yet
+                RoomListDelta others = new RoomListDelta();
+                for (NodeSession other : this.nodes.values()) {
+                    if (other != session) {
+                        others.addedRooms.addAll(other.rooms.values());
+                    }
+                }
+                session.send(this.codec.encode(others));
+            }
+
+            System.out.println("Node " + announcement.nodeId + " joined at " + announcement.address + ".");
+
+            while (!socket.isClosed()) {
+                if (this.codec.decode(Frames.readPayload(in)) instanceof RoomListDelta delta) {
+                    this.applyNodeDelta(session, delta);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The node went away, or sent something that is not a room change
+        } finally {
+            if (session != null && session.announcement != null) {
+                this.removeNode(session);
+            }
+
+            this.closeQuietly(socket);
+        }
+    }
+
+    // Records a node's room changes and forwards them to every other node
+    private synchronized void applyNodeDelta(NodeSession session, RoomListDelta delta) {
+        RoomListDelta forwarded = new RoomListDelta();
+
+        if (delta.isSnapshot) {
+            // A snapshot replaces everything the node reported before
+            for (int roomId : session.rooms.keySet()) {
+                if (delta.addedRooms.stream().noneMatch(room -> room.roomId == roomId)) {
+                    forwarded.removedRoomIds.add(roomId);
+                }
+            }
+
+            session.rooms.clear();
+        }
+
+        ArrayList<SerializedRoom> changedRooms = new ArrayList<>(delta.addedRooms);
+        changedRooms.addAll(delta.updatedRooms);
+
+        for (SerializedRoom room : changedRooms) {
+            if (session.rooms.put(room.roomId, room) == null) {
+                forwarded.addedRooms.add(room);
+            }
+            else {
+                forwarded.updatedRooms.add(room);
+            }
+        }
+        for (int roomId : delta.removedRoomIds) {
+            if (session.rooms.remove(roomId) != null) {
+                forwarded.removedRoomIds.add(roomId);
+            }
+        }
+
+        this.forward(session, forwarded);
+    }
+
+    private synchronized void removeNode(NodeSession session) {
+        if (this.nodes.get(session.announcement.nodeId) != session) {
+            return;
+        }
+
+        this.nodes.remove(session.announcement.nodeId);
+
+        RoomListDelta gone = new RoomListDelta();
+        gone.removedRoomIds.addAll(session.rooms.keySet());
+        this.forward(session, gone);
+
+        System.out.println("Node " + session.announcement.nodeId + " left. " + gone.removedRoomIds.size() + " room(s) removed.");
+    }
+
+    // Encodes the delta once and queues it for every other node. Called while holding the directory lock
+    private void forward(NodeSession from, RoomListDelta delta) {
+        if (delta.addedRooms.isEmpty() && delta.updatedRooms.isEmpty() && delta.removedRoomIds.isEmpty()) {
+            return;
+        }
+
+        byte[] frame;
+
+        try {
+            frame = this.codec.encode(delta);
+        } catch (IOException e) {
+            System.err.println("Failed to encode room changes of node " + from.announcement.nodeId + ".");
+            return;
+        }
+
+        for (NodeSession node : this.nodes.values()) {
+            if (node != from) {
+                node.send(frame);
+            }
+        }
+    }
+
+    private void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    // Usage: RoomDirectory [port]
+    public static void main(String[] args) {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        new RoomDirectory(port).run();
+    }
+}
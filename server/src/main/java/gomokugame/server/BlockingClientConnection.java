@@ -0,0 +1,98 @@
+package gomokugame.server;
+
+import gomokugame.protocol.Frames;
+
+import java.io.*;
+import java.net.Socket;
+
+// A ClientConnection that parks one thread in a blocking read for the whole lifetime of the socket
+public class BlockingClientConnection extends ClientConnection implements Runnable {
+    private final Socket clientSocket;
+    private DataOutputStream out;
+    private DataInputStream in;
+
+    public BlockingClientConnection(Socket client, Server hostServer) {
+        super(hostServer);
+        this.clientSocket = client;
+    }
+
+    @Override
+    public void run() {
+        try {
+            // Variables setup
+            this.out = new DataOutputStream(new BufferedOutputStream(this.clientSocket.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(this.clientSocket.getInputStream()));
+            this.onConnected();
+
+            // Listens to client instance message on the thread the server handed to this connection
+            this.listenToClientMessage();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to initialize Client " + this.id + ".");
+            this.close();
+        }
+    }
+
+    // Listens for client instance request (inputs)
+    private void listenToClientMessage() {
+        while (true) {
+            try {
+                this.receiveFrame(Frames.readPayload(this.in));
+            } catch (IOException | RuntimeException e) {
+                // Closing also frees the client's registry entry and admission slot
+                System.err.println("Failed to read object from Client " + this.id + ".");
+                this.close();
+                break;
+            }
+        }
+    }
+
+    @Override
+    protected boolean isOpen() {
+        return !this.clientSocket.isClosed();
+    }
+
+    @Override
+    protected void closeTransport() throws IOException {
+        this.clientSocket.close();
+    }
+
+    @Override
+    protected void scheduleFlush() {
+        this.hostServer.threadPool.execute(this::flushOutbound);
+    }
+
+    @Override
+    protected void refuse(byte[] reply) throws IOException {
+        this.out.write(reply);
+        this.out.flush();
+        this.clientSocket.shutdownOutput();
+    }
+
+    // The single writer: writes every queued frame into the buffered stream, then flushes the whole batch at once
+    private void flushOutbound() {
+        try {
+            do {
+                OutboundQueue.OutboundFrame frame;
+                int frameCount = 0;
+                long oldestEnqueuedAt = 0;
+
+                while ((frame = this.outbound.poll()) != null) {
+                    if (frameCount == 0) {
+                        oldestEnqueuedAt = frame.enqueuedAt();
+                    }
+
+                    this.out.write(frame.bytes());
+                    frameCount++;
+                }
+
+                this.out.flush();
+                this.outbound.recordFlush(frameCount, oldestEnqueuedAt);
+            } while (this.outbound.finishFlush());
+        } catch (IOException e) {
+            System.err.println("Failed to write to Client " + this.id + ".");
+            this.outbound.clear();
+            this.outbound.finishFlush();
+            this.close();
+        }
+    }
+}
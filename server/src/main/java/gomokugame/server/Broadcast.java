@@ -0,0 +1,39 @@
+package gomokugame.server;
+
+import gomokugame.protocol.WireFormat;
+
+import java.io.IOException;
+
+// A message sent to many clients. It is encoded at most once per wire format, and every recipient
+// queues the very same frame bytes, which are never modified after encoding.
+public class Broadcast {
+    private final Object message;
+    private final MessagePriority priority;
+    private final byte[][] frames; // Indexed by WireFormat ordinal, filled on first use
+
+    public Broadcast(Object message) {
+        this.message = message;
+        this.priority = MessagePriority.of(message);
+        this.frames = new byte[WireFormat.values().length][];
+    }
+
+    public Object getMessage() {
+        return this.message;
+    }
+
+    public MessagePriority getPriority() {
+        return this.priority;
+    }
+
+    // Recipients may be served from several threads, the worst case is encoding the same frame twice
+    public byte[] frameFor(WireFormat format) throws IOException {
+        byte[] frame = this.frames[format.ordinal()];
+
+        if (frame == null) {
+            frame = format.codec.encode(this.message);
+            this.frames[format.ordinal()] = frame;
+        }
+
+        return frame;
+    }
+}
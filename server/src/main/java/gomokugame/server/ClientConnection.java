@@ -0,0 +1,763 @@
+package gomokugame.server;
+
+import gomokugame.core.BoardGeometry;
+import gomokugame.objects.*;
+import gomokugame.protocol.Handshake;
+import gomokugame.protocol.WireFormat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Room and lobby logic of a single connected client. Subclasses decide how frames travel over the network
+public abstract class ClientConnection {
+    protected volatile Room connectedRoom; // Also read by the thread routing this client's messages
+    protected Server hostServer;
+    protected String id;
+    protected String sessionToken; // Secret that lets the client take its seat back after a disconnect, here or on the hot standby
+    protected volatile boolean detached = false; // Lost its transport but keeps its seat until the session expires or is resumed
+    private TimingWheel.Timeout sessionExpiry;
+    protected WireFormat wireFormat; // Picked during the handshake
+    protected InetAddress remoteAddress; // Set when the connection is admitted
+    protected volatile long lastReceivedNanos = System.nanoTime(); // Any frame counts, heartbeat replies included
+    private volatile int roundTripMicros = -1; // Smoothed over the heartbeat replies, -1 until the first one
+    private final TokenBucket[] rateLimits; // By MessageClass ordinal, null where the class has no limit. Only touched by the reading thread
+    private int rateLimitedInARow = 0;
+    protected final OutboundQueue outbound; // Everything sent to the client goes through here
+    // Received messages wait here until the shard of the client's room handles them, strictly in arrival order
+    private final ConcurrentLinkedQueue<Object> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private int pendingRequestId = 0; // Request being handled, 0 while handling a plain message. Only touched by the drain
+    private static final Object DISCONNECTED = new Object(); // Queued once the transport is gone, so leaving the room also runs on its shard
+    private static final Object SESSION_EXPIRED = new Object(); // Queued once the grace period of a detached client is over
+    private static final SecureRandom TOKENS = new SecureRandom();
+    private static final Broadcast RATE_LIMITED = new Broadcast("RATE_LIMITED"); // Encoded once for every client over its limit
+    private static final int MAX_RATE_LIMITED_IN_A_ROW = 100; // A client that does not slow down after this many rejections is dropped
+
+    public ClientConnection(Server hostServer) {
+        this.hostServer = hostServer;
+        this.id = hostServer.registry.nextConnectionId();
+        this.sessionToken = newSessionToken();
+        this.outbound = new OutboundQueue(hostServer.config.maxOutboundFrames, this::scheduleFlush);
+        this.rateLimits = new TokenBucket[MessageClass.values().length];
+        this.rateLimits[MessageClass.GAME.ordinal()] = newRateLimit(hostServer.config.gameMessagesPerSecond);
+        this.rateLimits[MessageClass.LOBBY.ordinal()] = newRateLimit(hostServer.config.lobbyMessagesPerSecond);
+    }
+
+    // Called by the transport once the connection is able to send and receive messages
+    protected void onConnected() {
+        System.out.println("Client " + this.id + " connected.");
+    }
+
+    // Closes the ClientConnection
+    protected void close() {
+        // Only the first caller gets past the registry, so a connection is never cleaned up twice
+        if (this.hostServer.registry.removeConnection(this)) {
+            this.hostServer.releaseClient(this);
+
+            try {
+                this.dispatch(DISCONNECTED);
+                this.closeTransport();
+
+                System.out.println("Client " + this.id + " disconnected.");
+            } catch (IOException e) {
+                System.err.println("Failed to close Client " + this.id + ".");
+            }
+        }
+    }
+
+    /// TRANSPORT METHODS
+    protected abstract boolean isOpen();
+
+    protected abstract void closeTransport() throws IOException;
+
+    // Starts the single writer of the outbound queue. Called whenever frames are queued into an idle queue
+    protected abstract void scheduleFlush();
+
+    // Writes a last reply straight to the socket and ends the output, bypassing the outbound queue. Only for the
+    // handshake, when nothing was queued yet and the reply fits into any socket buffer, so this never waits
+    protected abstract void refuse(byte[] reply) throws IOException;
+
+    // True once the transport has finished setting up and the wire format is negotiated
+    protected boolean isReady() {
+        return this.id != null && this.wireFormat != null && this.isOpen();
+    }
+
+    // Queues a message for the client. Never blocks on the socket
+    protected void send(Object message) throws IOException {
+        this.enqueueFrame(this.wireFormat.codec.encode(message), MessagePriority.of(message));
+    }
+
+    // Queues a message shared with other clients without encoding it again
+    protected void send(Broadcast broadcast) throws IOException {
+        this.enqueueFrame(broadcast.frameFor(this.wireFormat), broadcast.getPriority());
+    }
+
+    protected void enqueueFrame(byte[] frame, MessagePriority priority) throws IOException {
+        if (this.detached) {
+            return; // Whatever the client missed is sent again when it resumes
+        }
+
+        if (!this.isOpen()) {
+            throw new IOException("Client " + this.id + " is closed.");
+        }
+
+        if (!this.outbound.offer(frame, priority)) {
+            // The client does not read fast enough. Drop it rather than buffering without limit
+            System.err.println("Client " + this.id + " has " + this.outbound.getDepth() + " unsent messages. Disconnecting it.");
+            this.hostServer.threadPool.execute(this::close);
+
+            throw new IOException("Outbound queue of Client " + this.id + " is full.");
+        }
+    }
+
+    // Called by the transport for every complete frame received from the client
+    protected void receiveFrame(byte[] payload) throws IOException {
+        this.lastReceivedNanos = System.nanoTime();
+
+        if (this.wireFormat == null) {
+            // Nothing is decoded before the handshake picked a format both sides speak
+            if (!Handshake.isHello(payload)) {
+                throw new IOException("Client " + this.id + " did not start with a hello.");
+            }
+
+            if (Handshake.versionOf(payload) != Handshake.VERSION) {
+                this.refuse(Handshake.versionMismatch());
+                throw new IOException("Client " + this.id + " speaks protocol version " + Handshake.versionOf(payload) + ", not " + Handshake.VERSION + ".");
+            }
+
+            WireFormat format = this.hostServer.config.allowSerializedClients
+                    ? Handshake.chooseFormat(payload, WireFormat.BINARY, WireFormat.SERIALIZED)
+                    : Handshake.chooseFormat(payload, WireFormat.BINARY);
+
+            if (format == null) {
+                throw new IOException("Client " + this.id + " speaks none of the server's wire formats.");
+            }
+
+            this.enqueueFrame(Handshake.serverHello(format), MessagePriority.HIGH);
+            this.wireFormat = format;
+            System.out.println("Client " + this.id + " speaks the " + format + " wire format.");
+            this.sendSessionTicket();
+
+            return;
+        }
+
+        Object message = this.wireFormat.codec.decode(payload);
+
+        if (message instanceof Heartbeat heartbeat) {
+            if (heartbeat.isReply) {
+                this.recordRoundTrip(Server.clockMicros() - heartbeat.serverTimeMicros);
+            }
+        }
+        else if (!this.isRateLimited(message)) {
+            this.dispatch(message);
+        }
+    }
+
+    // Takes a token of the message's class. A message over the limit is answered right here on the reading thread,
+    // with the same pre-encoded RATE_LIMITED for everyone (or in a response to a request), and never reaches the room
+    private boolean isRateLimited(Object message) throws IOException {
+        TokenBucket bucket = this.rateLimits[MessageClass.of(message).ordinal()];
+
+        if (bucket == null || bucket.tryTake()) {
+            this.rateLimitedInARow = 0;
+            return false;
+        }
+
+        this.hostServer.rateLimitedMessages.increment();
+
+        if (++this.rateLimitedInARow > MAX_RATE_LIMITED_IN_A_ROW) {
+            // Whatever it still has in flight is dropped unanswered until the connection is closed
+            if (this.rateLimitedInARow == MAX_RATE_LIMITED_IN_A_ROW + 1) {
+                System.err.println("Client " + this.id + " keeps sending over its rate limit. Disconnecting it.");
+                this.hostServer.threadPool.execute(this::close);
+            }
+
+            return true;
+        }
+
+        if (message instanceof Request request) {
+            this.send(new Response(request.requestId, "RATE_LIMITED"));
+        }
+        else {
+            this.send(RATE_LIMITED);
+        }
+
+        return true;
+    }
+
+    // Bursts of up to two seconds worth of messages pass
+    private static TokenBucket newRateLimit(int messagesPerSecond) {
+        return (messagesPerSecond == 0) ? null : new TokenBucket(messagesPerSecond, 2 * messagesPerSecond);
+    }
+
+    // Pings the client with the server's clock. The reply gives the round trip
+    protected void sendHeartbeat() {
+        try {
+            this.send(new Heartbeat(Server.clockMicros(), this.roundTripMicros, false));
+        } catch (IOException e) {
+            System.err.println("Failed to send heartbeat to Client " + this.id + ".");
+        }
+    }
+
+    // Smoothed round trip to the client in microseconds, -1 until it answered a heartbeat
+    protected int getRoundTripMicros() {
+        return this.roundTripMicros;
+    }
+
+    // Only called by the reading thread. Recent samples weigh 1/8, like TCP's smoothed round trip
+    private void recordRoundTrip(long sampleMicros) {
+        int sample = (int) Math.max(0, Math.min(Integer.MAX_VALUE, sampleMicros));
+        this.roundTripMicros = (this.roundTripMicros < 0) ? sample : (7 * this.roundTripMicros + sample) / 8;
+    }
+
+    // Tells the client its session token and where to resume it if this server dies
+    protected void sendSessionTicket() {
+        ReplicationLog replication = this.hostServer.replication;
+
+        try {
+            this.send(new SessionTicket(this.sessionToken, (replication == null) ? null : replication.getStandbyAddress()));
+        } catch (IOException e) {
+            System.err.println("Failed to send session ticket to Client " + this.id + ".");
+        }
+    }
+
+    private static String newSessionToken() {
+        byte[] token = new byte[16];
+        TOKENS.nextBytes(token);
+
+        return HexFormat.of().formatHex(token);
+    }
+
+    /// MESSAGE ROUTING
+    // Hands a received message over to whichever thread has to handle it. Never blocks
+    protected void dispatch(Object message) {
+        this.inbox.add(message);
+
+        if (this.draining.compareAndSet(false, true)) {
+            this.drainInbox(null);
+        }
+    }
+
+    // The shard that has to handle the message: the one of the client's room, or of the room it is about to join
+    // or create. Null for lobby messages, which may run on any thread
+    private RoomShard shardFor(Object message) {
+        if (message instanceof Request request) {
+            return this.shardFor(request.body);
+        }
+
+        Room room = this.connectedRoom;
+
+        if (room != null) {
+            return room.shard;
+        }
+
+        if (message instanceof SerializedRoom receivedRoom) {
+            return receivedRoom.isCreateRequest ? this.hostServer.shards[this.hostServer.shardIndexFor(this)] : this.hostServer.shardFor(receivedRoom.roomId);
+        }
+
+        if (message instanceof SessionTicket ticket && ticket.isResumeRequest) {
+            ClientConnection previous = this.hostServer.registry.getSession(ticket.token);
+            Room previousRoom = (previous == null) ? null : previous.connectedRoom;
+
+            return (previousRoom == null) ? null : previousRoom.shard;
+        }
+
+        return null;
+    }
+
+    // Only one drain runs at a time. Whenever the next message belongs to another shard, the drain moves over to it,
+    // so messages are never reordered even when the client switches rooms
+    private void drainInbox(RoomShard currentShard) {
+        do {
+            Object message;
+
+            while ((message = this.inbox.peek()) != null) {
+                RoomShard shard = this.shardFor(message);
+
+                if (shard != null && shard != currentShard) {
+                    shard.execute(() -> this.drainInbox(shard));
+                    return;
+                }
+
+                this.inbox.poll();
+
+                try {
+                    if (message == DISCONNECTED) {
+                        this.handleDisconnect();
+                    }
+                    else if (message == SESSION_EXPIRED) {
+                        this.handleSessionExpiry();
+                    }
+                    else {
+                        this.handleMessage(message);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to handle a message from Client " + this.id + ": " + e);
+                }
+            }
+
+            this.draining.set(false);
+        } while (!this.inbox.isEmpty() && this.draining.compareAndSet(false, true)); // A message may have arrived right before draining was cleared
+    }
+
+    /// METHODS
+    // Processes one message received from the client instance
+    protected void handleMessage(Object message) {
+        if (message instanceof Request request) {
+            this.pendingRequestId = request.requestId;
+
+            try {
+                this.handleMessage(request.body);
+
+                // Requests without an answer of their own are acknowledged once handled
+                if (this.pendingRequestId != 0) {
+                    this.reply(null);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to acknowledge request " + request.requestId + " of Client " + this.id + ".");
+            } finally {
+                this.pendingRequestId = 0;
+            }
+        }
+        else if (message instanceof String) {
+            System.out.println("Received " + message + " from Client " + this.id + ".");
+
+            switch ((String) message) {
+                case "GET_BOARD_REQUEST":
+                    try {
+                        this.replyShared(this.connectedRoom.getBoardSnapshot(this.wireFormat));
+                    } catch (IOException e) {
+                        System.err.println("Failed to send board object to client.");
+                    }
+
+                    break;
+                case "GET_COLOR_REQUEST":
+                    try {
+                        if (this.connectedRoom.white == this) {
+                            this.reply("WHITE");
+                        }
+                        else if (this.connectedRoom.black == this) {
+                            this.reply("BLACK");
+                        }
+                        else {
+                            this.reply("SPECTATOR");
+                        }
+                    } catch (IOException e) {
+                        System.err.println("Failed to send color to client.");
+                    }
+
+                    break;
+                case "GET_INVISIBLE_MODE_REVEAL_CHANCES":
+                    try {
+                        if (this == this.connectedRoom.white) {
+                            this.reply(this.connectedRoom.whiteInvisibleModeRevealChances);
+                        }
+                        else if (this == this.connectedRoom.black) {
+                            this.reply(this.connectedRoom.blackInvisibleModeRevealChances);
+                        }
+                        else {
+                            this.reply(-1);
+                        }
+                    } catch (IOException e) {
+                        System.err.println("Failed to send invisible mode turns to client.");
+                    }
+
+                    break;
+                case "UPDATE_INVISIBLE_MODE_REVEAL_CHANCES":
+                    try {
+                        if (this == this.connectedRoom.white) {
+                            this.connectedRoom.whiteInvisibleModeRevealChances--;
+                            this.connectedRoom.replicate(RoomEvent.revealChances("WHITE", this.connectedRoom.whiteInvisibleModeRevealChances));
+                            this.reply(this.connectedRoom.whiteInvisibleModeRevealChances);
+                        }
+                        else if (this == this.connectedRoom.black) {
+                            this.connectedRoom.blackInvisibleModeRevealChances--;
+                            this.connectedRoom.replicate(RoomEvent.revealChances("BLACK", this.connectedRoom.blackInvisibleModeRevealChances));
+                            this.reply(this.connectedRoom.blackInvisibleModeRevealChances);
+                        }
+                    } catch (IOException e) {
+                        System.err.println("Failed to send invisible mode turns to client after updating.");
+                    }
+
+                    break;
+                case "INVALID_MOVE_PENALTY":
+                    this.connectedRoom.giveUpTurn(this);
+
+                    break;
+                case "GET_ROOM_LIST":
+                    try {
+                        this.hostServer.lobby.sendSnapshot(this);
+                    } catch (IOException e) {
+                        System.err.println("Failed to send room list to client.");
+                    }
+
+                    break;
+                case "LEAVE_ROOM_REQUEST":
+                    this.handleLeaveRoomRequest();
+                    break;
+                case "START_MATCH_REQUEST":
+                    // If no match is in progress and connected client is now 2 --> start the match
+                    if (this.connectedRoom.roomCreator == this) {
+                        if (!this.connectedRoom.matchInProgress && this.connectedRoom.connectedClients.size() >= 2) {
+                            this.hostServer.lobby.roomChanged(this.connectedRoom);
+                            this.connectedRoom.startMatch(); // Starts the match in a different thread
+                        }
+                        else {
+                            try {
+                                this.reply("NOT_ENOUGH_PLAYERS_TO_START");
+                            } catch (IOException e) {
+                                System.err.println("Failed to send NOT_ENOUGH_PLAYERS_TO_START to client.");
+                            }
+                        }
+                    }
+                    else {
+                        System.err.println("Client " + this.id + " tried to start a room without being a room creator.");
+                    }
+
+                    break;
+                case "REMATCH_REQUEST":
+                    if (this.connectedRoom.white == this) {
+                        this.connectedRoom.whiteRequestedRematch = true;
+
+                        if (this.connectedRoom.black != null) {
+                            try {
+                                this.connectedRoom.black.send("REQUEST_REMATCH");
+                            } catch (IOException e) {
+                                System.err.println("Failed to send REQUEST_REMATCH to client.");
+                            }
+                        }
+                        else {
+                            try {
+                                this.send("REMATCH_IMPOSSIBLE");
+                            } catch (IOException e) {
+                                System.err.println("Failed to send REMATCH_IMPOSSIBLE to client.");
+                            }
+                        }
+                    }
+                    else if (this.connectedRoom.black == this) {
+                        this.connectedRoom.blackRequestedRematch = true;
+
+                        if (this.connectedRoom.white != null) {
+                            try {
+                                this.connectedRoom.white.send("REQUEST_REMATCH");
+                            } catch (IOException e) {
+                                System.err.println("Failed to send REQUEST_REMATCH to client.");
+                            }
+                        }
+                        else {
+                            try {
+                                this.send("REMATCH_IMPOSSIBLE");
+                            } catch (IOException e) {
+                                System.err.println("Failed to send REMATCH_IMPOSSIBLE to client.");
+                            }
+                        }
+                    }
+
+                    this.connectedRoom.checkForRematchRequest();
+
+                    break;
+                case "FINISHED_INITIALIZING":
+                    this.connectedRoom.clientInitialized(this);
+
+                    break;
+                case "EXIT_MATCH":
+                    if (this.connectedRoom.white == this) {
+                        this.connectedRoom.white = null;
+                        this.connectedRoom.replicate(RoomEvent.ofColor(RoomEvent.Type.SEAT_RELEASED, "WHITE"));
+
+                        if (this.connectedRoom.black != null) {
+                            try {
+                                this.connectedRoom.black.send("REMATCH_IMPOSSIBLE");
+                            } catch (IOException e) {
+                                System.err.println("Failed to send REMATCH_IMPOSSIBLE to client.");
+                            }
+                        }
+                    }
+                    else if (this.connectedRoom.black == this) {
+                        this.connectedRoom.black = null;
+                        this.connectedRoom.replicate(RoomEvent.ofColor(RoomEvent.Type.SEAT_RELEASED, "BLACK"));
+
+                        if (this.connectedRoom.white != null) {
+                            try {
+                                this.connectedRoom.white.send("REMATCH_IMPOSSIBLE");
+                            } catch (IOException e) {
+                                System.err.println("Failed to send REMATCH_IMPOSSIBLE to client.");
+                            }
+                        }
+                    }
+            }
+        }
+        else if (message instanceof Move moveMade) {
+            System.out.println("Received move from Client " + this.id + ".");
+
+            if (this.connectedRoom != null) {
+                this.connectedRoom.handleMove(this, moveMade);
+            }
+        }
+        else if (message instanceof SerializedRoom receivedRoom) {
+            System.out.println("Received serializable room from client " + this.id + ".");
+
+            if (this.connectedRoom == null) {
+                if (receivedRoom.isCreateRequest) {
+                    System.out.println("Creating room on server...");
+
+                    Room room = this.hostServer.registry.createRoom(receivedRoom.roomName, this, this.hostServer.shardIndexFor(this), this.hostServer.shards.length);
+                    this.connectedRoom = room;
+
+                    RoomEvent opened = RoomEvent.ofClient(RoomEvent.Type.ROOM_OPENED, this);
+                    opened.roomName = room.roomName;
+                    room.replicate(opened);
+
+                    updateAllClientRoomSettings();
+                }
+                else {
+                    System.out.println("Joining room on server...");
+
+                    Room r = this.hostServer.registry.getRoom(receivedRoom.roomId);
+
+                    if (r != null) {
+                        r.addClient(this);
+                        r.replicate(RoomEvent.ofClient(RoomEvent.Type.CLIENT_JOINED, this));
+                        this.connectedRoom = r;
+
+                        updateAllClientRoomSettings();
+
+                        // If match is in progress --> immediately send start request as a spectator
+                        if (r.matchInProgress) {
+                            r.startSpectate(this);
+                        }
+                    }
+                    else {
+                        this.redirectToRoomNode(receivedRoom.roomId);
+                    }
+                }
+            }
+            else {
+                System.out.println("Client " + this.id + " is already in a room. Cannot join/create.");
+
+                try {
+                    this.reply("ALREADY_IN_ROOM");
+                } catch (IOException e) {
+                    System.err.println("Failed to send ALREADY_IN_ROOM to client.");
+                }
+            }
+        }
+        else if (message instanceof BoardSizeOption boardSizeOption) {
+            if (this.connectedRoom.roomCreator == this && BoardGeometry.supports(boardSizeOption.boardSize)) {
+                this.connectedRoom.boardSize = boardSizeOption.boardSize;
+                this.connectedRoom.replicate(RoomEvent.settingsOf(this.connectedRoom));
+            }
+
+            this.updateAllClientRoomSettings();
+        }
+        else if (message instanceof TimerOption timerOption) {
+            if (this.connectedRoom.roomCreator == this) {
+                this.connectedRoom.timerPerTurnInMilliseconds = timerOption.timerPerTurnInMilliseconds;
+                this.connectedRoom.replicate(RoomEvent.settingsOf(this.connectedRoom));
+            }
+
+            this.updateAllClientRoomSettings();
+        }
+        else if (message instanceof InvisibleModeOption invisibleModeOption) {
+            if (this.connectedRoom.roomCreator == this) {
+                this.connectedRoom.invisibleModeRevealChances = invisibleModeOption.invisibleModeRevealChances;
+                this.connectedRoom.replicate(RoomEvent.settingsOf(this.connectedRoom));
+            }
+
+            this.updateAllClientRoomSettings();
+        }
+        else if (message instanceof SessionTicket ticket && ticket.isResumeRequest) {
+            this.resumeSession(ticket);
+        }
+    }
+
+    // Sends the answer to the request being handled, or the bare message to a client that did not send a request
+    private void reply(Object message) throws IOException {
+        int requestId = this.pendingRequestId;
+        this.pendingRequestId = 0;
+
+        this.send((requestId == 0) ? message : new Response(requestId, message));
+    }
+
+    // A shared message is only shared as a bare push. As an answer it is encoded for this client alone
+    protected void replyShared(Broadcast broadcast) throws IOException {
+        if (this.pendingRequestId == 0) {
+            this.send(broadcast);
+        }
+        else {
+            this.reply(broadcast.getMessage());
+        }
+    }
+
+    /// SESSIONS
+    // The transport is gone. A client in a room keeps its seat for the grace period, anyone else is cleaned up right away
+    private void handleDisconnect() {
+        if (this.connectedRoom != null && this.hostServer.config.sessionGraceMillis > 0) {
+            this.detach();
+        }
+        else {
+            this.hostServer.registry.removeSession(this);
+            this.handleLeaveRoomRequest();
+        }
+    }
+
+    // Keeps the seat of a client in a room whose connection is gone, until it resumes the session or the grace period is over.
+    // Also called on the seats of a standby that took over, since their clients still have to come over
+    protected void detach() {
+        this.detached = true;
+        this.hostServer.registry.addSession(this);
+        this.connectedRoom.clientDetached(this);
+        this.sessionExpiry = this.hostServer.timers.schedule(() -> this.dispatch(SESSION_EXPIRED), this.hostServer.config.sessionGraceMillis, TimeUnit.MILLISECONDS);
+
+        System.out.println("Client " + this.id + " keeps its seat in room " + this.connectedRoom.roomId + " for " + this.hostServer.config.sessionGraceMillis + " ms.");
+    }
+
+    private void handleSessionExpiry() {
+        // Lost the race against a resume
+        if (!this.hostServer.registry.removeSession(this)) {
+            return;
+        }
+
+        System.out.println("The session of Client " + this.id + " expired.");
+        this.handleLeaveRoomRequest();
+    }
+
+    // A client came back after losing its connection (to this server, or to the primary this standby took over from)
+    // and takes back the seat of its previous connection. Runs on the shard of that seat's room
+    private void resumeSession(SessionTicket ticket) {
+        ClientConnection previous = this.hostServer.registry.getSession(ticket.token);
+        Room room = (previous == null || previous == this) ? null : previous.connectedRoom;
+
+        if (room == null || this.connectedRoom != null || !this.hostServer.registry.resumeSession(previous, this)) {
+            System.out.println("Client " + this.id + " has no seat to resume.");
+            return;
+        }
+
+        if (previous.sessionExpiry != null) {
+            previous.sessionExpiry.cancel();
+        }
+
+        previous.connectedRoom = null;
+        previous.close(); // The old connection may not have noticed yet that it is gone
+
+        this.sendSessionTicket();
+        this.connectedRoom = room;
+        room.resumeClient(previous, this, ticket.matchNumber, ticket.lastMoveSequence);
+        this.updateAllClientRoomSettings();
+
+        System.out.println("Client " + this.id + " resumed the session of Client " + previous.id + " in room " + room.roomId + ".");
+    }
+
+    // The room lives on another server node (known through the room directory), so the client has to go there
+    private void redirectToRoomNode(int roomId) {
+        SerializedRoom room = this.hostServer.lobby.getPublishedRoom(roomId);
+
+        if (room == null || room.nodeAddress == null || this.hostServer.lobby.isLocal(roomId)) {
+            System.out.println("Client " + this.id + " tried to join room " + roomId + ", which does not exist.");
+            return;
+        }
+
+        int separator = room.nodeAddress.lastIndexOf(':');
+
+        try {
+            this.reply(new NodeRedirect(room.nodeAddress.substring(0, separator), Integer.parseInt(room.nodeAddress.substring(separator + 1)), roomId));
+            System.out.println("Redirected Client " + this.id + " to " + room.nodeAddress + " for room " + roomId + ".");
+        } catch (IOException e) {
+            System.err.println("Failed to send NodeRedirect to client.");
+        }
+    }
+
+    // Updates the current room settings screen if its on display. Only two variants exist (player and spectator)
+    private void updateAllClientRoomSettings() {
+        // The room list shows the settings too
+        this.hostServer.lobby.roomChanged(this.connectedRoom);
+
+        Broadcast asPlayer = null;
+        Broadcast asSpectator = null;
+
+        for (ClientConnection c : this.connectedRoom.connectedClients) {
+            try {
+                if (c.isReady()) {
+                    boolean isPlayer = ((!c.connectedRoom.connectedClients.isEmpty() && c.connectedRoom.connectedClients.getFirst() == c) || (c.connectedRoom.connectedClients.size() >= 2 && c.connectedRoom.connectedClients.get(1) == c));
+
+                    if (isPlayer && asPlayer == null) {
+                        asPlayer = this.roomSettingsBroadcast(true);
+                    }
+                    else if (!isPlayer && asSpectator == null) {
+                        asSpectator = this.roomSettingsBroadcast(false);
+                    }
+
+                    c.send(isPlayer ? asPlayer : asSpectator);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to send room to Client " + c.id);
+            }
+        }
+    }
+
+    private Broadcast roomSettingsBroadcast(boolean asPlayer) {
+        SerializedRoom serializedRoom = this.connectedRoom.serialize();
+        serializedRoom.asPlayer = asPlayer;
+        serializedRoom.asSpectator = !asPlayer;
+
+        return new Broadcast(serializedRoom);
+    }
+
+    // Handles the leave room request
+    private void handleLeaveRoomRequest() {
+        // Remove from current connected clients in the room
+        if (this.connectedRoom != null) {
+            this.connectedRoom.connectedClients.remove(this);
+            this.connectedRoom.relay.forget(this);
+            this.connectedRoom.replicate(RoomEvent.ofClient(RoomEvent.Type.CLIENT_LEFT, this));
+            this.hostServer.registry.reindex(this.connectedRoom);
+
+            // A player leaving during a match aborts it
+            boolean wasInMatch = this.connectedRoom.removePlayer(this);
+
+            updateAllClientRoomSettings();
+
+            // Closes the room if the creator is them
+            if (this.connectedRoom.roomCreator == this) {
+                this.hostServer.registry.removeRoom(this.connectedRoom);
+                this.hostServer.lobby.roomRemoved(this.connectedRoom);
+                this.connectedRoom.replicate(new RoomEvent(RoomEvent.Type.ROOM_CLOSED));
+
+                for (ClientConnection c : this.connectedRoom.connectedClients) {
+                    c.connectedRoom = null;
+
+                    if (wasInMatch) {
+                        try {
+                            c.send("HOST_LEFT_IN_MATCH");
+                        } catch (IOException e) {
+                            System.err.println("Failed to send HOST_LEFT_IN_MATCH to client.");
+                        }
+
+                        this.hostServer.timers.schedule(() -> {
+                            try {
+                                c.send("LEAVE_ROOM");
+                            } catch (IOException e) {
+                                System.err.println("Failed to send leave room to client.");
+                            }
+                        }, 5000, TimeUnit.MILLISECONDS);
+                    }
+                    else {
+                        try {
+                            c.send("LEAVE_ROOM");
+                        } catch (IOException e) {
+                            System.err.println("Failed to send leave room to client.");
+                        }
+                    }
+                }
+
+                this.connectedRoom.connectedClients.clear();
+            }
+
+            this.connectedRoom = null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package gomokugame.server;
+
+import gomokugame.directory.NodeAnnouncement;
+import gomokugame.directory.RoomDirectory;
+import gomokugame.objects.RoomListDelta;
+import gomokugame.protocol.Frames;
+import gomokugame.protocol.MessageCodec;
+import gomokugame.protocol.BinaryCodec;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// This node's connection to the room directory. Reports changes of the node's own rooms and feeds the rooms of
+// every other node into the lobby. Keeps reconnecting while the directory is unreachable
+public class DirectoryLink implements Runnable {
+    private static final long RECONNECT_DELAY_MILLIS = 2000;
+    private final Server hostServer;
+    private final String host;
+    private final int port;
+    private final MessageCodec codec = new BinaryCodec();
+    private volatile LinkedBlockingQueue<RoomListDelta> outgoing; // Of the current session, written by a separate thread so the lobby never waits on the socket
+
+    public DirectoryLink(Server hostServer, String directoryAddress) {
+        this.hostServer = hostServer;
+
+        int separator = directoryAddress.lastIndexOf(':');
+        this.host = (separator < 0) ? directoryAddress : directoryAddress.substring(0, separator);
+        this.port = (separator < 0) ? RoomDirectory.DEFAULT_PORT : Integer.parseInt(directoryAddress.substring(separator + 1));
+    }
+
+    @Override
+    public void run() {
+        boolean warned = false;
+
+        while (true) {
+            try (Socket socket = new Socket(this.host, this.port)) {
+                warned = false;
+                this.session(socket);
+            } catch (IOException e) {
+                if (this.outgoing != null || !warned) {
+                    System.err.println("No connection to the room directory at " + this.host + ":" + this.port + ". Retrying...");
+                    warned = true;
+                }
+            }
+
+            if (this.outgoing != null) {
+                this.outgoing = null;
+                this.hostServer.lobby.removeRemoteRooms();
+            }
+
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Queues a change of this node's rooms for the directory. Called by the lobby while it holds its lock
+    protected void publish(RoomListDelta localDelta) {
+        LinkedBlockingQueue<RoomListDelta> outgoing = this.outgoing;
+
+        if (outgoing != null && !(localDelta.addedRooms.isEmpty() && localDelta.updatedRooms.isEmpty() && localDelta.removedRoomIds.isEmpty())) {
+            outgoing.add(localDelta);
+        }
+    }
+
+    private void session(Socket socket) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+        Frames.write(out, new NodeAnnouncement(this.hostServer.config.nodeId, this.hostServer.getAdvertisedAddress()).toFrame());
+
+        // The snapshot goes out before any delta published after it
+        LinkedBlockingQueue<RoomListDelta> outgoing = new LinkedBlockingQueue<>();
+        synchronized (this.hostServer.lobby) {
+            outgoing.add(this.hostServer.lobby.getLocalSnapshot());
+            this.outgoing = outgoing;
+        }
+
+        System.out.println("Node " + this.hostServer.config.nodeId + " joined the room directory at " + this.host + ":" + this.port + ".");
+        this.hostServer.threadPool.execute(() -> this.writeOutgoing(socket, out, outgoing));
+
+        while (!socket.isClosed()) {
+            if (this.codec.decode(Frames.readPayload(in)) instanceof RoomListDelta delta) {
+                this.hostServer.lobby.remoteRoomsChanged(delta);
+            }
+        }
+    }
+
+    private void writeOutgoing(Socket socket, DataOutputStream out, LinkedBlockingQueue<RoomListDelta> outgoing) {
+        try {
+            while (!socket.isClosed()) {
+                RoomListDelta delta = outgoing.poll(1, TimeUnit.SECONDS);
+
+                if (delta != null) {
+                    Frames.write(out, this.codec.encode(delta));
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            try {
+                socket.close(); // Makes the reading side reconnect
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+    }
+}
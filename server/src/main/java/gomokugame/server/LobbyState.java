@@ -0,0 +1,208 @@
+package gomokugame.server;
+
+import gomokugame.objects.RoomListDelta;
+import gomokugame.objects.SerializedRoom;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+// The room list as the clients know it. Room changes are collected for a short window and then
+// published to every client as one versioned delta (rooms added, updated and removed).
+// With a room directory the list also holds the rooms of every other node, and changes of this node's own rooms
+// are passed on to the directory.
+public class LobbyState {
+    private final Server hostServer;
+    private final LinkedHashMap<Integer, SerializedRoom> publishedRooms = new LinkedHashMap<>();
+    private final LinkedHashMap<Integer, SerializedRoom> changedRooms = new LinkedHashMap<>(); // Latest summary of each changed room
+    private final HashSet<Integer> removedRoomIds = new HashSet<>();
+    private long version = 0;
+    private boolean publishScheduled = false;
+    private Broadcast snapshot; // The full list at the current version, encoded on first request
+
+    public LobbyState(Server hostServer) {
+        this.hostServer = hostServer;
+    }
+
+    // Must be called whenever something shown in the room list changed (room created, joined, left, reconfigured)
+    // Called on the room's own shard: the room's summary is taken there and only that copy crosses over to the lobby
+    public void roomChanged(Room room) {
+        SerializedRoom serializedRoom = room.serialize();
+
+        synchronized (this) {
+            // A closed room may still see late setting changes, those must not bring it back
+            if (!this.hostServer.registry.containsRoom(room)) {
+                return;
+            }
+
+            this.removedRoomIds.remove(room.roomId);
+            this.changedRooms.put(room.roomId, serializedRoom);
+            this.schedulePublish();
+        }
+    }
+
+    public synchronized void roomRemoved(Room room) {
+        this.changedRooms.remove(room.roomId);
+        this.removedRoomIds.add(room.roomId);
+        this.schedulePublish();
+    }
+
+    // Rooms of other nodes, as forwarded by the room directory
+    protected synchronized void remoteRoomsChanged(RoomListDelta delta) {
+        for (SerializedRoom room : delta.addedRooms) {
+            this.removedRoomIds.remove(room.roomId);
+            this.changedRooms.put(room.roomId, room);
+        }
+        for (SerializedRoom room : delta.updatedRooms) {
+            this.removedRoomIds.remove(room.roomId);
+            this.changedRooms.put(room.roomId, room);
+        }
+        for (int roomId : delta.removedRoomIds) {
+            this.changedRooms.remove(roomId);
+            this.removedRoomIds.add(roomId);
+        }
+
+        this.schedulePublish();
+    }
+
+    // Forgets every room of other nodes, e.g. after the connection to the directory was lost
+    protected synchronized void removeRemoteRooms() {
+        this.changedRooms.keySet().removeIf(roomId -> !this.isLocal(roomId));
+
+        for (int roomId : this.publishedRooms.keySet()) {
+            if (!this.isLocal(roomId)) {
+                this.removedRoomIds.add(roomId);
+            }
+        }
+
+        this.schedulePublish();
+    }
+
+    // This node's own rooms as last published, sent to the directory whenever the node (re)connects to it
+    protected synchronized RoomListDelta getLocalSnapshot() {
+        RoomListDelta snapshot = new RoomListDelta();
+        snapshot.isSnapshot = true;
+        snapshot.toVersion = this.version;
+
+        for (SerializedRoom room : this.publishedRooms.values()) {
+            if (this.isLocal(room.roomId)) {
+                snapshot.addedRooms.add(room);
+            }
+        }
+
+        return snapshot;
+    }
+
+    // A published room, local or on another node
+    protected synchronized SerializedRoom getPublishedRoom(int roomId) {
+        return this.publishedRooms.get(roomId);
+    }
+
+    protected boolean isLocal(int roomId) {
+        return ServerRegistry.nodeOf(roomId) == this.hostServer.config.nodeId;
+    }
+
+    // Sends the whole room list to a client that (re)opens the room list or missed a delta.
+    // Queued while holding the lock, like the deltas, so a delta published meanwhile can not be queued before the snapshot
+    public synchronized void sendSnapshot(ClientConnection client) throws IOException {
+        client.replyShared(this.getSnapshot());
+    }
+
+    private Broadcast getSnapshot() {
+        if (this.snapshot == null) {
+            RoomListDelta snapshot = new RoomListDelta();
+            snapshot.isSnapshot = true;
+            snapshot.fromVersion = this.version;
+            snapshot.toVersion = this.version;
+            snapshot.addedRooms.addAll(this.publishedRooms.values());
+
+            this.snapshot = new Broadcast(snapshot);
+        }
+
+        return this.snapshot;
+    }
+
+    // Bursts of changes within the debounce window end up in a single delta
+    private void schedulePublish() {
+        if (!this.publishScheduled) {
+            this.publishScheduled = true;
+            this.hostServer.timers.schedule(this::publish, this.hostServer.config.lobbyDebounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void publish() {
+        this.publishScheduled = false;
+
+        RoomListDelta delta = new RoomListDelta();
+        delta.fromVersion = this.version;
+
+        for (SerializedRoom serializedRoom : this.changedRooms.values()) {
+            if (this.publishedRooms.put(serializedRoom.roomId, serializedRoom) == null) {
+                delta.addedRooms.add(serializedRoom);
+            }
+            else {
+                delta.updatedRooms.add(serializedRoom);
+            }
+        }
+
+        for (int roomId : this.removedRoomIds) {
+            if (this.publishedRooms.remove(roomId) != null) {
+                delta.removedRoomIds.add(roomId);
+            }
+        }
+
+        this.changedRooms.clear();
+        this.removedRoomIds.clear();
+
+        if (delta.addedRooms.isEmpty() && delta.updatedRooms.isEmpty() && delta.removedRoomIds.isEmpty()) {
+            return;
+        }
+
+        this.version++;
+        delta.toVersion = this.version;
+        this.snapshot = null;
+
+        if (this.hostServer.directoryLink != null) {
+            this.hostServer.directoryLink.publish(this.localPart(delta));
+        }
+
+        // Queued while still holding the lock so that every client receives the deltas in version order
+        Broadcast broadcast = new Broadcast(delta);
+
+        for (ClientConnection c : this.hostServer.registry.getConnections()) {
+            try {
+                if (c.isReady()) {
+                    c.send(broadcast);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to send room list update to Client " + c.id);
+            }
+        }
+    }
+
+    // Only the changes of this node's own rooms, the directory already knows about the others
+    private RoomListDelta localPart(RoomListDelta delta) {
+        RoomListDelta local = new RoomListDelta();
+        local.fromVersion = delta.fromVersion;
+        local.toVersion = delta.toVersion;
+
+        for (SerializedRoom room : delta.addedRooms) {
+            if (this.isLocal(room.roomId)) {
+                local.addedRooms.add(room);
+            }
+        }
+        for (SerializedRoom room : delta.updatedRooms) {
+            if (this.isLocal(room.roomId)) {
+                local.updatedRooms.add(room);
+            }
+        }
+        for (int roomId : delta.removedRoomIds) {
+            if (this.isLocal(roomId)) {
+                local.removedRoomIds.add(roomId);
+            }
+        }
+
+        return local;
+    }
+}
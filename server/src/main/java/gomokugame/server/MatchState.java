@@ -0,0 +1,9 @@
+package gomokugame.server;
+
+// The phases a match in a Room goes through. A match only moves forward through events
+// (a client finished initializing, a move arrived, a turn timed out, a player left), never on its own thread
+public enum MatchState {
+    INITIALIZING, // Waiting for both players to finish setting up their match screen
+    AWAITING_MOVE, // Waiting for the player in turn to move, give up the turn or run out of time
+    ENDED // No match running (before the first match, or after a win or abort)
+}
@@ -0,0 +1,30 @@
+package gomokugame.server;
+
+import gomokugame.objects.Move;
+import gomokugame.objects.Request;
+
+import java.util.Set;
+
+// Inbound messages are rate limited per class, so a client flooding the lobby still gets its moves through
+public enum MessageClass {
+    GAME, // Moves and match control
+    LOBBY; // Room lists, creating and joining rooms, room settings, sessions
+
+    private static final Set<String> LOBBY_COMMANDS = Set.of("GET_ROOM_LIST", "LEAVE_ROOM_REQUEST", "START_MATCH_REQUEST");
+
+    public static MessageClass of(Object message) {
+        if (message instanceof Request request) {
+            return of(request.body);
+        }
+
+        if (message instanceof Move) {
+            return GAME;
+        }
+
+        if (message instanceof String command) {
+            return LOBBY_COMMANDS.contains(command) ? LOBBY : GAME;
+        }
+
+        return LOBBY;
+    }
+}
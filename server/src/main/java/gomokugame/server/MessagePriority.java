@@ -0,0 +1,26 @@
+package gomokugame.server;
+
+import gomokugame.objects.Response;
+import gomokugame.objects.RoomListDelta;
+
+import java.util.ArrayList;
+
+// Outbound messages of a higher priority are written before any queued message of a lower one.
+// Only lobby traffic may be overtaken: everything about the client's own room (settings, joins, leaves, match start,
+// moves) shares one priority, so it arrives in the order the room sent it
+public enum MessagePriority {
+    HIGH, // Everything about the client's own room
+    LOW; // Lobby room list, whole or as a delta
+
+    public static MessagePriority of(Object message) {
+        if (message instanceof Response response) {
+            return (response.body == null) ? HIGH : of(response.body);
+        }
+
+        if (message instanceof RoomListDelta || message instanceof ArrayList<?>) {
+            return LOW;
+        }
+
+        return HIGH;
+    }
+}
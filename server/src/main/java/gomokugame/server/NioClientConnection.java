@@ -0,0 +1,167 @@
+package gomokugame.server;
+
+import gomokugame.protocol.Frames;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+// A ClientConnection served by an NioEventLoop. Reads are reassembled into frames, queued writes are gathered into batches
+public class NioClientConnection extends ClientConnection {
+    private static final int INITIAL_READ_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_WRITE_BATCH = 64; // Frames handed to the socket in one gathering write
+    private final SocketChannel channel;
+    private final NioEventLoop eventLoop;
+    private final ByteBuffer[] writeBatch;
+    private int writeBatchStart;
+    private int writeBatchEnd;
+    private int writeBatchFrames;
+    private long writeBatchOldestEnqueuedAt;
+    private ByteBuffer readBuffer;
+    protected SelectionKey selectionKey;
+
+    public NioClientConnection(SocketChannel channel, NioEventLoop eventLoop, Server hostServer) {
+        super(hostServer);
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.writeBatch = new ByteBuffer[MAX_WRITE_BATCH];
+        this.readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+    }
+
+    // Called by the event loop when the channel is readable. Hands every complete frame to the room/connection logic
+    protected void readAvailable() {
+        try {
+            int read = this.channel.read(this.readBuffer);
+
+            if (read < 0) {
+                this.close();
+                return;
+            }
+
+            this.readBuffer.flip();
+
+            while (this.readBuffer.remaining() >= Frames.HEADER_SIZE) {
+                int payloadSize = this.readBuffer.getInt(this.readBuffer.position());
+                Frames.checkPayloadSize(payloadSize);
+
+                if (this.readBuffer.remaining() < Frames.HEADER_SIZE + payloadSize) {
+                    // Partial frame, make sure the rest of it fits once it arrives
+                    this.ensureReadCapacity(Frames.HEADER_SIZE + payloadSize);
+                    break;
+                }
+
+                byte[] payload = new byte[payloadSize];
+                this.readBuffer.position(this.readBuffer.position() + Frames.HEADER_SIZE);
+                this.readBuffer.get(payload);
+
+                this.receiveFrame(payload);
+
+                if (!this.isOpen()) {
+                    return;
+                }
+            }
+
+            this.readBuffer.compact();
+        } catch (IOException | RuntimeException e) {
+            // A malformed frame only costs the client that sent it
+            System.err.println("Failed to read object from Client " + this.id + ".");
+            this.close();
+        }
+    }
+
+    // Called by the event loop when the socket can take more bytes, or after frames were queued into an idle queue.
+    // This is the single writer of the outbound queue
+    protected void flushPendingWrites() {
+        if (!this.isOpen() || this.selectionKey == null) {
+            return;
+        }
+
+        try {
+            while (true) {
+                if (this.writeBatchStart == this.writeBatchEnd && !this.fillWriteBatch()) {
+                    // Everything was written
+                    this.selectionKey.interestOps(SelectionKey.OP_READ);
+
+                    if (!this.outbound.finishFlush()) {
+                        return;
+                    }
+
+                    continue;
+                }
+
+                this.channel.write(this.writeBatch, this.writeBatchStart, this.writeBatchEnd - this.writeBatchStart);
+
+                while (this.writeBatchStart < this.writeBatchEnd && !this.writeBatch[this.writeBatchStart].hasRemaining()) {
+                    this.writeBatch[this.writeBatchStart++] = null;
+                }
+
+                if (this.writeBatchStart < this.writeBatchEnd) {
+                    // Socket buffer is full, wait until the selector says it is writable again
+                    this.selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+
+                this.outbound.recordFlush(this.writeBatchFrames, this.writeBatchOldestEnqueuedAt);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write to Client " + this.id + ".");
+            this.close();
+        }
+    }
+
+    // Moves up to MAX_WRITE_BATCH queued frames into the write batch. Returns false if nothing was queued
+    private boolean fillWriteBatch() {
+        this.writeBatchStart = 0;
+        this.writeBatchEnd = 0;
+        OutboundQueue.OutboundFrame frame;
+
+        while (this.writeBatchEnd < MAX_WRITE_BATCH && (frame = this.outbound.poll()) != null) {
+            if (this.writeBatchEnd == 0) {
+                this.writeBatchOldestEnqueuedAt = frame.enqueuedAt();
+            }
+
+            this.writeBatch[this.writeBatchEnd++] = ByteBuffer.wrap(frame.bytes());
+        }
+
+        this.writeBatchFrames = this.writeBatchEnd;
+
+        return this.writeBatchEnd > 0;
+    }
+
+    // Grows the read buffer (keeping its unread bytes) so that a frame of the given size fits
+    private void ensureReadCapacity(int frameSize) {
+        if (this.readBuffer.capacity() < frameSize) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(frameSize, this.readBuffer.capacity() * 2));
+            larger.put(this.readBuffer);
+            larger.flip();
+            this.readBuffer = larger;
+        }
+    }
+
+    @Override
+    protected boolean isOpen() {
+        return this.channel.isOpen();
+    }
+
+    @Override
+    protected void closeTransport() throws IOException {
+        if (this.selectionKey != null) {
+            this.selectionKey.cancel();
+        }
+
+        this.channel.close();
+        this.outbound.clear();
+    }
+
+    @Override
+    protected void scheduleFlush() {
+        this.eventLoop.execute(this::flushPendingWrites);
+    }
+
+    @Override
+    protected void refuse(byte[] reply) throws IOException {
+        this.channel.write(ByteBuffer.wrap(reply));
+        this.channel.shutdownOutput();
+    }
+}
@@ -0,0 +1,140 @@
+package gomokugame.server;
+
+import gomokugame.protocol.Handshake;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// One I/O thread multiplexing many NioClientConnections through a Selector
+public class NioEventLoop implements Runnable {
+    private final NioTransport transport;
+    private final Selector selector;
+    private final ConcurrentLinkedQueue<Runnable> pendingTasks; // Work handed over from other threads
+    protected final int index;
+
+    public NioEventLoop(NioTransport transport, int index) throws IOException {
+        this.transport = transport;
+        this.index = index;
+        this.selector = Selector.open();
+        this.pendingTasks = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public void run() {
+        while (this.selector.isOpen()) {
+            try {
+                this.selector.select();
+                this.runPendingTasks();
+
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        this.accept((ServerSocketChannel) key.channel());
+                        continue;
+                    }
+
+                    NioClientConnection connection = (NioClientConnection) key.attachment();
+
+                    try {
+                        if (key.isWritable()) {
+                            connection.flushPendingWrites();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            connection.readAvailable();
+                        }
+                    } catch (RuntimeException e) {
+                        // A bug hit by one client must not take the loop, and every other client on it, down
+                        System.err.println("Client " + connection.id + " broke NIO event loop " + this.index + ": " + e + ". Disconnecting it.");
+                        connection.close();
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("NIO event loop " + this.index + " failed to select.");
+            }
+        }
+    }
+
+    protected void registerAcceptor(ServerSocketChannel serverChannel) throws IOException {
+        serverChannel.configureBlocking(false);
+        serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+    }
+
+    // Runs a task on this event loop's thread
+    protected void execute(Runnable task) {
+        this.pendingTasks.add(task);
+        this.selector.wakeup();
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+
+        while ((task = this.pendingTasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Task on NIO event loop " + this.index + " failed: " + e);
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel serverChannel) {
+        try {
+            SocketChannel channel;
+
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+                InetSocketAddress address = (InetSocketAddress) channel.getRemoteAddress();
+
+                if (!this.transport.getHostServer().admit(address.getAddress())) {
+                    turnAway(channel);
+                    continue;
+                }
+
+                NioEventLoop owner = this.transport.nextEventLoop();
+                NioClientConnection connection = new NioClientConnection(channel, owner, this.transport.getHostServer());
+                this.transport.getHostServer().addClient(connection, address.getAddress());
+
+                SocketChannel acceptedChannel = channel;
+                owner.execute(() -> owner.register(acceptedChannel, connection));
+                System.out.println("Accepted connection from " + address.getAddress().getHostAddress() + ":" + address.getPort());
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("NIO event loop " + this.index + " failed to accept a client.");
+        }
+    }
+
+    // Tells a connection that was not admitted that the server is full and closes it. A fresh socket's buffer always
+    // takes the whole reply, so this never waits
+    private static void turnAway(SocketChannel channel) {
+        try (channel) {
+            channel.write(ByteBuffer.wrap(Handshake.serverFull()));
+            channel.shutdownOutput();
+        } catch (IOException ignored) {
+            // The client is gone already
+        }
+    }
+
+    private void register(SocketChannel channel, NioClientConnection connection) {
+        try {
+            connection.selectionKey = channel.register(this.selector, SelectionKey.OP_READ, connection);
+            connection.onConnected();
+        } catch (ClosedChannelException e) {
+            System.err.println("Client channel closed before it could be registered.");
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package gomokugame.server;
+
+import java.io.IOException;
+import java.nio.channels.ServerSocketChannel;
+
+// Serves every connection from a small fixed set of Selector event loops instead of a thread per socket
+public class NioTransport {
+    private final Server hostServer;
+    private final ServerSocketChannel serverChannel;
+    private final NioEventLoop[] eventLoops;
+    private int nextEventLoop = 0; // Round-robin assignment of accepted connections
+
+    public NioTransport(Server hostServer, ServerSocketChannel serverChannel, int ioThreads) throws IOException {
+        this.hostServer = hostServer;
+        this.serverChannel = serverChannel;
+        this.eventLoops = new NioEventLoop[ioThreads];
+
+        for (int i = 0; i < ioThreads; i++) {
+            this.eventLoops[i] = new NioEventLoop(this, i);
+        }
+    }
+
+    public void start() throws IOException {
+        // The first event loop also accepts new connections
+        this.eventLoops[0].registerAcceptor(this.serverChannel);
+
+        for (NioEventLoop eventLoop : this.eventLoops) {
+            Thread thread = new Thread(eventLoop, "gomoku-io-" + eventLoop.index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    protected Server getHostServer() {
+        return this.hostServer;
+    }
+
+    // Only ever called from the accepting event loop, so no synchronization is needed
+    protected NioEventLoop nextEventLoop() {
+        NioEventLoop eventLoop = this.eventLoops[this.nextEventLoop];
+        this.nextEventLoop = (this.nextEventLoop + 1) % this.eventLoops.length;
+
+        return eventLoop;
+    }
+}
@@ -0,0 +1,128 @@
+package gomokugame.server;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Frames waiting to be written to one client. Any thread may offer frames, but only one writer drains them at a time:
+// whoever offers into an idle queue schedules the writer, and the writer keeps going until the queue is empty.
+public class OutboundQueue {
+    private final ConcurrentLinkedQueue<OutboundFrame> highPriority = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<OutboundFrame> lowPriority = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Runnable scheduleFlush;
+    private final int capacity;
+
+    // Statistics
+    private volatile int maxDepth;
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong framesWritten = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private volatile long maxLatencyNanos;
+
+    public OutboundQueue(int capacity, Runnable scheduleFlush) {
+        this.capacity = capacity;
+        this.scheduleFlush = scheduleFlush;
+    }
+
+    // Returns false (and queues nothing) if the client already has too many frames waiting
+    public boolean offer(byte[] frame, MessagePriority priority) {
+        int newDepth = this.depth.incrementAndGet();
+
+        if (newDepth > this.capacity) {
+            this.depth.decrementAndGet();
+            return false;
+        }
+
+        if (newDepth > this.maxDepth) {
+            this.maxDepth = newDepth;
+        }
+
+        OutboundFrame outboundFrame = new OutboundFrame(frame, System.nanoTime());
+        (priority == MessagePriority.HIGH ? this.highPriority : this.lowPriority).add(outboundFrame);
+
+        if (this.flushScheduled.compareAndSet(false, true)) {
+            this.scheduleFlush.run();
+        }
+
+        return true;
+    }
+
+    // Writer only: next frame to write, high priority first. Null once the queue is empty
+    public OutboundFrame poll() {
+        OutboundFrame frame = this.highPriority.poll();
+
+        if (frame == null) {
+            frame = this.lowPriority.poll();
+        }
+        if (frame != null) {
+            this.depth.decrementAndGet();
+        }
+
+        return frame;
+    }
+
+    // Writer only: records that a batch of frames (enqueued at the given times) reached the socket in one flush
+    public void recordFlush(int frameCount, long oldestEnqueuedAt) {
+        if (frameCount == 0) {
+            return;
+        }
+
+        long latency = System.nanoTime() - oldestEnqueuedAt;
+
+        this.flushes.incrementAndGet();
+        this.framesWritten.addAndGet(frameCount);
+        this.totalLatencyNanos.addAndGet(latency);
+
+        if (latency > this.maxLatencyNanos) {
+            this.maxLatencyNanos = latency;
+        }
+    }
+
+    // Writer only: called once the queue looked empty. Returns true if frames raced in and the writer must keep going
+    public boolean finishFlush() {
+        this.flushScheduled.set(false);
+
+        return !this.isEmpty() && this.flushScheduled.compareAndSet(false, true);
+    }
+
+    public boolean isEmpty() {
+        return this.highPriority.isEmpty() && this.lowPriority.isEmpty();
+    }
+
+    public void clear() {
+        while (this.poll() != null) {
+            // Drop everything
+        }
+    }
+
+    /// STATISTICS
+    public int getDepth() {
+        return this.depth.get();
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    public long getFlushCount() {
+        return this.flushes.get();
+    }
+
+    public long getFramesWritten() {
+        return this.framesWritten.get();
+    }
+
+    // Time from the oldest frame of a batch being queued until the batch was flushed
+    public long getTotalFlushLatencyNanos() {
+        return this.totalLatencyNanos.get();
+    }
+
+    public long getMaxFlushLatencyNanos() {
+        return this.maxLatencyNanos;
+    }
+
+    public record OutboundFrame(byte[] bytes, long enqueuedAt) {}
+}
@@ -0,0 +1,41 @@
+package gomokugame.server;
+
+// Stands in for a client of the primary inside the standby's rooms, until that client resumes its session here.
+// It has no transport: whatever the room sends it is dropped, the client catches up when it resumes
+public class ReplicaSeat extends ClientConnection {
+    public ReplicaSeat(Server hostServer, String id, String sessionToken) {
+        super(hostServer);
+        this.id = id;
+        this.sessionToken = sessionToken;
+    }
+
+    @Override
+    protected boolean isOpen() {
+        return false;
+    }
+
+    @Override
+    protected void closeTransport() {
+        // Nothing to close
+    }
+
+    @Override
+    protected void scheduleFlush() {
+        // Nothing is ever queued
+    }
+
+    @Override
+    protected void refuse(byte[] reply) {
+        // Never negotiates
+    }
+
+    @Override
+    protected void send(Object message) {
+        // Dropped
+    }
+
+    @Override
+    protected void send(Broadcast broadcast) {
+        // Dropped
+    }
+}
@@ -0,0 +1,182 @@
+package gomokugame.server;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// The primary's side of hot-standby replication. Every room event is appended here with the next sequence number
+// and streamed to the standby connected on gomoku.replicationPort. A standby that connects late first receives the
+// state of every open room, rebuilt as events by the rooms themselves. The standby acknowledges the sequence it
+// applied, which gives the replication lag (append until acknowledged, so it includes the way back).
+// Stream: the standby sends gomoku.replicationSecret (UTF), then acknowledged sequences (long); the primary answers
+// whether it accepted the secret (boolean), then sends events.
+// The events carry every client's session token, so the port only listens on gomoku.replicationBindAddress (loopback
+// by default), a peer without the secret is dropped before it gets any, and clients are only ever sent to the
+// configured gomoku.standbyAddress, never to an address a peer reports
+public class ReplicationLog implements Runnable {
+    private static final long HEARTBEAT_MILLIS = 500;
+    private static final int HELLO_TIMEOUT_MILLIS = 5000; // Only one standby is served at a time, a silent peer must not hold the port
+    private static final int LAG_WINDOW = 1 << 16; // Append times kept for the most recent events
+    private final Server hostServer;
+    private final ServerSocket server;
+    private final long[] appendNanos = new long[LAG_WINDOW]; // By sequence % LAG_WINDOW
+    private long sequence = 0;
+    private long acknowledgedSequence = 0;
+    private long acknowledgements = 0;
+    private long totalLagNanos = 0;
+    private long maxLagNanos = 0;
+    private LinkedBlockingQueue<RoomEvent> outgoing; // Of the connected standby, null while there is none
+    private volatile String standbyAddress; // Where the standby accepts clients once it took over, null while none is connected
+
+    public ReplicationLog(Server hostServer, int port) throws IOException {
+        this.hostServer = hostServer;
+        this.server = new ServerSocket(port, 50, InetAddress.getByName(hostServer.config.replicationBindAddress));
+    }
+
+    @Override
+    public void run() {
+        System.out.println("Waiting for a hot standby on " + this.server.getInetAddress().getHostAddress() + ":" + this.server.getLocalPort() + "...");
+
+        while (!this.server.isClosed()) {
+            try (Socket socket = this.server.accept()) {
+                this.session(socket);
+            } catch (IOException e) {
+                System.err.println("Lost the connection to the hot standby" + ((this.standbyAddress == null) ? "." : " at " + this.standbyAddress + "."));
+            }
+
+            synchronized (this) {
+                this.outgoing = null;
+            }
+
+            if (this.standbyAddress != null) {
+                this.standbyChanged(null);
+            }
+        }
+    }
+
+    // Assigns the next sequence number and queues the event for the standby. Called on the room's shard
+    protected synchronized void append(RoomEvent event) {
+        event.sequence = ++this.sequence;
+        this.appendNanos[(int) (event.sequence % LAG_WINDOW)] = System.nanoTime();
+
+        if (this.outgoing != null) {
+            this.outgoing.add(event);
+        }
+    }
+
+    protected String getStandbyAddress() {
+        return this.standbyAddress;
+    }
+
+    // Lag figures cover the acknowledgements since the previous call
+    protected synchronized String getStatistics() {
+        String statistics = String.format(
+                "Replication: standby %s, sequence %d, acknowledged %d, lag avg %.1f us / max %.1f us over %d acknowledgements",
+                (this.standbyAddress == null) ? "none" : this.standbyAddress, this.sequence, this.acknowledgedSequence,
+                (this.acknowledgements == 0) ? 0.0 : this.totalLagNanos / 1000.0 / this.acknowledgements,
+                this.maxLagNanos / 1000.0, this.acknowledgements);
+
+        this.acknowledgements = 0;
+        this.totalLagNanos = 0;
+        this.maxLagNanos = 0;
+
+        return statistics;
+    }
+
+    private void session(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true); // Batches are flushed explicitly, lag matters more than packet count
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        socket.setSoTimeout(HELLO_TIMEOUT_MILLIS);
+        byte[] secret = in.readUTF().getBytes(StandardCharsets.UTF_8);
+        socket.setSoTimeout(0);
+
+        boolean accepted = MessageDigest.isEqual(secret, this.hostServer.config.replicationSecret.getBytes(StandardCharsets.UTF_8));
+        out.writeBoolean(accepted); // A rejected standby must not mistake the closed stream for a lost primary and take over
+        out.flush();
+
+        if (!accepted) {
+            System.err.println("Rejected a hot standby from " + socket.getInetAddress().getHostAddress() + ": wrong replication secret.");
+            return;
+        }
+
+        String address = this.hostServer.config.standbyAddress;
+        LinkedBlockingQueue<RoomEvent> outgoing = new LinkedBlockingQueue<>();
+
+        synchronized (this) {
+            this.outgoing = outgoing;
+        }
+
+        // Events of a room that reach the standby before that room's state are ignored there
+        for (Room room : this.hostServer.registry.getRooms()) {
+            room.shard.execute(room::replicateState);
+        }
+
+        System.out.println("Hot standby from " + socket.getInetAddress().getHostAddress() + " connected, clients fail over to " + address + ".");
+        this.hostServer.threadPool.execute(() -> this.writeOutgoing(socket, out, outgoing));
+        this.standbyChanged(address);
+
+        while (!socket.isClosed()) {
+            this.acknowledged(in.readLong());
+        }
+    }
+
+    private synchronized void acknowledged(long applied) {
+        if (applied <= this.acknowledgedSequence) {
+            return;
+        }
+
+        this.acknowledgedSequence = applied;
+
+        if (this.sequence - applied < LAG_WINDOW) {
+            long lagNanos = System.nanoTime() - this.appendNanos[(int) (applied % LAG_WINDOW)];
+            this.acknowledgements++;
+            this.totalLagNanos += lagNanos;
+            this.maxLagNanos = Math.max(this.maxLagNanos, lagNanos);
+        }
+    }
+
+    // Writes queued events in batches with one flush each, and a heartbeat whenever nothing happened for a while
+    private void writeOutgoing(Socket socket, DataOutputStream out, LinkedBlockingQueue<RoomEvent> outgoing) {
+        ArrayList<RoomEvent> batch = new ArrayList<>();
+        RoomEvent heartbeat = new RoomEvent(RoomEvent.Type.HEARTBEAT);
+
+        try {
+            while (!socket.isClosed()) {
+                RoomEvent event = outgoing.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                batch.add((event == null) ? heartbeat : event);
+                outgoing.drainTo(batch);
+
+                for (RoomEvent e : batch) {
+                    e.writeTo(out);
+                }
+
+                out.flush();
+                batch.clear();
+            }
+        } catch (IOException | InterruptedException e) {
+            try {
+                socket.close(); // Makes the reading side wait for the next standby
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+    }
+
+    // Tells every client where to go if this server dies
+    private void standbyChanged(String address) {
+        this.standbyAddress = address;
+
+        for (ClientConnection c : this.hostServer.registry.getConnections()) {
+            if (c.isReady()) {
+                c.sendSessionTicket();
+            }
+        }
+    }
+}
@@ -0,0 +1,911 @@
+package gomokugame.server;
+
+import gomokugame.core.BitBoard;
+import gomokugame.core.BoardGeometry;
+import gomokugame.core.OutcomeDetector;
+import gomokugame.objects.*;
+import gomokugame.protocol.WireFormat;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class Room {
+    private final Server hostServer;
+    protected final RoomShard shard; // Runs every event of this room
+    protected final SpectatorRelay relay; // Fans moves and results out to the spectators, so the players never wait for them
+    private ClientConnection winner;
+    protected ClientConnection black;
+    protected ClientConnection white;
+    protected ClientConnection currentPlayerInTurn;
+    protected int timerPerTurnInMilliseconds;
+    protected final int roomId;
+    protected String roomName;
+    protected ClientConnection roomCreator;
+    protected int boardSize = 20; // Defaults to 20
+    protected BitBoard board; // Stones of the current (or last) match
+    protected int invisibleModeRevealChances;
+    protected int blackInvisibleModeRevealChances;
+    protected int whiteInvisibleModeRevealChances;
+    protected final List<ClientConnection> connectedClients = new CopyOnWriteArrayList<>(); // Connected clients (player + spectator), read far more often than changed
+    protected volatile boolean matchInProgress = false;
+    protected boolean blackRequestedRematch = false;
+    protected boolean whiteRequestedRematch = false;
+    // Every match event takes this lock, so turn hand-off and match end happen atomically. Only enqueueing
+    // sends happens while holding it, which never blocks. A ReentrantLock instead of synchronized keeps virtual threads unpinned
+    private final ReentrantLock matchLock = new ReentrantLock();
+    private MatchState state = MatchState.ENDED;
+    private final HashSet<ClientConnection> pendingInitialization = new HashSet<>(); // Players that have not finished initializing yet
+    private int turn; // Increased on every turn hand-off and clock pause, so a timeout that was already on its way is recognized and ignored
+    private TimingWheel.Timeout turnTimeout;
+    private long turnDeadlineNanos; // When the running turn ends for the player in turn
+    private long turnTimeoutNanos; // When the running turn timer fires, the last moment a move made in time can arrive
+    private int pausedTurnMillis = -1; // Time left of a turn whose player is away, -1 while the clock runs
+    protected int matchNumber = 0; // Increased on every match start, so a resuming client knows whether its board is still current
+    private boolean lastMatchAborted;
+    private final HashSet<ClientConnection> missedMatchEnd = new HashSet<>(); // Clients that were away when the last match ended
+    // Encoded snapshots of the running match for spectators and board requests, valid for one board and move count.
+    // The board only changes under matchLock and every snapshot is encoded under it, so each move costs at most one
+    // encoding per wire format no matter how many clients join at that point
+    private BitBoard snapshotBoard;
+    private int snapshotMoveCount;
+    private Broadcast spectatorSnapshot;
+    private Broadcast boardSnapshot;
+
+    public Room(int roomId, ClientConnection creator) {
+        this.roomId = roomId;
+        this.roomCreator = creator;
+        this.hostServer = creator.hostServer;
+        this.shard = this.hostServer.shardFor(roomId);
+        this.relay = new SpectatorRelay(this, this.hostServer.threadPool, this.hostServer.config.spectatorBufferFrames);
+
+        this.addClient(this.roomCreator);
+    }
+
+    /// METHODS
+    protected void addClient(ClientConnection client) {
+        if (!this.connectedClients.contains(client)) {
+            System.out.println("ADDING: " + client.id);
+
+            this.connectedClients.add(client);
+            this.hostServer.registry.reindex(this);
+        }
+    }
+
+    // Sets up the match screen of a client that joined while a match is running. Moves after the snapshot follow as usual
+    protected void startSpectate(ClientConnection client) {
+        this.matchLock.lock();
+
+        try {
+            this.sendClientStartRequest(client);
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // Brings a spectator that fell behind up to date: the match snapshot, plus the result if the match is over.
+    // Called by the relay once the spectator has sent everything it still had
+    protected void resyncSpectator(ClientConnection client) {
+        this.matchLock.lock();
+
+        try {
+            if (!this.connectedClients.contains(client) || client == this.white || client == this.black) {
+                return;
+            }
+
+            System.out.println("Resyncing spectator " + client.id + " of room " + this.roomId + " from a snapshot.");
+
+            if (this.state != MatchState.ENDED) {
+                this.sendClientStartRequest(client);
+                return;
+            }
+
+            if (this.board != null) {
+                this.sendClientStartRequest(client);
+            }
+
+            if (this.matchNumber > 0) {
+                client.send(this.createEndResult(null, this.lastMatchAborted));
+            }
+
+            this.relay.synced(client);
+        } catch (IOException e) {
+            System.err.println("Failed to resync spectator " + client.id + ".");
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // The current board, encoded for the specified format. Shared by every client asking at the same move
+    protected Broadcast getBoardSnapshot(WireFormat format) throws IOException {
+        this.matchLock.lock();
+
+        try {
+            // No match yet: an empty board of the size the room is set to. Not kept, the size may still change
+            if (this.board == null) {
+                Broadcast empty = new Broadcast(new BitBoard(BoardGeometry.of(this.boardSize)).toBoard(this.matchNumber));
+                empty.frameFor(format);
+
+                return empty;
+            }
+
+            this.expireSnapshots();
+
+            if (this.boardSnapshot == null) {
+                this.boardSnapshot = new Broadcast(this.board.toBoard(this.matchNumber));
+            }
+
+            this.boardSnapshot.frameFor(format); // Encoded now, before the board can change
+
+            return this.boardSnapshot;
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // The summary of this room shown in the room list and on the room settings screen
+    protected SerializedRoom serialize() {
+        SerializedRoom serializedRoom = new SerializedRoom(this.roomName);
+
+        serializedRoom.roomId = this.roomId;
+        serializedRoom.roomCreatorId = this.roomCreator.id;
+        serializedRoom.boardSize = this.boardSize;
+        serializedRoom.timerPerTurnInMilliseconds = this.timerPerTurnInMilliseconds;
+        serializedRoom.invisibleModeRevealChances = this.invisibleModeRevealChances;
+        serializedRoom.connectedPlayersAmount = this.connectedClients.size();
+        serializedRoom.nodeAddress = this.hostServer.getAdvertisedAddress();
+
+        return serializedRoom;
+    }
+
+    // Hands a change of this room to the hot standby, if there is one. Called on the room's shard right after the change
+    protected void replicate(RoomEvent event) {
+        ReplicationLog replication = this.hostServer.replication;
+
+        if (replication != null) {
+            event.roomId = this.roomId;
+            replication.append(event);
+        }
+    }
+
+    protected MatchState getState() {
+        this.matchLock.lock();
+
+        try {
+            return this.state;
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    protected void checkForRematchRequest() {
+        if (this.whiteRequestedRematch && this.blackRequestedRematch) {
+            this.startMatch();
+        }
+    }
+
+    // Starts the match. Moves on to the first turn once both players finished initializing
+    protected void startMatch() {
+        this.matchLock.lock();
+
+        try {
+            if (this.state != MatchState.ENDED || this.connectedClients.size() < 2) {
+                return;
+            }
+
+            System.out.println("Starting match in room " + this.roomId);
+            this.matchInProgress = true;
+            this.hostServer.registry.reindex(this);
+            this.blackInvisibleModeRevealChances = this.invisibleModeRevealChances;
+            this.whiteInvisibleModeRevealChances = this.invisibleModeRevealChances;
+
+            this.matchNumber++;
+            this.initializeBoard();
+            this.missedMatchEnd.clear();
+            this.winner = null;
+
+            this.black = (Math.random() > 0.5) ? connectedClients.get(0) : connectedClients.get(1);
+            this.white = (this.black == connectedClients.get(0)) ? connectedClients.get(1) : connectedClients.get(0);
+            this.currentPlayerInTurn = this.black; // Black plays first
+            this.replicate(RoomEvent.matchStarted(this.black, this.white, this.matchNumber));
+
+            this.state = MatchState.INITIALIZING;
+            this.pendingInitialization.clear();
+            this.pendingInitialization.add(this.black);
+            this.pendingInitialization.add(this.white);
+
+            // Players and spectators set up their screens in parallel. Only the players are waited for, and not longer
+            // than gomoku.matchInitTimeoutMillis, so the first move does not depend on the number of spectators
+            this.sendClientStartRequest(this.black);
+            this.sendClientStartRequest(this.white);
+            int initializingMatch = this.matchNumber;
+            this.hostServer.timers.schedule(() -> this.shard.execute(() -> this.handleInitTimeout(initializingMatch)), this.hostServer.config.matchInitTimeoutMillis, TimeUnit.MILLISECONDS);
+
+            for (ClientConnection c : this.connectedClients) {
+                if (c != this.white && c != this.black) {
+                    this.sendClientStartRequest(c);
+                }
+            }
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // A client finished initializing its match screen
+    protected void clientInitialized(ClientConnection client) {
+        this.matchLock.lock();
+
+        try {
+            if (!this.pendingInitialization.remove(client)) {
+                return;
+            }
+
+            if (this.state == MatchState.INITIALIZING && this.pendingInitialization.isEmpty()) {
+                this.beginTurn();
+            }
+            else if (this.state == MatchState.AWAITING_MOVE && client == this.currentPlayerInTurn) {
+                this.continueTurn(); // Resumed its session while in turn and had to set up its match screen again
+            }
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // A move arrived from a client. Runs on the room's shard and checks and applies the move in one go under the match lock,
+    // so no other event ever sees a move half applied and the match stays AWAITING_MOVE until the turn is handed over
+    protected void handleMove(ClientConnection client, Move moveMade) {
+        this.matchLock.lock();
+
+        try {
+            if (this.state != MatchState.AWAITING_MOVE || client != this.currentPlayerInTurn) {
+                System.out.println("Illegal move detected. A player sent a move while not in turn.");
+                return;
+            }
+
+            // The timer may fire a tick late or still be waiting for the shard, a move arriving after the deadline
+            // loses the turn all the same
+            if (this.timerPerTurnInMilliseconds > 0 && this.pausedTurnMillis < 0 && System.nanoTime() - this.turnTimeoutNanos > 0) {
+                this.timeOutTurn();
+                return;
+            }
+
+            int targetRow = moveMade.targetRow;
+            int targetCol = moveMade.targetCol;
+
+            BoardGeometry geometry = this.board.geometry;
+
+            if (!geometry.contains(targetRow, targetCol) || !this.board.isEmpty(geometry.pointOf(targetRow, targetCol))) {
+                System.out.println("Move on row " + targetRow + " and column " + targetCol + " is invalid."); // Still the same turn, the timer keeps running
+
+                try {
+                    client.send("INVALID_MOVE");
+                } catch (IOException e) {
+                    System.err.println("Failed to send INVALID_MOVE to client.");
+                }
+
+                return;
+            }
+
+            moveMade.moveMaker = (this.white == client) ? "WHITE" : "BLACK";
+            moveMade.sequence = this.board.getMoveCount() + 1;
+            this.board.place(geometry.pointOf(targetRow, targetCol), BitBoard.colorOf(moveMade.moveMaker));
+            this.replicate(RoomEvent.movePlayed(moveMade));
+
+            try {
+                client.send("VALID_MOVE");
+            } catch (IOException e) {
+                System.err.println("Failed to VALID_MOVE to client.");
+            }
+
+            this.updateAllClientBoard(moveMade);
+
+            if (!this.checkForMatchEnd()) {
+                this.handOffTurn();
+            }
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // The player in turn gives it up (after too many invalid moves)
+    protected void giveUpTurn(ClientConnection client) {
+        this.matchLock.lock();
+
+        try {
+            if (this.state == MatchState.AWAITING_MOVE && client == this.currentPlayerInTurn) {
+                this.handOffTurn();
+            }
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // Removes a player that left the room. Returns true if that aborted a running match
+    protected boolean removePlayer(ClientConnection client) {
+        this.matchLock.lock();
+
+        try {
+            if (this.white != client && this.black != client) {
+                return false;
+            }
+
+            if (this.white == client) {
+                this.white = null;
+                this.replicate(RoomEvent.ofColor(RoomEvent.Type.SEAT_RELEASED, "WHITE"));
+            }
+            else {
+                this.black = null;
+                this.replicate(RoomEvent.ofColor(RoomEvent.Type.SEAT_RELEASED, "BLACK"));
+            }
+
+            if (this.state != MatchState.ENDED) {
+                this.endMatch();
+                return true;
+            }
+
+            return false;
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // Ends the match
+    protected void endMatch() {
+        this.matchLock.lock();
+
+        try {
+            if (this.state == MatchState.ENDED) {
+                return;
+            }
+
+            System.out.println("ENDING MATCH...");
+
+            // Reset everything
+            this.state = MatchState.ENDED;
+            this.replicate(new RoomEvent(RoomEvent.Type.MATCH_ENDED));
+            this.cancelTurnTimeout();
+            this.pendingInitialization.clear();
+            this.matchInProgress = false;
+            this.hostServer.registry.reindex(this);
+            this.whiteRequestedRematch = false;
+            this.blackRequestedRematch = false;
+
+            boolean wasAnAbort;
+            this.pausedTurnMillis = -1;
+            if (this.white != null && this.black != null) {
+                System.out.println((this.winner == null) ? "DRAW!!!" : (this.winner == this.white ? "WHITE" : "BLACK") + " WON!!!");
+                wasAnAbort = false;
+            }
+            else {
+                wasAnAbort = true;
+                this.winner = (this.white == null) ? this.black : this.white; // Grants winner to the player that remains
+                System.out.println("Match aborted because a player left. " + (this.winner == this.white ? "White" : "Black" + " won by default."));
+            }
+
+            this.lastMatchAborted = wasAnAbort;
+
+            for (ClientConnection client : this.connectedClients) {
+                if (client.detached) {
+                    this.missedMatchEnd.add(client);
+                }
+            }
+
+            for (ClientConnection player : new ClientConnection[] {this.black, this.white}) {
+                if (player != null) {
+                    try {
+                        player.send(this.createEndResult(player, wasAnAbort));
+                    } catch (IOException e) {
+                        System.err.println("Failed to send end request to Client " + player.id);
+                    }
+                }
+            }
+
+            // Identical for every spectator, so it is encoded only once
+            this.relay.publish(new Broadcast(this.createEndResult(null, wasAnAbort)), this.black, this.white);
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    /// REPLICATION
+    // Replays this room's current state as events, for a standby that connected after the room was opened
+    protected void replicateState() {
+        this.matchLock.lock();
+
+        try {
+            if (!this.hostServer.registry.containsRoom(this)) {
+                return;
+            }
+
+            RoomEvent opened = RoomEvent.ofClient(RoomEvent.Type.ROOM_OPENED, this.roomCreator);
+            opened.roomName = this.roomName;
+            this.replicate(opened);
+            this.replicate(RoomEvent.settingsOf(this));
+
+            for (ClientConnection client : this.connectedClients) {
+                if (client != this.roomCreator) {
+                    this.replicate(RoomEvent.ofClient(RoomEvent.Type.CLIENT_JOINED, client));
+                }
+            }
+
+            if (this.state != MatchState.ENDED) {
+                this.replicate(RoomEvent.matchStarted(this.black, this.white, this.matchNumber));
+
+                for (int i = 0; i < this.board.getMoveCount(); i++) {
+                    this.replicate(RoomEvent.movePlayed(this.moveAt(i)));
+                }
+
+                this.replicate(RoomEvent.revealChances("BLACK", this.blackInvisibleModeRevealChances));
+                this.replicate(RoomEvent.revealChances("WHITE", this.whiteInvisibleModeRevealChances));
+
+                if (this.state != MatchState.INITIALIZING) {
+                    this.replicate(RoomEvent.ofColor(RoomEvent.Type.TURN_STARTED, this.colorOf(this.currentPlayerInTurn)));
+                }
+            }
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // Applies an event streamed from the primary. Only changes state, the clients are still connected to the primary.
+    // client and otherClient are the seats of the clients named in the event, if any
+    protected void applyReplicatedEvent(RoomEvent event, ClientConnection client, ClientConnection otherClient) {
+        this.matchLock.lock();
+
+        try {
+            switch (event.type) {
+                case SETTINGS_CHANGED:
+                    this.roomName = event.roomName;
+                    this.boardSize = event.boardSize;
+                    this.timerPerTurnInMilliseconds = event.timerPerTurnInMilliseconds;
+                    this.invisibleModeRevealChances = event.invisibleModeRevealChances;
+                    break;
+                case CLIENT_JOINED:
+                    this.addClient(client);
+                    break;
+                case CLIENT_LEFT:
+                    this.connectedClients.remove(client);
+                    this.hostServer.registry.reindex(this);
+                    break;
+                case MATCH_STARTED:
+                    this.matchNumber = event.matchNumber;
+                    this.black = client;
+                    this.white = otherClient;
+                    this.currentPlayerInTurn = this.black;
+                    this.blackInvisibleModeRevealChances = this.invisibleModeRevealChances;
+                    this.whiteInvisibleModeRevealChances = this.invisibleModeRevealChances;
+                    this.initializeBoard();
+                    this.missedMatchEnd.clear();
+                    this.winner = null;
+                    this.state = MatchState.INITIALIZING;
+                    this.pendingInitialization.clear();
+                    this.pendingInitialization.add(this.black);
+                    this.pendingInitialization.add(this.white);
+                    this.matchInProgress = true;
+                    this.hostServer.registry.reindex(this);
+                    break;
+                case MOVE_PLAYED: {
+                    this.board.place(this.board.geometry.pointOf(event.row, event.col), BitBoard.colorOf(event.color));
+                    break;
+                }
+                case TURN_STARTED:
+                    this.currentPlayerInTurn = event.color.equals("WHITE") ? this.white : this.black;
+                    this.state = MatchState.AWAITING_MOVE;
+                    this.pendingInitialization.clear();
+                    this.turn++;
+                    break;
+                case REVEAL_CHANCES_CHANGED:
+                    if (event.color.equals("WHITE")) {
+                        this.whiteInvisibleModeRevealChances = event.invisibleModeRevealChances;
+                    }
+                    else {
+                        this.blackInvisibleModeRevealChances = event.invisibleModeRevealChances;
+                    }
+                    break;
+                case SEAT_RELEASED:
+                    if (event.color.equals("WHITE")) {
+                        this.white = null;
+                    }
+                    else {
+                        this.black = null;
+                    }
+                    break;
+                case MATCH_ENDED:
+                    if (this.board != null && this.board.getOutcome() == OutcomeDetector.Outcome.WON) {
+                        this.winner = this.lastMover();
+                    }
+
+                    this.state = MatchState.ENDED;
+                    this.pendingInitialization.clear();
+                    this.matchInProgress = false;
+                    this.whiteRequestedRematch = false;
+                    this.blackRequestedRematch = false;
+                    this.hostServer.registry.reindex(this);
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // Called once this server took over from its primary: the turn in progress continues from here
+    protected void takeOver() {
+        this.matchLock.lock();
+
+        try {
+            if (this.state == MatchState.AWAITING_MOVE) {
+                this.beginTurn();
+            }
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // A client got its seat back after losing its connection. The new connection replaces the previous one everywhere
+    // in the room and only receives what it missed: the moves after the last one it has (by sequence) and, if the match
+    // ended meanwhile, the result. A client whose board is of another match sets up its match screen again
+    protected void resumeClient(ClientConnection previous, ClientConnection client, int clientMatchNumber, int lastMoveSequence) {
+        this.matchLock.lock();
+
+        try {
+            int index = this.connectedClients.indexOf(previous);
+
+            if (index < 0) {
+                return;
+            }
+
+            this.connectedClients.set(index, client);
+            this.relay.forget(previous);
+            this.roomCreator = (this.roomCreator == previous) ? client : this.roomCreator;
+            this.black = (this.black == previous) ? client : this.black;
+            this.white = (this.white == previous) ? client : this.white;
+            this.currentPlayerInTurn = (this.currentPlayerInTurn == previous) ? client : this.currentPlayerInTurn;
+            this.winner = (this.winner == previous) ? client : this.winner;
+            this.hostServer.registry.reindex(this);
+
+            boolean boardIsCurrent = clientMatchNumber == this.matchNumber && lastMoveSequence <= this.moveCount();
+            this.relay.synced(client); // Catches up below on everything published so far
+
+            if (this.state == MatchState.ENDED) {
+                if (this.missedMatchEnd.remove(previous) && boardIsCurrent) {
+                    this.sendMovesAfter(client, lastMoveSequence);
+
+                    try {
+                        client.send(this.createEndResult(client, this.lastMatchAborted));
+                    } catch (IOException e) {
+                        System.err.println("Failed to send end result to Client " + client.id);
+                    }
+                }
+            }
+            else if (!boardIsCurrent || this.pendingInitialization.contains(previous)) {
+                this.pendingInitialization.remove(previous);
+
+                if (client == this.black || client == this.white) {
+                    this.pendingInitialization.add(client);
+                }
+
+                this.sendClientStartRequest(client);
+            }
+            else {
+                int missed = this.moveCount() - lastMoveSequence;
+                this.sendMovesAfter(client, lastMoveSequence);
+                System.out.println("Client " + client.id + " caught up on " + missed + " move(s) in room " + this.roomId + ".");
+
+                if (this.state == MatchState.AWAITING_MOVE && client == this.currentPlayerInTurn) {
+                    this.continueTurn();
+                }
+            }
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    // A client lost its connection but keeps its seat. A player in turn has its clock paused, if configured
+    protected void clientDetached(ClientConnection client) {
+        this.matchLock.lock();
+
+        try {
+            if (this.state == MatchState.AWAITING_MOVE && client == this.currentPlayerInTurn && this.hostServer.config.pauseClockWhileAway) {
+                this.pauseTurnClock();
+            }
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    private String colorOf(ClientConnection player) {
+        return (player == this.white) ? "WHITE" : "BLACK";
+    }
+
+    // Starts the first turn even though a player has not finished setting up its screen
+    private void handleInitTimeout(int initializingMatch) {
+        this.matchLock.lock();
+
+        try {
+            if (this.state != MatchState.INITIALIZING || this.matchNumber != initializingMatch) {
+                return;
+            }
+
+            System.err.println(this.pendingInitialization.size() + " player(s) of room " + this.roomId + " did not finish initializing within " + this.hostServer.config.matchInitTimeoutMillis + " ms. Starting the match anyway.");
+            this.pendingInitialization.clear();
+            this.beginTurn();
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    /// MATCH STATE TRANSITIONS (called while holding matchLock)
+    // Asks the player in turn for a move and arms the turn timer
+    private void beginTurn() {
+        this.state = MatchState.AWAITING_MOVE;
+        this.turn++;
+        this.replicate(RoomEvent.ofColor(RoomEvent.Type.TURN_STARTED, this.colorOf(this.currentPlayerInTurn)));
+
+        this.pausedTurnMillis = -1;
+
+        // A player that is away gets its turn when it comes back, with the clock stopped until then
+        if (this.currentPlayerInTurn.detached && this.hostServer.config.pauseClockWhileAway) {
+            this.pausedTurnMillis = this.timerPerTurnInMilliseconds;
+            return;
+        }
+
+        this.armTurnTimer(this.timerPerTurnInMilliseconds);
+        this.sendMoveRequest(this.timerPerTurnInMilliseconds);
+    }
+
+    // Starts the clock of the turn and schedules a move skip for when it runs out. The player's time starts when the
+    // move request reaches it, half a round trip (as measured by the heartbeats) from now, and its move needs another
+    // half to get here, so the turn ends at turnDeadlineNanos and a move counts until turnTimeoutNanos
+    private void armTurnTimer(int milliseconds) {
+        if (this.timerPerTurnInMilliseconds > 0) {
+            int timedTurn = this.turn;
+            long oneWayNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, this.currentPlayerInTurn.getRoundTripMicros()) / 2);
+            this.turnDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(milliseconds) + oneWayNanos;
+            this.turnTimeoutNanos = this.turnDeadlineNanos + oneWayNanos;
+            this.turnTimeout = this.hostServer.timers.schedule(() -> this.shard.execute(() -> this.handleTurnTimeout(timedTurn)), this.turnTimeoutNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // The request carries the deadline on the server's clock, which the client has mapped onto its own from the
+    // heartbeats, so its countdown ends when the turn does no matter how long the request took
+    private void sendMoveRequest(int milliseconds) {
+        long deadlineMicros = (this.timerPerTurnInMilliseconds > 0) ? TimeUnit.NANOSECONDS.toMicros(this.turnDeadlineNanos) : 0;
+
+        try {
+            this.currentPlayerInTurn.send(new MoveRequest(milliseconds, deadlineMicros));
+        } catch (IOException e) {
+            System.err.println("Failed to send MoveRequest to client " + this.currentPlayerInTurn.id);
+        }
+    }
+
+    // Stops the clock of the turn in progress, keeping the time that was left
+    private void pauseTurnClock() {
+        if (this.pausedTurnMillis >= 0) {
+            return;
+        }
+
+        this.pausedTurnMillis = this.remainingTurnMillis();
+        this.cancelTurnTimeout();
+        this.turn++;
+        System.out.println("Paused the turn clock of room " + this.roomId + " with " + this.pausedTurnMillis + " ms left.");
+    }
+
+    // Asks the player in turn for its move again after it resumed its session. The clock goes on from where it was paused,
+    // or keeps running if it never was
+    private void continueTurn() {
+        int remaining = (this.pausedTurnMillis >= 0) ? this.pausedTurnMillis : this.remainingTurnMillis();
+
+        if (this.pausedTurnMillis >= 0) {
+            this.pausedTurnMillis = -1;
+            this.armTurnTimer(Math.max(1, remaining));
+        }
+
+        this.sendMoveRequest(remaining);
+    }
+
+    private int remainingTurnMillis() {
+        if (this.timerPerTurnInMilliseconds <= 0) {
+            return 0;
+        }
+
+        return (int) Math.max(0, TimeUnit.NANOSECONDS.toMillis(this.turnDeadlineNanos - System.nanoTime()));
+    }
+
+    private void handOffTurn() {
+        this.cancelTurnTimeout();
+        this.currentPlayerInTurn = (this.currentPlayerInTurn == this.white) ? this.black : this.white;
+        this.beginTurn();
+    }
+
+    private void cancelTurnTimeout() {
+        if (this.turnTimeout != null) {
+            this.turnTimeout.cancel();
+            this.turnTimeout = null;
+        }
+    }
+
+    private void handleTurnTimeout(int timedTurn) {
+        this.matchLock.lock();
+
+        try {
+            // The turn may have been handed off while this timeout was on its way
+            if (this.state != MatchState.AWAITING_MOVE || this.turn != timedTurn) {
+                return;
+            }
+
+            this.timeOutTurn();
+        } finally {
+            this.matchLock.unlock();
+        }
+    }
+
+    private void timeOutTurn() {
+        System.err.println(String.format("%.1f", this.timerPerTurnInMilliseconds / 1000.0) + " seconds HAS PASSED!!!!!");
+
+        try {
+            this.currentPlayerInTurn.send("MOVE_TIMEOUT");
+        } catch (IOException e) {
+            System.err.println("Error sending MOVE_TIMEOUT to client");
+        }
+
+        this.handOffTurn();
+    }
+
+    // Updates all client board in the room after a move is made. The move is encoded once for everyone. The players get
+    // it right away, the spectators through the relay
+    private void updateAllClientBoard(Move moveMade) {
+        System.out.println(moveMade.targetCol + ":" + moveMade.targetRow);
+        Broadcast move = new Broadcast(moveMade);
+
+        for (ClientConnection player : new ClientConnection[] {this.black, this.white}) {
+            try {
+                if (player != null) {
+                    player.send(move);
+                }
+            } catch (IOException e) {
+                System.out.println("Failed to send updated move to Client " + player.id + ".");
+            }
+        }
+
+        this.relay.publish(move, this.black, this.white);
+    }
+
+    // A new board for the match that starts. Boards are not reused, the snapshots tell them apart by identity
+    private void initializeBoard() {
+        this.board = new BitBoard(BoardGeometry.of(this.boardSize));
+    }
+
+    // Moves are only kept in the board's move log, and turned back into Move messages when a client catches up
+    private int moveCount() {
+        return (this.board == null) ? 0 : this.board.getMoveCount(); // No board before the first match
+    }
+
+    // The move of the specified index, 0 being the first move of the match
+    private Move moveAt(int index) {
+        int coded = this.board.getMove(index);
+        int point = BitBoard.pointOfMove(coded);
+
+        Move move = new Move(this.board.geometry.rowOf(point), this.board.geometry.colOf(point));
+        move.moveMaker = BitBoard.nameOf(BitBoard.colorOfMove(coded));
+        move.sequence = index + 1;
+
+        return move;
+    }
+
+    // The player who placed the last stone
+    private ClientConnection lastMover() {
+        return (BitBoard.colorOfMove(this.board.getMove(this.board.getMoveCount() - 1)) == BitBoard.WHITE) ? this.white : this.black;
+    }
+
+    // Sends the moves after the given sequence, in order
+    private void sendMovesAfter(ClientConnection client, int lastMoveSequence) {
+        for (int i = Math.max(0, lastMoveSequence); i < this.moveCount(); i++) {
+            try {
+                client.send(this.moveAt(i));
+            } catch (IOException e) {
+                System.err.println("Failed to send missed move to Client " + client.id);
+                return;
+            }
+        }
+    }
+
+    // Sends the match snapshot to the specified client for initialization. Players answer with FINISHED_INITIALIZING.
+    // Spectators share one snapshot per move. Called while holding matchLock
+    private void sendClientStartRequest(ClientConnection client) {
+        try {
+            if (client == this.white || client == this.black) {
+                client.send(this.createMatchStart(client));
+            }
+            else {
+                this.expireSnapshots();
+
+                if (this.spectatorSnapshot == null) {
+                    this.spectatorSnapshot = new Broadcast(this.createMatchStart(client));
+                }
+
+                client.send(this.spectatorSnapshot);
+            }
+
+            if (client != this.white && client != this.black) {
+                this.relay.synced(client);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to send the match snapshot to Client " + client.id);
+        }
+    }
+
+    // Drops the snapshots once the board they were taken of changed
+    private void expireSnapshots() {
+        int moveCount = (this.board == null) ? 0 : this.board.getMoveCount(); // No board before the first match
+
+        if (this.snapshotBoard != this.board || this.snapshotMoveCount != moveCount) {
+            this.snapshotBoard = this.board;
+            this.snapshotMoveCount = moveCount;
+            this.spectatorSnapshot = null;
+            this.boardSnapshot = null;
+        }
+    }
+
+    private MatchStart createMatchStart(ClientConnection client) {
+        if (client == this.white) {
+            return new MatchStart("WHITE", this.board.toBoard(this.matchNumber), this.timerPerTurnInMilliseconds, this.whiteInvisibleModeRevealChances);
+        }
+        else if (client == this.black) {
+            return new MatchStart("BLACK", this.board.toBoard(this.matchNumber), this.timerPerTurnInMilliseconds, this.blackInvisibleModeRevealChances);
+        }
+
+        return new MatchStart("SPECTATOR", this.board.toBoard(this.matchNumber), this.timerPerTurnInMilliseconds, -1);
+    }
+
+    // Creates the message that tells the specified client that the match ended
+    private MatchEndResult createEndResult(ClientConnection client, boolean wasAnAbort) {
+        MatchEndResult result = new MatchEndResult();
+
+        if (this.winner != null) {
+            result.wasAnAbort = wasAnAbort;
+
+            if (client == this.winner) {
+                result.winner = true;
+            }
+            else if (client == this.white || client == this.black) {
+                result.loser = true;
+            }
+            else {
+                result.spectator = true;
+            }
+
+            result.colorThatWon = (this.winner == this.white) ? "WHITE" : "BLACK";
+        }
+        else if (this.board != null && this.board.getOutcome() != OutcomeDetector.Outcome.UNDECIDED) {
+            result.isDraw = true;
+            result.spectator = client != this.white && client != this.black;
+        }
+
+        return result;
+    }
+
+    // Ends the match if the last move decided it: a straight-five wins, and a full board or one where neither player
+    // can make five anymore is a draw
+    private boolean checkForMatchEnd() {
+        switch (this.board.getOutcome()) {
+            case WON:
+                this.winner = this.lastMover();
+                break;
+            case DRAWN:
+            case DEAD_DRAWN:
+                System.out.println("Match in room " + this.roomId + " is drawn after " + this.board.getMoveCount() + " moves (" + this.board.getOutcome() + ").");
+                this.winner = null;
+                break;
+            default:
+                return false;
+        }
+
+        this.endMatch();
+
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package gomokugame.server;
+
+import gomokugame.objects.Move;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// One change of a room's state, as streamed from a primary server to its hot standby. Events of a room are appended
+// on the room's shard right after the change, so replaying them in sequence order rebuilds the room exactly
+public class RoomEvent {
+    public enum Type {
+        ROOM_OPENED, // roomName, client = creator
+        SETTINGS_CHANGED, // boardSize, timerPerTurnInMilliseconds, invisibleModeRevealChances
+        CLIENT_JOINED, // client
+        CLIENT_LEFT, // client
+        MATCH_STARTED, // client = black, otherClientToken = white, matchNumber
+        MOVE_PLAYED, // row, col, color
+        TURN_STARTED, // color in turn
+        REVEAL_CHANCES_CHANGED, // color, invisibleModeRevealChances
+        SEAT_RELEASED, // color of the player that left the match screen
+        MATCH_ENDED,
+        ROOM_CLOSED,
+        HEARTBEAT // Not part of any room, keeps an idle stream alive
+    }
+
+    public final Type type;
+    public long sequence; // Position in the stream, assigned by the ReplicationLog
+    public int roomId;
+    public String clientToken; // Session token of the client concerned
+    public String clientId;
+    public String otherClientToken;
+    public String roomName;
+    public int boardSize;
+    public int timerPerTurnInMilliseconds;
+    public int invisibleModeRevealChances;
+    public int row;
+    public int col;
+    public String color; // WHITE or BLACK
+    public int matchNumber;
+
+    public RoomEvent(Type type) {
+        this.type = type;
+    }
+
+    // Fixed layout: type, sequence, room id, then the fields; strings are nullable
+    protected void writeTo(DataOutputStream out) throws IOException {
+        out.writeByte(this.type.ordinal());
+        out.writeLong(this.sequence);
+        out.writeInt(this.roomId);
+        writeNullableString(out, this.clientToken);
+        writeNullableString(out, this.clientId);
+        writeNullableString(out, this.otherClientToken);
+        writeNullableString(out, this.roomName);
+        out.writeInt(this.boardSize);
+        out.writeInt(this.timerPerTurnInMilliseconds);
+        out.writeInt(this.invisibleModeRevealChances);
+        out.writeByte(this.row);
+        out.writeByte(this.col);
+        writeNullableString(out, this.color);
+        out.writeInt(this.matchNumber);
+    }
+
+    protected static RoomEvent readFrom(DataInputStream in) throws IOException {
+        int type = in.readUnsignedByte();
+
+        if (type >= Type.values().length) {
+            throw new IOException("Unknown room event type " + type + ".");
+        }
+
+        RoomEvent event = new RoomEvent(Type.values()[type]);
+        event.sequence = in.readLong();
+        event.roomId = in.readInt();
+        event.clientToken = readNullableString(in);
+        event.clientId = readNullableString(in);
+        event.otherClientToken = readNullableString(in);
+        event.roomName = readNullableString(in);
+        event.boardSize = in.readInt();
+        event.timerPerTurnInMilliseconds = in.readInt();
+        event.invisibleModeRevealChances = in.readInt();
+        event.row = in.readUnsignedByte();
+        event.col = in.readUnsignedByte();
+        event.color = readNullableString(in);
+        event.matchNumber = in.readInt();
+
+        return event;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    protected static RoomEvent ofClient(Type type, ClientConnection client) {
+        RoomEvent event = new RoomEvent(type);
+        event.clientToken = client.sessionToken;
+        event.clientId = client.id;
+
+        return event;
+    }
+
+    protected static RoomEvent settingsOf(Room room) {
+        RoomEvent event = new RoomEvent(Type.SETTINGS_CHANGED);
+        event.roomName = room.roomName;
+        event.boardSize = room.boardSize;
+        event.timerPerTurnInMilliseconds = room.timerPerTurnInMilliseconds;
+        event.invisibleModeRevealChances = room.invisibleModeRevealChances;
+
+        return event;
+    }
+
+    protected static RoomEvent matchStarted(ClientConnection black, ClientConnection white, int matchNumber) {
+        RoomEvent event = ofClient(Type.MATCH_STARTED, black);
+        event.otherClientToken = white.sessionToken;
+        event.matchNumber = matchNumber;
+
+        return event;
+    }
+
+    protected static RoomEvent movePlayed(Move move) {
+        RoomEvent event = new RoomEvent(Type.MOVE_PLAYED);
+        event.row = move.targetRow;
+        event.col = move.targetCol;
+        event.color = move.moveMaker;
+
+        return event;
+    }
+
+    protected static RoomEvent ofColor(Type type, String color) {
+        RoomEvent event = new RoomEvent(type);
+        event.color = color;
+
+        return event;
+    }
+
+    protected static RoomEvent revealChances(String color, int chances) {
+        RoomEvent event = ofColor(Type.REVEAL_CHANCES_CHANGED, color);
+        event.invisibleModeRevealChances = chances;
+
+        return event;
+    }
+}
@@ -0,0 +1,41 @@
+package gomokugame.server;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// One worker loop owning a fixed share of the rooms (by room id). Every event of a room runs here, one at a time,
+// so a room's state is only ever touched by its shard's thread
+public class RoomShard implements Executor, Runnable {
+    private final LinkedBlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    protected final int index;
+
+    public RoomShard(int index) {
+        this.index = index;
+        this.thread = new Thread(this, "gomoku-shard-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    protected void start() {
+        this.thread.start();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        this.tasks.add(task);
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                this.tasks.take().run();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // One failing room event must not stop every other room of the shard
+                System.err.println("Room shard " + this.index + " failed to run an event: " + e);
+            }
+        }
+    }
+}
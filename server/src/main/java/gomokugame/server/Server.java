@@ -0,0 +1,340 @@
+package gomokugame.server;
+
+import gomokugame.protocol.Handshake;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Server implements Runnable {
+    private ServerSocket server; // Used by the BLOCKING transport
+    private ServerSocketChannel serverChannel; // Used by the NIO transport
+    private NioTransport nioTransport;
+    private final int port;
+    protected final ServerConfig config;
+    protected ExecutorService threadPool; // Shared by the accept loop, every ClientConnection and the expired timers
+    protected RoomShard[] shards; // Every room belongs to exactly one shard, picked by its room id
+    protected TimingWheel timers; // Shared by every delayed action (turn timeouts, delayed leaves, lobby updates)
+    protected final ServerRegistry registry; // Connected clients and open rooms
+    protected DirectoryLink directoryLink; // Null unless this node is part of a multi-node setup
+    protected ReplicationLog replication; // Null unless a hot standby may follow this server
+    protected StandbyReplica standby; // Null unless this server started as the hot standby of another
+    protected LobbyState lobby; // The room list as published to the clients
+    private final ConcurrentHashMap<InetAddress, Integer> connectionsPerAddress = new ConcurrentHashMap<>(); // Only kept with gomoku.maxConnectionsPerAddress set
+    protected final LongAdder refusedConnections = new LongAdder();
+    protected final LongAdder rateLimitedMessages = new LongAdder();
+    protected final LongAdder idleDisconnects = new LongAdder();
+
+    // Opens up the Server using constructor
+    public Server(int port) {
+        this(port, new ServerConfig());
+    }
+
+    public Server(int port, ServerConfig config) {
+        this.port = port;
+        this.config = config;
+        this.registry = new ServerRegistry(config.nodeId);
+
+        try {
+            if (this.config.transport == Transport.NIO) {
+                this.serverChannel = ServerSocketChannel.open();
+                this.serverChannel.bind(new InetSocketAddress(port));
+            }
+            else {
+                this.server = new ServerSocket(port);
+            }
+        } catch (IOException e) {
+            // Failed to open, so make it null
+            this.closeQuietly();
+            this.server = null; // Just to make sure
+            this.serverChannel = null;
+            System.err.println("Server could not start on port " + port + ". Possibly due to port already in use or invalid port.");
+        }
+    }
+
+    @Override
+    public void run() {
+        // If server fails to open then just terminate the process
+        if (!this.success()) {
+            return;
+        }
+
+        // Setup variables
+        this.lobby = new LobbyState(this);
+        this.threadPool = this.config.threadModel.newExecutor();
+        this.shards = new RoomShard[this.config.roomShards];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new RoomShard(i);
+            this.shards[i].start();
+        }
+        this.timers = new TimingWheel(this.config.timerTickMillis, this.threadPool);
+        this.timers.start();
+        if (this.config.replicationPort > 0 && (this.config.replicationSecret == null || this.config.standbyAddress == null)) {
+            System.err.println("Replication needs gomoku.replicationSecret and gomoku.standbyAddress. Running without a hot standby.");
+        }
+        else if (this.config.replicationPort > 0) {
+            try {
+                this.replication = new ReplicationLog(this, this.config.replicationPort);
+                this.threadPool.execute(this.replication);
+            } catch (IOException e) {
+                System.err.println("Server could not open replication port " + this.config.replicationPort + " on " + this.config.replicationBindAddress + ". Running without a hot standby.");
+            }
+        }
+        if (this.config.heartbeatIntervalMillis > 0) {
+            this.timers.scheduleAtFixedRate(this::checkHeartbeats, this.config.heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        if (this.config.statsIntervalMillis > 0) {
+            this.timers.scheduleAtFixedRate(this::logOutboundStatistics, this.config.statsIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        // A standby only starts serving once it took over from its primary. Clients connecting before wait in the backlog
+        if (this.config.standbyOf != null) {
+            if (this.config.replicationSecret == null) {
+                System.err.println("A hot standby needs gomoku.replicationSecret, the primary will reject it.");
+            }
+            this.standby = new StandbyReplica(this, this.config.standbyOf);
+            this.threadPool.execute(this.standby);
+            return;
+        }
+
+        this.startServing();
+    }
+
+    // Called by the standby once its primary is gone: every replicated match continues here, and every client
+    // of the primary keeps its seat for the session grace period
+    protected void takeOver() {
+        for (Room room : this.registry.getRooms()) {
+            room.shard.execute(() -> {
+                for (ClientConnection c : room.connectedClients) {
+                    if (c.connectedRoom == room) {
+                        c.detach();
+                    }
+                }
+
+                room.takeOver();
+                this.lobby.roomChanged(room);
+            });
+        }
+
+        this.startServing();
+    }
+
+    private void startServing() {
+        if (this.config.directoryAddress != null) {
+            this.directoryLink = new DirectoryLink(this, this.config.directoryAddress);
+            this.threadPool.execute(this.directoryLink);
+        }
+
+        System.out.println("Server started on port " + this.port + " using " + this.config.transport + " transport, " + this.config.threadModel + " threads and " + this.shards.length + " room shards. Waiting for connections...");
+
+        // Listen for ClientConnection on a separate thread (or on the NIO event loops)
+        if (this.config.transport == Transport.NIO) {
+            try {
+                this.nioTransport = new NioTransport(this, this.serverChannel, this.config.ioThreads);
+                this.nioTransport.start();
+            } catch (IOException e) {
+                System.err.println("Server on port " + this.port + " failed to start its NIO event loops.");
+                this.closeQuietly();
+            }
+        }
+        else {
+            this.listenForClientConnections();
+        }
+    }
+
+    public boolean success() {
+        return this.server != null || this.serverChannel != null;
+    }
+
+    // Admission control, called by the accepting thread before anything is set up for the connection. False if the
+    // server or the address is at its connection limit. The caller then turns the connection away with turnAway
+    protected boolean admit(InetAddress address) {
+        if (this.config.maxConnections > 0 && this.registry.getConnectionCount() >= this.config.maxConnections) {
+            this.refusedConnections.increment();
+            return false;
+        }
+
+        if (this.config.maxConnectionsPerAddress > 0) {
+            boolean[] admitted = {false};
+
+            this.connectionsPerAddress.compute(address, (a, count) -> {
+                int connections = (count == null) ? 0 : count;
+                admitted[0] = connections < this.config.maxConnectionsPerAddress;
+
+                return admitted[0] ? connections + 1 : count;
+            });
+
+            if (!admitted[0]) {
+                this.refusedConnections.increment();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Registers a freshly accepted and admitted connection (called by every transport)
+    protected void addClient(ClientConnection clientConnection, InetAddress address) {
+        clientConnection.remoteAddress = address;
+        this.registry.addConnection(clientConnection);
+    }
+
+    // Frees the admission slot of a connection that is gone
+    protected void releaseClient(ClientConnection clientConnection) {
+        if (this.config.maxConnectionsPerAddress > 0 && clientConnection.remoteAddress != null) {
+            this.connectionsPerAddress.computeIfPresent(clientConnection.remoteAddress, (a, count) -> (count > 1) ? count - 1 : null);
+        }
+    }
+
+    protected RoomShard shardFor(int roomId) {
+        return this.shards[Math.floorMod(ServerRegistry.shardKeyOf(roomId), this.shards.length)];
+    }
+
+    // Where clients reach this node, shown with each of its rooms
+    protected String getAdvertisedAddress() {
+        return this.config.advertisedHost + ":" + this.port;
+    }
+
+    // The shard a new room of this creator goes to. Spreads creators evenly without any shared counter
+    protected int shardIndexFor(ClientConnection creator) {
+        return Math.floorMod(creator.id.hashCode(), this.shards.length);
+    }
+
+    // Listens for ClientConnection
+    private void listenForClientConnections() {
+        this.threadPool.execute(() -> {
+            while (!this.server.isClosed()) {
+                try {
+                    Socket client = this.server.accept();
+
+                    if (!this.admit(client.getInetAddress())) {
+                        turnAway(client);
+                        continue;
+                    }
+
+                    BlockingClientConnection clientConnection = new BlockingClientConnection(client, this);
+                    this.addClient(clientConnection, client.getInetAddress());
+                    this.threadPool.execute(clientConnection);
+                    System.out.println("Accepted connection from " + client.getInetAddress().getHostAddress() + ":" + client.getPort());
+                } catch (IOException e) {
+                    System.err.println("Server on port " + this.port + " failed to accept a client.");
+                }
+            }
+        });
+    }
+
+    // The server's monotonic clock, which heartbeats and turn deadlines are given in
+    protected static long clockMicros() {
+        return System.nanoTime() / 1000;
+    }
+
+    // Pings every client, and disconnects the ones that sent nothing for gomoku.idleTimeoutMillis. Their seats are kept
+    // for the session grace period like after any other lost connection. Applies to every connection: one that never
+    // finishes the handshake is only not pinged, and is dropped the same way
+    private void checkHeartbeats() {
+        long now = System.nanoTime();
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(this.config.idleTimeoutMillis);
+
+        for (ClientConnection c : this.registry.getConnections()) {
+            long idleNanos = now - c.lastReceivedNanos;
+
+            if (idleNanos > idleTimeoutNanos) {
+                System.err.println("Client " + c.id + " sent nothing for " + TimeUnit.NANOSECONDS.toMillis(idleNanos) + " ms. Disconnecting it.");
+                this.idleDisconnects.increment();
+                this.threadPool.execute(c::close);
+            }
+            else if (c.isReady()) {
+                c.sendHeartbeat();
+            }
+        }
+    }
+
+    // Tells a connection that was not admitted that the server is full and closes it. The reply fits into any socket
+    // buffer, so this never blocks the accepting thread
+    private static void turnAway(Socket client) {
+        try (client) {
+            client.getOutputStream().write(Handshake.serverFull());
+            client.shutdownOutput();
+        } catch (IOException ignored) {
+            // The client is gone already
+        }
+    }
+
+    // Logs how far behind the clients' outbound queues are and how long queued messages wait until they are flushed
+    protected void logOutboundStatistics() {
+        int clients = 0;
+        int measuredClients = 0;
+        long totalRoundTripMicros = 0;
+        int maxRoundTripMicros = 0;
+        long queued = 0;
+        int maxDepth = 0;
+        long flushes = 0;
+        long frames = 0;
+        long totalLatencyNanos = 0;
+        long maxLatencyNanos = 0;
+
+        for (ClientConnection c : this.registry.getConnections()) {
+            OutboundQueue outbound = c.outbound;
+            clients++;
+            int roundTripMicros = c.getRoundTripMicros();
+
+            if (roundTripMicros >= 0) {
+                measuredClients++;
+                totalRoundTripMicros += roundTripMicros;
+                maxRoundTripMicros = Math.max(maxRoundTripMicros, roundTripMicros);
+            }
+
+            queued += outbound.getDepth();
+            maxDepth = Math.max(maxDepth, outbound.getMaxDepth());
+            flushes += outbound.getFlushCount();
+            frames += outbound.getFramesWritten();
+            totalLatencyNanos += outbound.getTotalFlushLatencyNanos();
+            maxLatencyNanos = Math.max(maxLatencyNanos, outbound.getMaxFlushLatencyNanos());
+        }
+
+        long resyncs = 0;
+        for (Room room : this.registry.getRooms()) {
+            resyncs += room.relay.getResyncCount();
+        }
+
+        System.out.println(String.format(
+                "Rooms: %d open, %d with open seats, %d in match, %d pending timers, %d spectator resyncs",
+                this.registry.getRoomCount(), this.registry.getRoomsWithOpenSeats().size(), this.registry.getRoomsInMatch().size(), this.timers.getPendingCount(), resyncs));
+        System.out.println(String.format(
+                "Outbound: %d clients, %d queued (max depth %d), %d flushes, %.1f messages/flush, flush latency avg %.1f us / max %.1f us",
+                clients, queued, maxDepth, flushes,
+                (flushes == 0) ? 0.0 : frames / (double) flushes,
+                (flushes == 0) ? 0.0 : totalLatencyNanos / 1000.0 / flushes,
+                maxLatencyNanos / 1000.0));
+
+        System.out.println(String.format(
+                "Admission: %d connections (limit %d), %d refused, %d messages rate limited",
+                clients, this.config.maxConnections, this.refusedConnections.sum(), this.rateLimitedMessages.sum()));
+        System.out.println(String.format(
+                "Heartbeats: round trip avg %.2f ms / max %.2f ms over %d clients, %d idle clients disconnected",
+                (measuredClients == 0) ? 0.0 : totalRoundTripMicros / 1000.0 / measuredClients, maxRoundTripMicros / 1000.0,
+                measuredClients, this.idleDisconnects.sum()));
+
+        if (this.replication != null) {
+            System.out.println(this.replication.getStatistics());
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            if (this.server != null) {
+                this.server.close();
+            }
+            if (this.serverChannel != null) {
+                this.serverChannel.close();
+            }
+        } catch (IOException e) {
+            // Nothing else to release
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package gomokugame.server;
+
+// Startup options of a Server. Each option can be overridden with a -Dgomoku.* system property
+public class ServerConfig {
+    public ThreadModel threadModel = ThreadModel.PLATFORM;
+    public Transport transport = Transport.BLOCKING;
+    public int ioThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())); // NIO event loops
+    public int roomShards = Runtime.getRuntime().availableProcessors(); // Worker loops the rooms are partitioned across
+    public int maxOutboundFrames = 4096; // Unsent messages a client may pile up before it is dropped as too slow
+    public int statsIntervalMillis = 0; // How often the server logs outbound queue statistics, 0 turns it off
+    public int timerTickMillis = 10; // Resolution of the server's timers, every timeout fires at most one tick late
+    public int nodeId = 0; // Unique per server node (0-255) when several nodes share a room directory
+    public String advertisedHost = "localhost"; // Host other nodes send clients to when they join a room on this node
+    public String directoryAddress = null; // host:port of the room directory, null runs a single standalone node
+    public int lobbyDebounceMillis = 100; // How long room list changes are collected before they are published as one delta
+    public int replicationPort = 0; // Where a hot standby can follow this server's room events, 0 turns replication off
+    public String replicationBindAddress = "127.0.0.1"; // Interface the replication port listens on. The event stream carries every client's session token
+    public String replicationSecret = null; // Shared by a primary and its standby, which sends it first. Replication stays off without it
+    public String standbyAddress = null; // host:port of the standby that clients are sent to if this server dies. Replication stays off without it
+    public String standbyOf = null; // host:replicationPort of the primary to follow as its hot standby, null runs as a primary
+    public int failoverTimeoutMillis = 3000; // How long a standby waits for a silent primary before taking over
+    public int sessionGraceMillis = 30000; // How long a disconnected client keeps its seat to resume its session, 0 frees it right away
+    public boolean pauseClockWhileAway = true; // Whether the turn clock of a disconnected player stops until it resumes
+    public int matchInitTimeoutMillis = 5000; // How long a match waits for its players to set up their screens before the first turn starts anyway
+    public int spectatorBufferFrames = 64; // Unsent messages a spectator may have before it is skipped and later resynced from a snapshot
+    public int maxConnections = 20000; // Connections beyond this are turned away right after accepting them, 0 means no limit
+    public int maxConnectionsPerAddress = 0; // Same for the connections coming from one IP address, 0 means no limit
+    public int gameMessagesPerSecond = 50; // Moves and match control a client may send, on average. Bursts of twice that pass. 0 means no limit
+    public int lobbyMessagesPerSecond = 10; // Same for room list, room and session messages
+    public int heartbeatIntervalMillis = 1000; // How often every client is pinged to measure its round trip, 0 turns heartbeats off
+    public int idleTimeoutMillis = 5000; // A client that sent nothing (not even a heartbeat reply) for this long is disconnected
+    public boolean allowSerializedClients = false; // Whether clients may pick the Java serialization wire format. Off by default, only BINARY is offered
+
+    // Reads every option from the system properties, keeping the defaults for missing ones
+    public static ServerConfig fromSystemProperties() {
+        ServerConfig config = new ServerConfig();
+
+        config.threadModel = readEnum("gomoku.threadModel", ThreadModel.class, config.threadModel);
+        config.transport = readEnum("gomoku.transport", Transport.class, config.transport);
+        config.ioThreads = Math.max(1, readInt("gomoku.ioThreads", config.ioThreads));
+        config.roomShards = Math.max(1, readInt("gomoku.roomShards", config.roomShards));
+        config.maxOutboundFrames = Math.max(1, readInt("gomoku.maxOutboundFrames", config.maxOutboundFrames));
+        config.statsIntervalMillis = Math.max(0, readInt("gomoku.statsIntervalMillis", config.statsIntervalMillis));
+        config.timerTickMillis = Math.max(1, readInt("gomoku.timerTickMillis", config.timerTickMillis));
+        config.nodeId = Math.min(ServerRegistry.MAX_NODES - 1, Math.max(0, readInt("gomoku.nodeId", config.nodeId)));
+        config.advertisedHost = readString("gomoku.advertisedHost", config.advertisedHost);
+        config.directoryAddress = readString("gomoku.directory", config.directoryAddress);
+        config.lobbyDebounceMillis = Math.max(0, readInt("gomoku.lobbyDebounceMillis", config.lobbyDebounceMillis));
+        config.replicationPort = Math.max(0, readInt("gomoku.replicationPort", config.replicationPort));
+        config.replicationBindAddress = readString("gomoku.replicationBindAddress", config.replicationBindAddress);
+        config.replicationSecret = readString("gomoku.replicationSecret", config.replicationSecret);
+        config.standbyAddress = readString("gomoku.standbyAddress", config.standbyAddress);
+        config.standbyOf = readString("gomoku.standbyOf", config.standbyOf);
+        config.failoverTimeoutMillis = Math.max(1, readInt("gomoku.failoverTimeoutMillis", config.failoverTimeoutMillis));
+        config.sessionGraceMillis = Math.max(0, readInt("gomoku.sessionGraceMillis", config.sessionGraceMillis));
+        config.pauseClockWhileAway = readBoolean("gomoku.pauseClockWhileAway", config.pauseClockWhileAway);
+        config.matchInitTimeoutMillis = Math.max(1, readInt("gomoku.matchInitTimeoutMillis", config.matchInitTimeoutMillis));
+        config.spectatorBufferFrames = Math.max(1, readInt("gomoku.spectatorBufferFrames", config.spectatorBufferFrames));
+        config.maxConnections = Math.max(0, readInt("gomoku.maxConnections", config.maxConnections));
+        config.maxConnectionsPerAddress = Math.max(0, readInt("gomoku.maxConnectionsPerAddress", config.maxConnectionsPerAddress));
+        config.gameMessagesPerSecond = Math.max(0, readInt("gomoku.gameMessagesPerSecond", config.gameMessagesPerSecond));
+        config.lobbyMessagesPerSecond = Math.max(0, readInt("gomoku.lobbyMessagesPerSecond", config.lobbyMessagesPerSecond));
+        config.heartbeatIntervalMillis = Math.max(0, readInt("gomoku.heartbeatIntervalMillis", config.heartbeatIntervalMillis));
+        config.idleTimeoutMillis = Math.max(1, readInt("gomoku.idleTimeoutMillis", config.idleTimeoutMillis));
+        config.allowSerializedClients = readBoolean("gomoku.allowSerializedClients", config.allowSerializedClients);
+
+        return config;
+    }
+
+    private static <E extends Enum<E>> E readEnum(String property, Class<E> type, E defaultValue) {
+        String value = System.getProperty(property);
+
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown value " + value + " for " + property + ". Falling back to " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+
+    private static String readString(String property, String defaultValue) {
+        String value = System.getProperty(property);
+
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+
+    private static boolean readBoolean(String property, boolean defaultValue) {
+        String value = System.getProperty(property);
+
+        return (value == null || value.isBlank()) ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    private static int readInt(String property, int defaultValue) {
+        String value = System.getProperty(property);
+
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number " + value + " for " + property + ". Falling back to " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package gomokugame.server;
+
+// Runs a server node without any GUI. Needs only the core and server modules, no JavaFX and no display, e.g.:
+//   java -cp core/target/classes:server/target/classes gomokugame.server.ServerLauncher 9090 --threadModel=VIRTUAL --maxConnections=50000
+// Every --name=value argument sets the gomoku.name property (see ServerConfig), overriding -Dgomoku.name. To start
+// several nodes behind one room directory:
+//   java gomokugame.directory.RoomDirectory 9080
+//   java gomokugame.server.ServerLauncher 9090 --nodeId=1 --directory=localhost:9080
+//   java gomokugame.server.ServerLauncher 9091 --nodeId=2 --directory=localhost:9080
+public class ServerLauncher {
+    public static final int DEFAULT_PORT = 9090;
+    private static final String USAGE = "Usage: ServerLauncher [port] [--name=value ...], e.g. --transport=NIO --threadModel=VIRTUAL --maxConnections=20000";
+
+    public static void main(String[] args) throws InterruptedException {
+        long launchNanos = System.nanoTime();
+        int port = Integer.getInteger("gomoku.port", DEFAULT_PORT);
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+
+            if (arg.startsWith("--") && separator > 2) {
+                System.setProperty("gomoku." + arg.substring(2, separator), arg.substring(separator + 1));
+            }
+            else if (arg.matches("\\d+")) {
+                port = Integer.parseInt(arg);
+            }
+            else {
+                System.err.println("Unknown argument " + arg + ". " + USAGE);
+                System.exit(2);
+            }
+        }
+
+        Server server = new Server(port, ServerConfig.fromSystemProperties());
+
+        if (!server.success()) {
+            System.exit(1);
+        }
+
+        server.run();
+        System.out.println(String.format("Server ready %.0f ms after launch.", (System.nanoTime() - launchNanos) / 1e6));
+        Thread.currentThread().join(); // The server runs on its own threads, some of them daemons
+    }
+}
@@ -0,0 +1,204 @@
+package gomokugame.server;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Every connected client and every open room of a Server. Safe to use from any connection thread,
+// lookups by id are O(1) and ids are handed out by counters so they never collide.
+public class ServerRegistry {
+    private final ConcurrentHashMap<String, ClientConnection> connections = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Room> rooms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ClientConnection> sessions = new ConcurrentHashMap<>(); // By session token, includes disconnected clients that may still resume
+    private final AtomicInteger nextConnectionId = new AtomicInteger();
+    private final AtomicInteger nextRoomId = new AtomicInteger(1);
+    private final int nodeId;
+    // Secondary indexes, kept up to date by reindex()
+    private final Set<Room> roomsWithOpenSeats = ConcurrentHashMap.newKeySet(); // Fewer than two clients and no match running
+    private final Set<Room> roomsInMatch = ConcurrentHashMap.newKeySet();
+
+    // Room ids are unique across all nodes: the lowest NODE_BITS name the node that created the room
+    public static final int NODE_BITS = 8;
+    public static final int MAX_NODES = 1 << NODE_BITS;
+    public static final int MAX_SHARD_KEY = Integer.MAX_VALUE >>> NODE_BITS; // Keeps room ids positive
+
+    public ServerRegistry(int nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public static int nodeOf(int roomId) {
+        return roomId & (MAX_NODES - 1);
+    }
+
+    // The part of a room id that picks its shard
+    public static int shardKeyOf(int roomId) {
+        return roomId >>> NODE_BITS;
+    }
+
+    /// CONNECTIONS
+    protected String nextConnectionId() {
+        return String.format("%010d", this.nextConnectionId.getAndIncrement()); // 10 digits id
+    }
+
+    protected void addConnection(ClientConnection connection) {
+        this.connections.put(connection.id, connection);
+        this.sessions.put(connection.sessionToken, connection);
+    }
+
+    // Returns false if the connection was already removed, so only one caller gets to clean it up
+    protected boolean removeConnection(ClientConnection connection) {
+        return this.connections.remove(connection.id, connection);
+    }
+
+    public ClientConnection getConnection(String id) {
+        return this.connections.get(id);
+    }
+
+    public Collection<ClientConnection> getConnections() {
+        return Collections.unmodifiableCollection(this.connections.values());
+    }
+
+    public int getConnectionCount() {
+        return this.connections.size();
+    }
+
+    /// SESSIONS
+    protected void addSession(ClientConnection connection) {
+        this.sessions.put(connection.sessionToken, connection);
+    }
+
+    // Returns false if the session was already removed or resumed by another connection
+    protected boolean removeSession(ClientConnection connection) {
+        return this.sessions.remove(connection.sessionToken, connection);
+    }
+
+    // Hands the session of a disconnected client to the connection that resumed it. Returns false if it expired in the meantime
+    protected boolean resumeSession(ClientConnection previous, ClientConnection connection) {
+        if (!this.sessions.replace(previous.sessionToken, previous, connection)) {
+            return false;
+        }
+
+        this.sessions.remove(connection.sessionToken, connection);
+        connection.sessionToken = previous.sessionToken;
+
+        return true;
+    }
+
+    public ClientConnection getSession(String sessionToken) {
+        return this.sessions.get(sessionToken);
+    }
+
+    public int getSessionCount() {
+        return this.sessions.size();
+    }
+
+    /// ROOMS
+    // The id is chosen so that it maps to the given shard (shardKeyOf(roomId) % shardCount == shardIndex) and to this node.
+    // Once the shard keys run out the counter wraps around to 1, skipping ids of rooms that are still open.
+    // Only rooms of the given shard can get its ids, and those are created on that shard alone, so checking first is safe
+    protected Room createRoom(String roomName, ClientConnection creator, int shardIndex, int shardCount) {
+        int maxSequence = (MAX_SHARD_KEY - shardIndex) / shardCount;
+
+        for (int attempt = 0; attempt <= maxSequence; attempt++) {
+            int sequence = this.nextRoomId.getAndUpdate(next -> (next >= maxSequence) ? 1 : next + 1);
+
+            // Restored rooms can move the counter past the end, the update above already wrapped it
+            if (sequence > maxSequence) {
+                continue;
+            }
+
+            int roomId = ((sequence * shardCount + shardIndex) << NODE_BITS) | this.nodeId;
+
+            if (this.rooms.containsKey(roomId)) {
+                continue;
+            }
+
+            Room room = new Room(roomId, creator);
+            room.roomName = roomName;
+
+            this.rooms.put(room.roomId, room);
+            this.reindex(room);
+
+            return room;
+        }
+
+        throw new IllegalStateException("Every room id of shard " + shardIndex + " is taken.");
+    }
+
+    // Brings back a room replicated from another server under its original id. Rooms created later never reuse that id
+    protected Room restoreRoom(int roomId, String roomName, ClientConnection creator) {
+        Room room = new Room(roomId, creator);
+        room.roomName = roomName;
+        this.nextRoomId.accumulateAndGet(shardKeyOf(roomId) + 1, Math::max); // Wrapped around by createRoom if it gets too big
+
+        this.rooms.put(room.roomId, room);
+        this.reindex(room);
+
+        return room;
+    }
+
+    // Returns false if the room was already removed
+    protected boolean removeRoom(Room room) {
+        if (!this.rooms.remove(room.roomId, room)) {
+            return false;
+        }
+
+        this.roomsWithOpenSeats.remove(room);
+        this.roomsInMatch.remove(room);
+
+        return true;
+    }
+
+    public Room getRoom(int roomId) {
+        return this.rooms.get(roomId);
+    }
+
+    public boolean containsRoom(Room room) {
+        return this.rooms.get(room.roomId) == room;
+    }
+
+    public Collection<Room> getRooms() {
+        return Collections.unmodifiableCollection(this.rooms.values());
+    }
+
+    public int getRoomCount() {
+        return this.rooms.size();
+    }
+
+    public Set<Room> getRoomsWithOpenSeats() {
+        return Collections.unmodifiableSet(this.roomsWithOpenSeats);
+    }
+
+    public Set<Room> getRoomsInMatch() {
+        return Collections.unmodifiableSet(this.roomsInMatch);
+    }
+
+    // Must be called whenever a room's occupancy or match status changed
+    protected void reindex(Room room) {
+        if (!this.containsRoom(room)) {
+            return;
+        }
+
+        if (room.matchInProgress) {
+            this.roomsInMatch.add(room);
+        }
+        else {
+            this.roomsInMatch.remove(room);
+        }
+
+        if (!room.matchInProgress && room.connectedClients.size() < 2) {
+            this.roomsWithOpenSeats.add(room);
+        }
+        else {
+            this.roomsWithOpenSeats.remove(room);
+        }
+
+        // A removal racing with this update must not leave the room behind in an index
+        if (!this.containsRoom(room)) {
+            this.roomsWithOpenSeats.remove(room);
+            this.roomsInMatch.remove(room);
+        }
+    }
+}
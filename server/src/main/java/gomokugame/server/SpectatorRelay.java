@@ -0,0 +1,107 @@
+package gomokugame.server;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Feeds the spectators of one room. The room serves its players directly and only hands each message to the relay,
+// which fans it out on the shared executor, so the players never wait for the spectators. Each spectator may have
+// at most gomoku.spectatorBufferFrames unsent messages. A spectator beyond that gets nothing more until it caught up,
+// and then one snapshot of the match instead of everything it missed.
+// Every published message gets the next version. A spectator that got a snapshot directly from the room skips the
+// messages up to the version it was synced at, so nothing reaches it twice or out of order
+public class SpectatorRelay {
+    private final Room room;
+    private final Executor executor;
+    private final int bufferFrames;
+    private final ConcurrentLinkedQueue<Item> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final ConcurrentHashMap<ClientConnection, Long> syncedVersions = new ConcurrentHashMap<>(); // Spectators that got a snapshot from the room
+    private final ConcurrentHashMap.KeySetView<ClientConnection, Boolean> lagging = ConcurrentHashMap.newKeySet(); // Spectators waiting for a resync
+    private long version = 0; // Of the last published message, guarded by the room's matchLock
+    private volatile long resyncs = 0;
+
+    public SpectatorRelay(Room room, Executor executor, int bufferFrames) {
+        this.room = room;
+        this.executor = executor;
+        this.bufferFrames = bufferFrames;
+    }
+
+    // Queues a message for every spectator. black and white are the players at that point, who are served by the room.
+    // Called while holding matchLock
+    protected void publish(Broadcast message, ClientConnection black, ClientConnection white) {
+        this.pending.add(new Item(message, ++this.version, black, white));
+
+        if (this.draining.compareAndSet(false, true)) {
+            this.executor.execute(this::drain);
+        }
+    }
+
+    // The room sent the client a snapshot of everything published so far. Called while holding matchLock
+    protected void synced(ClientConnection client) {
+        this.syncedVersions.put(client, this.version);
+        this.lagging.remove(client);
+    }
+
+    protected void forget(ClientConnection client) {
+        this.syncedVersions.remove(client);
+        this.lagging.remove(client);
+    }
+
+    protected long getResyncCount() {
+        return this.resyncs;
+    }
+
+    // Only one drain runs at a time, so every spectator gets the messages in the order they were published
+    private void drain() {
+        do {
+            Item item;
+
+            while ((item = this.pending.poll()) != null) {
+                for (ClientConnection c : this.room.connectedClients) {
+                    if (c != item.black && c != item.white) {
+                        this.deliver(c, item);
+                    }
+                }
+            }
+
+            this.draining.set(false);
+        } while (!this.pending.isEmpty() && this.draining.compareAndSet(false, true)); // A message may have arrived right before draining was cleared
+    }
+
+    private void deliver(ClientConnection client, Item item) {
+        Long syncedVersion = this.syncedVersions.get(client);
+
+        if (syncedVersion != null && item.version <= syncedVersion) {
+            return; // Already part of the snapshot it got
+        }
+
+        int depth = client.outbound.getDepth();
+
+        if (this.lagging.contains(client)) {
+            if (depth > 0) {
+                return; // Still busy with what it has, everything it misses meanwhile is covered by the resync
+            }
+
+            this.resyncs++;
+            this.room.resyncSpectator(client); // Syncs it past this message as well
+            return;
+        }
+
+        if (depth >= this.bufferFrames) {
+            System.err.println("Spectator " + client.id + " of room " + this.room.roomId + " has " + depth + " unsent messages. Resyncing it once it caught up.");
+            this.lagging.add(client);
+            return;
+        }
+
+        try {
+            client.send(item.message);
+        } catch (IOException e) {
+            System.err.println("Failed to relay a message to spectator " + client.id + ".");
+        }
+    }
+
+    private record Item(Broadcast message, long version, ClientConnection black, ClientConnection white) {}
+}
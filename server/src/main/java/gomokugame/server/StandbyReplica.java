@@ -0,0 +1,157 @@
+package gomokugame.server;
+
+import java.io.*;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+
+// The standby's side of hot-standby replication. Follows the primary's room event stream and applies every event to
+// rooms of its own, whose clients are ReplicaSeats. Once the stream breaks off (the primary died, or sent nothing
+// for gomoku.failoverTimeoutMillis) this server takes over: the matches continue here and clients resume their
+// sessions with the ticket the primary gave them
+public class StandbyReplica implements Runnable {
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final int MAX_UNACKNOWLEDGED = 256; // Events applied before an acknowledgement goes out even while more are arriving
+    private final Server hostServer;
+    private final String host;
+    private final int port;
+    private final HashMap<String, ReplicaSeat> seats = new HashMap<>(); // By session token, guarded by this
+    private long appliedSequence = 0;
+    private long lastEventNanos;
+
+    public StandbyReplica(Server hostServer, String primaryAddress) {
+        this.hostServer = hostServer;
+
+        int separator = primaryAddress.lastIndexOf(':');
+        this.host = primaryAddress.substring(0, separator);
+        this.port = Integer.parseInt(primaryAddress.substring(separator + 1));
+    }
+
+    @Override
+    public void run() {
+        boolean followed = false;
+
+        // Waits for the primary to come up, then follows it until it is gone
+        while (!followed) {
+            try (Socket socket = new Socket(this.host, this.port)) {
+                followed = true;
+                if (!this.follow(socket)) {
+                    return;
+                }
+            } catch (SocketTimeoutException e) {
+                System.err.println("The primary at " + this.host + ":" + this.port + " sent nothing for " + this.hostServer.config.failoverTimeoutMillis + " ms.");
+            } catch (IOException e) {
+                if (followed) {
+                    System.err.println("Lost the primary at " + this.host + ":" + this.port + ".");
+                }
+            }
+
+            if (!followed) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        long detectedNanos = System.nanoTime();
+        this.hostServer.takeOver();
+
+        int matches = 0;
+        for (Room room : this.hostServer.registry.getRooms()) {
+            matches += room.matchInProgress ? 1 : 0;
+        }
+
+        System.out.println(String.format(
+                "Took over from the primary: %d rooms, %d running matches, %d events applied. Accepting clients %.1f ms after the primary was lost (%.1f ms after its last message).",
+                this.hostServer.registry.getRoomCount(), matches, this.appliedSequence,
+                (System.nanoTime() - detectedNanos) / 1e6, (System.nanoTime() - this.lastEventNanos) / 1e6));
+    }
+
+    // Returns false if the primary rejected the replication secret, otherwise only ends by an exception
+    private boolean follow(Socket socket) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(this.hostServer.config.failoverTimeoutMillis); // The primary sends heartbeats well within this
+        out.writeUTF((this.hostServer.config.replicationSecret == null) ? "" : this.hostServer.config.replicationSecret);
+        out.flush();
+
+        if (!in.readBoolean()) {
+            System.err.println("The primary at " + this.host + ":" + this.port + " rejected gomoku.replicationSecret. Not following it and never taking over.");
+            return false;
+        }
+        System.out.println("Following the primary at " + this.host + ":" + this.port + " as its hot standby.");
+
+        long acknowledged = 0;
+
+        while (true) {
+            RoomEvent event = RoomEvent.readFrom(in);
+            this.lastEventNanos = System.nanoTime();
+
+            if (event.type != RoomEvent.Type.HEARTBEAT) {
+                this.apply(event);
+                this.appliedSequence = event.sequence;
+            }
+
+            // Acknowledges once per batch, as soon as everything received so far is applied
+            if (this.appliedSequence > acknowledged && (in.available() == 0 || this.appliedSequence - acknowledged >= MAX_UNACKNOWLEDGED)) {
+                out.writeLong(this.appliedSequence);
+                out.flush();
+                acknowledged = this.appliedSequence;
+            }
+        }
+    }
+
+    private synchronized void apply(RoomEvent event) {
+        ServerRegistry registry = this.hostServer.registry;
+        Room room = registry.getRoom(event.roomId);
+
+        switch (event.type) {
+            case ROOM_OPENED:
+                if (room != null) {
+                    this.closeRoom(room); // The primary replays a room's state from its opening
+                }
+
+                ReplicaSeat creator = this.seatOf(event.clientToken, event.clientId);
+                creator.connectedRoom = registry.restoreRoom(event.roomId, event.roomName, creator);
+                break;
+            case ROOM_CLOSED:
+                if (room != null) {
+                    this.closeRoom(room);
+                }
+                break;
+            default:
+                // Events of a room whose state has not arrived yet are covered by that state
+                if (room == null) {
+                    return;
+                }
+
+                ReplicaSeat client = (event.clientToken == null) ? null : this.seatOf(event.clientToken, event.clientId);
+                ReplicaSeat otherClient = (event.otherClientToken == null) ? null : this.seatOf(event.otherClientToken, null);
+
+                if (event.type == RoomEvent.Type.CLIENT_JOINED) {
+                    client.connectedRoom = room;
+                }
+                else if (event.type == RoomEvent.Type.CLIENT_LEFT) {
+                    this.seats.remove(event.clientToken);
+                }
+
+                room.applyReplicatedEvent(event, client, otherClient);
+        }
+    }
+
+    private void closeRoom(Room room) {
+        this.hostServer.registry.removeRoom(room);
+
+        for (ClientConnection c : room.connectedClients) {
+            this.seats.remove(c.sessionToken);
+        }
+    }
+
+    private ReplicaSeat seatOf(String sessionToken, String clientId) {
+        return this.seats.computeIfAbsent(sessionToken, token -> new ReplicaSeat(this.hostServer, clientId, token));
+    }
+}
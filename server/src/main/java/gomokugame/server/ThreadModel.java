@@ -0,0 +1,18 @@
+package gomokugame.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Decides which kind of threads the Server runs its connection readers, room loops and match loops on
+public enum ThreadModel {
+    PLATFORM, // One platform thread per blocking task (cached pool)
+    VIRTUAL; // One virtual thread per blocking task
+
+    protected ExecutorService newExecutor() {
+        if (this == VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gomoku-virtual-", 0).factory());
+        }
+
+        return Executors.newCachedThreadPool();
+    }
+}
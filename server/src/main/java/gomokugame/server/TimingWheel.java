@@ -0,0 +1,254 @@
+package gomokugame.server;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Server-wide timer service for turn deadlines, delayed leaves, lobby publishing and any other delayed event.
+// A hierarchical timing wheel: level k has SLOTS buckets of SLOTS^k ticks each. Scheduling and cancelling are O(1)
+// (a timer is linked into / unlinked from one bucket), a timer moves down one level whenever its bucket comes up,
+// and a cancelled timer is unlinked at once, so memory is bounded by the number of pending timers.
+// Timers fire at most one tick late. Expired tasks run on the given executor, never on the wheel thread.
+public class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS; // 64 buckets per level
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5; // 64^5 ticks, about 124 days at a 10 ms tick. Longer delays are clamped
+
+    private final long tickNanos;
+    private final Executor executor;
+    private final Timeout[][] buckets = new Timeout[LEVELS][SLOTS]; // Head of each bucket's linked list
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick = 0; // Every timer due at or before this tick has already fired
+    private long startNanos;
+    private int pendingCount = 0;
+    private Thread thread;
+    private volatile boolean running;
+
+    // A pending timer. Cancelling it removes it from the wheel right away
+    public class Timeout {
+        private final Runnable task;
+        private long deadlineTick;
+        private int level = -1; // -1 when not linked into a bucket (fired or cancelled)
+        private int slot;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        // Returns false if the timer already fired or was cancelled before
+        public boolean cancel() {
+            TimingWheel.this.lock.lock();
+
+            try {
+                if (this.level < 0) {
+                    return false;
+                }
+
+                TimingWheel.this.unlink(this);
+                TimingWheel.this.pendingCount--;
+
+                return true;
+            } finally {
+                TimingWheel.this.lock.unlock();
+            }
+        }
+    }
+
+    public TimingWheel(long tickMillis, Executor executor) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        this.executor = executor;
+    }
+
+    public void start() {
+        this.running = true;
+        this.startNanos = System.nanoTime();
+        this.thread = new Thread(this::run, "gomoku-timer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public void stop() {
+        this.running = false;
+
+        if (this.thread != null) {
+            this.thread.interrupt();
+        }
+    }
+
+    // Runs the task once after the delay, never before it
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long dueNanos = System.nanoTime() - this.startNanos + unit.toNanos(delay);
+        long deadlineTick = (dueNanos + this.tickNanos - 1) / this.tickNanos; // First tick at or after the due time
+
+        this.lock.lock();
+
+        try {
+            Timeout timeout = new Timeout(task, Math.max(deadlineTick, this.currentTick + 1));
+            this.place(timeout);
+            this.pendingCount++;
+
+            return timeout;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    // Runs the task every period until the wheel is stopped
+    public void scheduleAtFixedRate(Runnable task, long period, TimeUnit unit) {
+        this.schedule(() -> {
+            try {
+                task.run();
+            } finally {
+                if (this.running) {
+                    this.scheduleAtFixedRate(task, period, unit);
+                }
+            }
+        }, period, unit);
+    }
+
+    public int getPendingCount() {
+        this.lock.lock();
+
+        try {
+            return this.pendingCount;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /// WHEEL THREAD
+    private void run() {
+        while (this.running) {
+            long now = System.nanoTime();
+            long dueTick = (now - this.startNanos) / this.tickNanos;
+            ArrayList<Runnable> expired = new ArrayList<>();
+
+            this.lock.lock();
+
+            try {
+                // Catches up on every tick that passed, so a late wake up never skips a timer
+                while (this.currentTick < dueTick) {
+                    this.advance(expired);
+                }
+            } finally {
+                this.lock.unlock();
+            }
+
+            for (Runnable task : expired) {
+                try {
+                    this.executor.execute(task);
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to run an expired timer: " + e.getMessage());
+                }
+            }
+
+            long sleepNanos = this.startNanos + (this.currentTick + 1) * this.tickNanos - System.nanoTime();
+
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    // Woken up by stop()
+                }
+            }
+        }
+    }
+
+    /// WHEEL OPERATIONS (called while holding lock)
+    // Moves to the next tick: brings timers of the buckets that come up one level down, then expires level 0
+    private void advance(ArrayList<Runnable> expired) {
+        this.currentTick++;
+
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((this.currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                this.cascade(level, (int) ((this.currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+            }
+        }
+
+        int slot = (int) (this.currentTick & SLOT_MASK);
+        Timeout timeout = this.buckets[0][slot];
+        this.buckets[0][slot] = null;
+
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.level = -1;
+
+            if (timeout.deadlineTick <= this.currentTick) {
+                this.pendingCount--;
+                expired.add(timeout.task);
+            }
+            else {
+                this.place(timeout); // Only clamped long delays get here
+            }
+
+            timeout = next;
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout timeout = this.buckets[level][slot];
+        this.buckets[level][slot] = null;
+
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.level = -1;
+            this.place(timeout);
+            timeout = next;
+        }
+    }
+
+    // Links the timer into the lowest level whose buckets still reach its deadline
+    private void place(Timeout timeout) {
+        long deadline = Math.max(timeout.deadlineTick, this.currentTick); // Due now only while cascading, expired right after
+        int level = 0;
+
+        while (level < LEVELS - 1 && (deadline >>> (SLOT_BITS * level)) - (this.currentTick >>> (SLOT_BITS * level)) >= SLOTS) {
+            level++;
+        }
+
+        long block = deadline >>> (SLOT_BITS * level);
+        long currentBlock = this.currentTick >>> (SLOT_BITS * level);
+
+        if (block - currentBlock >= SLOTS) {
+            block = currentBlock + SLOTS - 1; // Beyond the top level, parked in its furthest bucket and placed again later
+        }
+
+        int slot = (int) (block & SLOT_MASK);
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.prev = null;
+        timeout.next = this.buckets[level][slot];
+
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+
+        this.buckets[level][slot] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        }
+        else {
+            this.buckets[timeout.level][timeout.slot] = timeout.next;
+        }
+
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.level = -1;
+    }
+}
@@ -0,0 +1,31 @@
+package gomokugame.server;
+
+// Allows ratePerSecond messages per second on average and bursts of up to capacity. Not thread safe: each bucket
+// belongs to the single reader of one connection
+public class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(int ratePerSecond, int capacity) {
+        this.capacity = capacity;
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    // Takes one token if there is one
+    public boolean tryTake() {
+        long now = System.nanoTime();
+        this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefillNanos) * this.tokensPerNano);
+        this.lastRefillNanos = now;
+
+        if (this.tokens < 1) {
+            return false;
+        }
+
+        this.tokens--;
+        return true;
+    }
+}
@@ -0,0 +1,7 @@
+package gomokugame.server;
+
+// Decides how the Server moves bytes between sockets and ClientConnections
+public enum Transport {
+    BLOCKING, // ServerSocket accept loop and one blocking reader per connection
+    NIO // A few Selector event loops shared by every connection
+}
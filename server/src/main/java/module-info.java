@@ -0,0 +1,6 @@
+module gomokugame.server {
+    requires transitive gomokugame.core;
+
+    exports gomokugame.server;
+    exports gomokugame.directory;
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package gomokugame.server;
+
+import gomokugame.objects.Heartbeat;
+import gomokugame.protocol.Frames;
+import gomokugame.protocol.Handshake;
+import gomokugame.protocol.MessageCodec;
+import gomokugame.protocol.WireFormat;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Load driver for the idle client measurements in the README. Opens the given number of connections to a running
+// server, each one says hello in BINARY, opens the room list and then stays in the lobby answering heartbeats.
+// Connections are opened one after another, so the server's accept backlog never overflows, and each one is then
+// served by a virtual thread of this process, so the driver itself stays small.
+// Run with: java -cp core/target/classes:server/target/classes:server/target/test-classes gomokugame.server.IdleClients localhost 9090 10000
+public class IdleClients {
+    private static final MessageCodec codec = WireFormat.BINARY.codec;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int clientCount = Integer.parseInt(args[2]);
+
+        CountDownLatch inLobby = new CountDownLatch(clientCount);
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger disconnected = new AtomicInteger();
+
+        for (int i = 0; i < clientCount; i++) {
+            Socket connected = new Socket(host, port);
+
+            Thread.ofVirtual().start(() -> {
+                boolean entered = false;
+
+                try (Socket socket = connected) {
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+                    Frames.write(out, Handshake.clientHello(WireFormat.BINARY));
+                    if (Handshake.acceptedFormat(Frames.readPayload(in)) != WireFormat.BINARY) {
+                        throw new IOException("Server turned the client away.");
+                    }
+
+                    Frames.write(out, codec.encode("GET_ROOM_LIST"));
+                    entered = true;
+                    inLobby.countDown();
+
+                    while (true) {
+                        if (codec.decode(Frames.readPayload(in)) instanceof Heartbeat heartbeat && !heartbeat.isReply) {
+                            Frames.write(out, codec.encode(new Heartbeat(heartbeat.serverTimeMicros, heartbeat.roundTripMicros, true)));
+                        }
+                    }
+                } catch (IOException e) {
+                    if (entered) {
+                        disconnected.incrementAndGet();
+                    }
+                    else {
+                        failed.incrementAndGet();
+                        inLobby.countDown();
+                    }
+                }
+            });
+        }
+
+        inLobby.await();
+        System.out.println("connected " + (clientCount - failed.get()) + " of " + clientCount);
+
+        // Keeps the connections open until the process is killed
+        while (true) {
+            Thread.sleep(10_000);
+
+            if (disconnected.get() > 0) {
+                System.out.println(disconnected.get() + " clients were disconnected by the server");
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package gomokugame.server;
+
+import gomokugame.protocol.Frames;
+import gomokugame.protocol.Handshake;
+import gomokugame.protocol.SerializationCodec;
+import gomokugame.protocol.WireFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Malformed frames must only cost the connection that sent them. The server runs with one NIO event loop (which also
+// accepts) and one connection per address, so a killed loop or a leaked admission slot turns the next client away
+class MalformedFrameTest {
+    private static final int TIMEOUT_MILLIS = 5000;
+
+    // Payloads sent right after a valid hello
+    private static final byte[][] MALFORMED_PAYLOADS = {
+            {0x07, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}, // Room list with a negative count
+            {0x07, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}, // Room list with a count far beyond the payload
+            {0x0E, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}, // Delta with a negative count
+            {0x0E, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}, // Delta with a negative removed count
+            {0x01, 5}, // Truncated move
+            {0x08, 30, 0, 0, 0, 0, 0, 0}, // Board without its tiles
+            {0x06, 0, 0, 0, 1, 1, 0x7F, (byte) 0xFF}, // Room whose name runs past the payload
+            {0x11, 0, 0, 0, 1, 0x11, 0, 0, 0, 2, 0x45}, // Nested request
+            {0x12, 0, 0, 0, 1}, // Response without a body
+            {0x3F}, // Unknown opcode
+            {}, // Empty payload
+    };
+
+    @Test
+    void blockingTransportSurvivesMalformedFrames() throws Exception {
+        this.checkServerSurvives(Transport.BLOCKING);
+    }
+
+    @Test
+    void nioTransportSurvivesMalformedFrames() throws Exception {
+        this.checkServerSurvives(Transport.NIO);
+    }
+
+    private void checkServerSurvives(Transport transport) throws Exception {
+        int port = freePort();
+        ServerConfig config = new ServerConfig();
+        config.transport = transport;
+        config.ioThreads = 1;
+        config.roomShards = 1;
+        config.maxConnectionsPerAddress = 1;
+        config.idleTimeoutMillis = 60000; // Only closing the bad connection right away may free its slot in time
+
+        Server server = new Server(port, config);
+        assertTrue(server.success());
+        server.run();
+
+        for (byte[] payload : MALFORMED_PAYLOADS) {
+            assertClosedAfter(port, Handshake.clientHello(WireFormat.BINARY), Frames.frame(payload));
+            assertServesFreshClient(port);
+        }
+
+        // Frame headers that announce an impossible size
+        assertClosedAfter(port, Handshake.clientHello(WireFormat.BINARY), new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+        assertServesFreshClient(port);
+        assertClosedAfter(port, Handshake.clientHello(WireFormat.BINARY), new byte[]{0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF});
+        assertServesFreshClient(port);
+
+        // A first frame that is not a hello is never decoded, whatever it holds
+        assertClosedAfter(port, new SerializationCodec().encode("GET_ROOM_LIST"));
+        assertServesFreshClient(port);
+        assertClosedAfter(port, Frames.frame(new byte[]{0x07, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF}));
+        assertServesFreshClient(port);
+
+        // A hello with only formats the server does not offer
+        assertClosedAfter(port, Handshake.clientHello(WireFormat.SERIALIZED));
+        assertServesFreshClient(port);
+
+        // A hello of another protocol version is told so before the connection closes
+        assertVersionMismatch(port, Handshake.VERSION - 1);
+        assertServesFreshClient(port);
+        assertVersionMismatch(port, Handshake.VERSION + 1);
+        assertServesFreshClient(port);
+
+        assertEquals(0, server.registry.getConnectionCount());
+    }
+
+    // Sends the frames and waits until the server closes the connection
+    private static void assertClosedAfter(int port, byte[]... frames) throws IOException {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+
+            for (byte[] frame : frames) {
+                socket.getOutputStream().write(frame);
+            }
+            socket.getOutputStream().flush();
+
+            InputStream in = socket.getInputStream();
+            byte[] discarded = new byte[4096];
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS); // Heartbeats keep the reads from timing out
+
+            try {
+                while (in.read(discarded) >= 0) {
+                    // Whatever the server sent before closing, e.g. its hello and session ticket
+                    assertTrue(System.nanoTime() < deadline, "Server kept the connection open");
+                }
+            } catch (SocketTimeoutException e) {
+                fail("Server kept the connection open");
+            } catch (IOException e) {
+                // Reset by the server, closed as well
+            }
+        }
+    }
+
+    private static void assertVersionMismatch(int port, int version) throws IOException {
+        byte[] hello = Handshake.clientHello(WireFormat.BINARY);
+        hello[Frames.HEADER_SIZE + 3] = (byte) version; // Right after the magic
+
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            socket.getOutputStream().write(hello);
+            socket.getOutputStream().flush();
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            byte[] reply = Frames.readPayload(in);
+            assertArrayEquals(Handshake.versionMismatch(), Frames.frame(reply));
+            IOException refused = assertThrows(IOException.class, () -> Handshake.acceptedFormat(reply));
+            assertTrue(refused.getMessage().contains("protocol version"), refused.getMessage());
+            assertEquals(-1, in.read(), "Server kept the connection open");
+        }
+    }
+
+    // Once the previous connection is gone, the next client is admitted and gets its hello
+    private static void assertServesFreshClient(int port) throws IOException {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            socket.getOutputStream().write(Handshake.clientHello(WireFormat.BINARY));
+            socket.getOutputStream().flush();
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            assertEquals(WireFormat.BINARY, Handshake.acceptedFormat(Frames.readPayload(in)));
+
+            // Leave and wait until the server let go of the connection, so the next one gets its slot
+            socket.shutdownOutput();
+            while (in.read() >= 0) {
+                // Session ticket and room list
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
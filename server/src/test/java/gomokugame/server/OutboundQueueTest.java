@@ -0,0 +1,162 @@
+package gomokugame.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The queue decides on its own when a writer has to be scheduled. It must schedule exactly one per idle-to-busy
+// transition, and never leave a frame behind that nobody is going to write
+class OutboundQueueTest {
+    private final AtomicInteger scheduledFlushes = new AtomicInteger();
+
+    @Test
+    void schedulesOneFlushPerIdleToBusyTransition() {
+        OutboundQueue queue = new OutboundQueue(100, this.scheduledFlushes::incrementAndGet);
+
+        queue.offer(frame(1), MessagePriority.HIGH);
+        queue.offer(frame(2), MessagePriority.LOW);
+        queue.offer(frame(3), MessagePriority.HIGH);
+        assertEquals(1, this.scheduledFlushes.get(), "Offers into a busy queue must not schedule another writer");
+
+        drain(queue);
+        assertFalse(queue.finishFlush());
+        assertEquals(1, this.scheduledFlushes.get());
+
+        // Idle again, so the next offer needs a writer
+        queue.offer(frame(4), MessagePriority.LOW);
+        queue.offer(frame(5), MessagePriority.LOW);
+        assertEquals(2, this.scheduledFlushes.get());
+    }
+
+    @Test
+    void frameOfferedWhileFinishingIsNotStranded() {
+        OutboundQueue queue = new OutboundQueue(100, this.scheduledFlushes::incrementAndGet);
+
+        queue.offer(frame(1), MessagePriority.HIGH);
+        drain(queue);
+
+        // Arrives after the writer saw the queue empty, but before it let go: no new writer is scheduled,
+        // so the one finishing has to keep going
+        queue.offer(frame(2), MessagePriority.HIGH);
+        assertEquals(1, this.scheduledFlushes.get());
+        assertTrue(queue.finishFlush(), "Writer let go of a frame nobody else is going to write");
+
+        assertEquals(2, queue.poll().bytes()[0]);
+        assertFalse(queue.finishFlush());
+        assertEquals(0, queue.getDepth());
+    }
+
+    // Several threads offer while a writer, started through the callback like the transports do, drains the queue.
+    // Every frame must be written, and never by two writers at once
+    @Test
+    void concurrentOffersAreAllWrittenBySingleWriter() throws Exception {
+        int producers = 4;
+        int framesPerProducer = 50000;
+        ExecutorService writers = Executors.newCachedThreadPool();
+        ExecutorService producerThreads = Executors.newFixedThreadPool(producers);
+        AtomicInteger activeWriters = new AtomicInteger();
+        AtomicInteger maxActiveWriters = new AtomicInteger();
+        AtomicLong written = new AtomicLong();
+        OutboundQueue[] queue = new OutboundQueue[1]; // The callback needs the queue it belongs to
+
+        queue[0] = new OutboundQueue(Integer.MAX_VALUE, () -> {
+            this.scheduledFlushes.incrementAndGet();
+            writers.execute(() -> {
+                do {
+                    maxActiveWriters.accumulateAndGet(activeWriters.incrementAndGet(), Math::max);
+
+                    while (queue[0].poll() != null) {
+                        written.incrementAndGet();
+                    }
+
+                    activeWriters.decrementAndGet(); // Another writer may start as soon as this one calls finishFlush
+                } while (queue[0].finishFlush());
+            });
+        });
+
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            producerThreads.execute(() -> {
+                for (int i = 0; i < framesPerProducer; i++) {
+                    queue[0].offer(frame(producer), (i % 3 == 0) ? MessagePriority.LOW : MessagePriority.HIGH);
+                }
+            });
+        }
+
+        producerThreads.shutdown();
+        assertTrue(producerThreads.awaitTermination(30, TimeUnit.SECONDS));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (written.get() < (long) producers * framesPerProducer && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        writers.shutdown();
+        assertEquals((long) producers * framesPerProducer, written.get(), "Frames were left in the queue");
+        assertEquals(0, queue[0].getDepth());
+        assertEquals(1, maxActiveWriters.get(), "Two writers drained the queue at once");
+    }
+
+    @Test
+    void rejectedOfferLeavesDepthCorrect() {
+        OutboundQueue queue = new OutboundQueue(3, this.scheduledFlushes::incrementAndGet);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(queue.offer(frame(i), MessagePriority.LOW));
+        }
+
+        assertFalse(queue.offer(frame(3), MessagePriority.HIGH));
+        assertFalse(queue.offer(frame(4), MessagePriority.LOW));
+        assertEquals(3, queue.getDepth());
+        assertEquals(3, queue.getMaxDepth());
+
+        // The rejected frames were not queued
+        assertEquals(3, drain(queue).size());
+        assertEquals(0, queue.getDepth());
+
+        // Room again once the writer drained it
+        assertTrue(queue.offer(frame(5), MessagePriority.HIGH));
+        assertEquals(1, queue.getDepth());
+        queue.clear();
+        assertEquals(0, queue.getDepth());
+        assertEquals(1, this.scheduledFlushes.get(), "Rejected offers must not schedule a writer");
+    }
+
+    @Test
+    void highPriorityFramesGoOutBeforeLow() {
+        OutboundQueue queue = new OutboundQueue(100, this.scheduledFlushes::incrementAndGet);
+
+        queue.offer(frame(1), MessagePriority.LOW);
+        queue.offer(frame(2), MessagePriority.LOW);
+        queue.offer(frame(3), MessagePriority.HIGH);
+        queue.offer(frame(4), MessagePriority.LOW);
+        queue.offer(frame(5), MessagePriority.HIGH);
+
+        // High first, and within a priority in the order offered
+        assertEquals(List.of(3, 5, 1, 2, 4), drain(queue));
+    }
+
+    // Polls like a writer until the queue is empty, returning the frames' first bytes
+    private static List<Integer> drain(OutboundQueue queue) {
+        List<Integer> frames = new ArrayList<>();
+        OutboundQueue.OutboundFrame frame;
+
+        while ((frame = queue.poll()) != null) {
+            frames.add((int) frame.bytes()[0]);
+        }
+
+        return frames;
+    }
+
+    private static byte[] frame(int marker) {
+        return new byte[]{(byte) marker};
+    }
+}
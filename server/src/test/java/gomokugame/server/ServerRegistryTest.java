@@ -0,0 +1,123 @@
+package gomokugame.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Room ids carry their shard and node, stay positive and never collide with an open room, also after restored rooms
+// pushed the counter to the end of the id range and it wrapped around
+class ServerRegistryTest {
+    private static final int NODE_ID = 3;
+    private static final int SHARDS = 4;
+
+    @Test
+    void createdRoomsMapBackToTheirShardAndNode() throws Exception {
+        Server server = startServer();
+        ServerRegistry registry = server.registry;
+        Set<Integer> ids = new HashSet<>();
+
+        for (int i = 0; i < 20; i++) {
+            int shardIndex = i % SHARDS;
+            Room room = registry.createRoom("Room " + i, newSeat(server, i), shardIndex, SHARDS);
+
+            assertCreated(room, shardIndex, SHARDS, ids);
+            assertSame(server.shardFor(room.roomId), room.shard);
+        }
+    }
+
+    @Test
+    void idsStayPositiveAtTheEndOfTheRangeAndSkipOpenRoomsAfterWrapping() throws Exception {
+        Server server = startServer();
+        ServerRegistry registry = server.registry;
+        int max = ServerRegistry.MAX_SHARD_KEY; // With a single shard, every shard key is a sequence
+
+        // Still open when the counter comes around again
+        Room first = registry.restoreRoom(roomId(1, 0, 1), "First", newSeat(server, 0));
+        Room second = registry.restoreRoom(roomId(2, 0, 1), "Second", newSeat(server, 1));
+
+        // A room replicated from the end of the range pushes the counter right up to it
+        Room last = registry.restoreRoom(roomId(max - 2, 0, 1), "Last", newSeat(server, 2));
+
+        Set<Integer> ids = new HashSet<>(Set.of(first.roomId, second.roomId, last.roomId));
+        int[] expectedSequences = {max - 1, max, 3, 4};
+
+        for (int i = 0; i < expectedSequences.length; i++) {
+            Room room = registry.createRoom("Room " + i, newSeat(server, 3 + i), 0, 1);
+
+            assertCreated(room, 0, 1, ids);
+            assertEquals(roomId(expectedSequences[i], 0, 1), room.roomId);
+        }
+    }
+
+    @Test
+    void restoredRoomsPastTheEndOfAShardWrapAround() throws Exception {
+        Server server = startServer();
+        ServerRegistry registry = server.registry;
+        int shardIndex = 2;
+        int maxSequence = (ServerRegistry.MAX_SHARD_KEY - shardIndex) / SHARDS;
+
+        Room first = registry.restoreRoom(roomId(1, shardIndex, SHARDS), "First", newSeat(server, 0));
+        Room last = registry.restoreRoom(roomId(maxSequence, shardIndex, SHARDS), "Last", newSeat(server, 1));
+        assertTrue(last.roomId > 0);
+
+        Set<Integer> ids = new HashSet<>(Set.of(first.roomId, last.roomId));
+
+        for (int i = 0; i < 5; i++) {
+            Room room = registry.createRoom("Room " + i, newSeat(server, 2 + i), shardIndex, SHARDS);
+
+            assertCreated(room, shardIndex, SHARDS, ids);
+            assertEquals(roomId(2 + i, shardIndex, SHARDS), room.roomId);
+        }
+    }
+
+    @Test
+    void restoredRoomsAreNeverHandedOutAgain() throws Exception {
+        Server server = startServer();
+        ServerRegistry registry = server.registry;
+        Room restored = registry.restoreRoom(roomId(5, 0, SHARDS), "Restored", newSeat(server, 0));
+        Set<Integer> ids = new HashSet<>(Set.of(restored.roomId));
+
+        for (int i = 0; i < 10; i++) {
+            assertCreated(registry.createRoom("Room " + i, newSeat(server, 1 + i), 0, SHARDS), 0, SHARDS, ids);
+        }
+    }
+
+    private static void assertCreated(Room room, int shardIndex, int shardCount, Set<Integer> ids) {
+        assertTrue(room.roomId > 0, "Room id " + room.roomId + " is not positive");
+        assertTrue(ids.add(room.roomId), "Room id " + room.roomId + " was handed out twice");
+        assertEquals(NODE_ID, ServerRegistry.nodeOf(room.roomId));
+        assertEquals(shardIndex, Math.floorMod(ServerRegistry.shardKeyOf(room.roomId), shardCount));
+    }
+
+    // The id createRoom gives the sequence on the shard
+    private static int roomId(int sequence, int shardIndex, int shardCount) {
+        return ((sequence * shardCount + shardIndex) << ServerRegistry.NODE_BITS) | NODE_ID;
+    }
+
+    private static ReplicaSeat newSeat(Server server, int index) {
+        return new ReplicaSeat(server, String.format("%010d", index), "token-" + index);
+    }
+
+    private static Server startServer() throws IOException {
+        ServerConfig config = new ServerConfig();
+        config.nodeId = NODE_ID;
+        config.roomShards = SHARDS;
+
+        Server server = new Server(freePort(), config);
+        assertTrue(server.success());
+        server.run();
+
+        return server;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package gomokugame.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs a real wheel with a 1 ms tick. Delays up to 300 ms cross the first level, so timers also get cascaded down.
+// Only "never early" and "fired at all" are checked exactly, how late a timer fires depends on the machine
+class TimingWheelTest {
+    private static final long TICK_MILLIS = 1;
+    private static final int TIMERS = 2000;
+    private static final long MAX_DELAY_MILLIS = 300;
+    private static final long WAIT_MILLIS = 5000;
+
+    private TimingWheel wheel;
+
+    @AfterEach
+    void stopWheel() {
+        if (this.wheel != null) {
+            this.wheel.stop();
+        }
+    }
+
+    @Test
+    void timersFireOnceAndNeverEarly() throws InterruptedException {
+        this.wheel = startWheel();
+        Random random = new Random(5);
+        AtomicLongArray firedAfterNanos = new AtomicLongArray(TIMERS);
+        AtomicInteger firings = new AtomicInteger();
+        CountDownLatch allFired = new CountDownLatch(TIMERS);
+        long[] delayNanos = new long[TIMERS];
+
+        for (int i = 0; i < TIMERS; i++) {
+            int timer = i;
+            long delayMillis = random.nextInt((int) MAX_DELAY_MILLIS + 1);
+            delayNanos[timer] = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            long scheduledNanos = System.nanoTime();
+
+            this.wheel.schedule(() -> {
+                firedAfterNanos.set(timer, System.nanoTime() - scheduledNanos);
+                firings.incrementAndGet();
+                allFired.countDown();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(allFired.await(WAIT_MILLIS, TimeUnit.MILLISECONDS), "Only " + firings.get() + " of " + TIMERS + " timers fired");
+
+        for (int i = 0; i < TIMERS; i++) {
+            assertTrue(firedAfterNanos.get(i) >= delayNanos[i], "Timer " + i + " fired " + (delayNanos[i] - firedAfterNanos.get(i)) + " ns early");
+        }
+
+        Thread.sleep(50); // Gives a timer that fires twice the chance to show
+        assertEquals(TIMERS, firings.get());
+        assertEquals(0, this.wheel.getPendingCount());
+    }
+
+    @Test
+    void cancelledTimersNeverFire() throws InterruptedException {
+        this.wheel = startWheel();
+        Random random = new Random(9);
+        ConcurrentLinkedQueue<Integer> fired = new ConcurrentLinkedQueue<>();
+        List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+        CountDownLatch keptFired = new CountDownLatch(TIMERS / 2);
+
+        for (int i = 0; i < TIMERS; i++) {
+            int timer = i;
+            timeouts.add(this.wheel.schedule(() -> {
+                fired.add(timer);
+                keptFired.countDown();
+            }, 50 + random.nextInt((int) MAX_DELAY_MILLIS), TimeUnit.MILLISECONDS));
+        }
+
+        // Every odd timer is cancelled, well before the shortest delay is over
+        for (int i = 1; i < TIMERS; i += 2) {
+            assertTrue(timeouts.get(i).cancel());
+            assertFalse(timeouts.get(i).cancel(), "A timer can only be cancelled once");
+        }
+
+        assertEquals(TIMERS / 2, this.wheel.getPendingCount());
+        assertTrue(keptFired.await(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+        Thread.sleep(50);
+
+        for (int timer : fired) {
+            assertEquals(0, timer % 2, "Cancelled timer " + timer + " fired");
+        }
+
+        assertEquals(TIMERS / 2, fired.size());
+        assertEquals(0, this.wheel.getPendingCount());
+        assertFalse(timeouts.get(0).cancel(), "A fired timer can not be cancelled");
+    }
+
+    @Test
+    void delaysBeyondTheWheelAreKeptUntilCancelled() {
+        this.wheel = startWheel();
+        TimingWheel.Timeout timeout = this.wheel.schedule(() -> fail("Fired centuries early"), 365 * 100, TimeUnit.DAYS);
+
+        assertEquals(1, this.wheel.getPendingCount());
+        assertTrue(timeout.cancel());
+        assertEquals(0, this.wheel.getPendingCount());
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheWheel() throws InterruptedException {
+        this.wheel = startWheel();
+        CountDownLatch fired = new CountDownLatch(1);
+
+        // The executor runs tasks on the wheel thread here, so the exception reaches the wheel itself
+        this.wheel.schedule(() -> {
+            throw new IllegalStateException("Broken task");
+        }, 1, TimeUnit.MILLISECONDS);
+        this.wheel.schedule(fired::countDown, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void fixedRateTaskRepeatsUntilStopped() throws InterruptedException {
+        this.wheel = startWheel();
+        CountDownLatch runs = new CountDownLatch(5);
+
+        this.wheel.scheduleAtFixedRate(runs::countDown, 5, TimeUnit.MILLISECONDS);
+
+        assertTrue(runs.await(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    private static TimingWheel startWheel() {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, Runnable::run);
+        wheel.start();
+
+        return wheel;
+    }
+}